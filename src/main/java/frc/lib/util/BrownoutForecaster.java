@@ -0,0 +1,148 @@
+package frc.lib.util;
+
+/**
+ * Predicts the battery voltage a short time ahead from recent power distribution
+ * samples.  The battery is modeled as an open circuit voltage behind a resistance,
+ * V = Voc - I * R, so if the current keeps rising at its recent rate the voltage
+ * will fall by R * dI/dt * horizon.
+ *
+ * Both numbers are least squares fits over the samples in the window: dI/dt is the
+ * slope of current against time, and R is minus the slope of voltage against current.
+ * R can only be measured when the current has swung enough to stand out from the
+ * noise; until then, and whenever the fit is not physical, the last good value (or
+ * the nominal one) is used.
+ *
+ * Samples are kept in parallel primitive arrays used as a ring buffer, so adding one
+ * never allocates.  Only used from one thread.
+ */
+public class BrownoutForecaster {
+    /** Less spread than this (standard deviation, amps) and the voltage drop is lost in the noise */
+    private static final double kMinCurrentSpreadAmps = 10.0;
+    private static final double kMinResistanceOhms = 0.005;
+    private static final double kMaxResistanceOhms = 0.1;
+
+    private final double[] m_timestamps;
+    private final double[] m_voltages;
+    private final double[] m_currents;
+    private final int m_capacity;
+    private final double m_windowSeconds;
+    /** physical index of the oldest sample */
+    private int m_head = 0;
+    private int m_size = 0;
+    private double m_resistanceOhms;
+    private double m_currentSlope = 0.0;
+
+    /**
+     * @param windowSeconds - how much history the fits use
+     * @param sampleRateHz - how often samples will be added
+     * @param nominalResistanceOhms - battery plus wiring resistance to use until it can be measured
+     */
+    public BrownoutForecaster(double windowSeconds, double sampleRateHz, double nominalResistanceOhms) {
+        m_capacity = (int) Math.ceil(windowSeconds * sampleRateHz) + 1;
+        m_windowSeconds = windowSeconds;
+        m_timestamps = new double[m_capacity];
+        m_voltages = new double[m_capacity];
+        m_currents = new double[m_capacity];
+        m_resistanceOhms = nominalResistanceOhms;
+    }
+
+    /**
+     * Record a sample, overwriting the oldest one if the buffer is full.
+     * Samples must be added in time order; one not newer than the latest is ignored.
+     * @param timestampSeconds - FPGA time of the sample
+     * @param volts - battery voltage at the board
+     * @param amps - total current through the board
+     */
+    public void add(double timestampSeconds, double volts, double amps) {
+        if (m_size > 0 && timestampSeconds <= m_timestamps[physical(m_size - 1)]) {
+            return;
+        }
+        int index;
+        if (m_size < m_capacity) {
+            index = physical(m_size);
+            m_size++;
+        } else {
+            index = m_head;
+            m_head = (m_head + 1) % m_capacity;
+        }
+        m_timestamps[index] = timestampSeconds;
+        m_voltages[index] = volts;
+        m_currents[index] = amps;
+    }
+
+    /**
+     * Refit the current slope and resistance to the samples in the window.
+     * Call once after adding each batch of samples.
+     */
+    public void update() {
+        if (m_size < 3) {
+            m_currentSlope = 0.0;
+            return;
+        }
+        double newest = m_timestamps[physical(m_size - 1)];
+        int count = 0;
+        double sumT = 0.0, sumV = 0.0, sumI = 0.0;
+        for (int i = m_size - 1; i >= 0; i--) {
+            int index = physical(i);
+            if (newest - m_timestamps[index] > m_windowSeconds) {
+                break;
+            }
+            // relative to the newest sample, so the sums do not lose precision
+            sumT += m_timestamps[index] - newest;
+            sumV += m_voltages[index];
+            sumI += m_currents[index];
+            count++;
+        }
+        if (count < 3) {
+            m_currentSlope = 0.0;
+            return;
+        }
+        double meanT = sumT / count, meanV = sumV / count, meanI = sumI / count;
+        double sTT = 0.0, sTI = 0.0, sII = 0.0, sIV = 0.0;
+        for (int i = m_size - count; i < m_size; i++) {
+            int index = physical(i);
+            double dt = m_timestamps[index] - newest - meanT;
+            double di = m_currents[index] - meanI;
+            double dv = m_voltages[index] - meanV;
+            sTT += dt * dt;
+            sTI += dt * di;
+            sII += di * di;
+            sIV += di * dv;
+        }
+        m_currentSlope = sTT > 0.0 ? sTI / sTT : 0.0;
+        if (sII / count >= kMinCurrentSpreadAmps * kMinCurrentSpreadAmps) {
+            double resistance = -sIV / sII;
+            if (resistance >= kMinResistanceOhms && resistance <= kMaxResistanceOhms) {
+                m_resistanceOhms = resistance;
+            }
+        }
+    }
+
+    /**
+     * @param horizonSeconds - how far ahead to look
+     * @return the voltage expected that far ahead if the current keeps changing at its
+     * recent rate; only a rising current lowers it, so a falling one returns the latest voltage
+     */
+    public double forecast(double horizonSeconds) {
+        if (m_size == 0) {
+            return 0.0;
+        }
+        double latest = m_voltages[physical(m_size - 1)];
+        return latest - m_resistanceOhms * Math.max(m_currentSlope, 0.0) * horizonSeconds;
+    }
+
+    /** @return the resistance in use, ohms */
+    public double getResistanceOhms() {
+        return m_resistanceOhms;
+    }
+
+    /** @return rate the total current is changing, amps per second */
+    public double getCurrentSlope() {
+        return m_currentSlope;
+    }
+
+    /** convert a logical index (0 is the oldest sample) to a physical one */
+    private int physical(int i) {
+        return (m_head + i) % m_capacity;
+    }
+}
@@ -0,0 +1,179 @@
+package frc.lib.util;
+
+import java.util.Optional;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * A fixed-size record of recent robot poses, for answering "where was the robot at time t".
+ * Poses are kept in parallel primitive arrays used as a ring buffer, so adding a pose
+ * never allocates (unlike a TreeMap of Pose2d's).  Lookups binary search the timestamps
+ * and interpolate between the two nearest poses.
+ *
+ * The history holds whatever poses its owner adds; Swerve adds its fused pose
+ * estimate (odometry corrected by vision) at each odometry sample, and moves the
+ * recent poses with transformSince() when a vision measurement corrects them.
+ *
+ * One thread may add poses while others look them up.
+ */
+public class PoseHistory {
+    private final double[] m_timestamps;
+    private final double[] m_x;
+    private final double[] m_y;
+    private final double[] m_theta;
+    private final int m_capacity;
+    private final double[] m_scratch = new double[3];
+    /** physical index of the oldest pose */
+    private int m_head = 0;
+    private int m_size = 0;
+
+    /**
+     * @param historySeconds - how far back lookups must work
+     * @param sampleRateHz - how often poses will be added
+     */
+    public PoseHistory(double historySeconds, double sampleRateHz) {
+        m_capacity = (int) Math.ceil(historySeconds * sampleRateHz) + 1;
+        m_timestamps = new double[m_capacity];
+        m_x = new double[m_capacity];
+        m_y = new double[m_capacity];
+        m_theta = new double[m_capacity];
+    }
+
+    /**
+     * Record a pose, overwriting the oldest one if the history is full.
+     * Poses must be added in time order; one not newer than the latest is ignored.
+     * @param timestampSeconds - FPGA time of the pose
+     * @param xMeters
+     * @param yMeters
+     * @param thetaRadians - heading, counterclockwise
+     */
+    public synchronized void add(double timestampSeconds, double xMeters, double yMeters, double thetaRadians) {
+        if (m_size > 0 && timestampSeconds <= m_timestamps[physical(m_size - 1)]) {
+            return;
+        }
+        int index;
+        if (m_size < m_capacity) {
+            index = physical(m_size);
+            m_size++;
+        } else {
+            index = m_head;
+            m_head = (m_head + 1) % m_capacity;
+        }
+        m_timestamps[index] = timestampSeconds;
+        m_x[index] = xMeters;
+        m_y[index] = yMeters;
+        m_theta[index] = thetaRadians;
+    }
+
+    /**
+     * Look up the robot's pose at a given time, interpolating between recorded poses.
+     * Times after the newest pose give the newest pose.
+     * @param timestampSeconds - FPGA time
+     * @param xyTheta - array of length at least 3, filled with x (meters), y (meters)
+     * and heading (radians)
+     * @return false, leaving xyTheta untouched, if the history is empty or the time is
+     * older than the oldest pose
+     */
+    public synchronized boolean sample(double timestampSeconds, double[] xyTheta) {
+        if (m_size == 0 || timestampSeconds < m_timestamps[m_head]) {
+            return false;
+        }
+        int newest = physical(m_size - 1);
+        if (timestampSeconds >= m_timestamps[newest]) {
+            xyTheta[0] = m_x[newest];
+            xyTheta[1] = m_y[newest];
+            xyTheta[2] = m_theta[newest];
+            return true;
+        }
+        // find the last pose at or before timestampSeconds; there is always a later one
+        int low = 0;
+        int high = m_size - 1;
+        while (high - low > 1) {
+            int middle = (low + high) >>> 1;
+            if (m_timestamps[physical(middle)] <= timestampSeconds) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+        int before = physical(low);
+        int after = physical(high);
+        double t = (timestampSeconds - m_timestamps[before]) / (m_timestamps[after] - m_timestamps[before]);
+        xyTheta[0] = m_x[before] + (m_x[after] - m_x[before]) * t;
+        xyTheta[1] = m_y[before] + (m_y[after] - m_y[before]) * t;
+        xyTheta[2] = MathUtil.angleModulus(
+            m_theta[before] + MathUtil.angleModulus(m_theta[after] - m_theta[before]) * t);
+        return true;
+    }
+
+    /**
+     * Convenience version of sample() that allocates a Pose2d.  Avoid in code that runs every loop.
+     */
+    public Optional<Pose2d> getPose(double timestampSeconds) {
+        double[] xyTheta = new double[3];
+        if (!sample(timestampSeconds, xyTheta)) {
+            return Optional.empty();
+        }
+        return Optional.of(new Pose2d(xyTheta[0], xyTheta[1], new Rotation2d(xyTheta[2])));
+    }
+
+    /**
+     * Move every pose at or after timestampSeconds rigidly, the way the pose from
+     * would have to move to become to (see transform()).  When a measurement taken
+     * at timestampSeconds corrects the pose then, this keeps the motion recorded
+     * since, starting from the corrected pose.
+     * @param from - x, y and heading, e.g., sample(timestampSeconds)
+     * @param to - the corrected x, y and heading
+     */
+    public synchronized void transformSince(double timestampSeconds, double[] from, double[] to) {
+        for (int i = m_size - 1; i >= 0; i--) {
+            int index = physical(i);
+            if (m_timestamps[index] < timestampSeconds) {
+                break;
+            }
+            m_scratch[0] = m_x[index];
+            m_scratch[1] = m_y[index];
+            m_scratch[2] = m_theta[index];
+            transform(m_scratch, from, to);
+            m_x[index] = m_scratch[0];
+            m_y[index] = m_scratch[1];
+            m_theta[index] = m_scratch[2];
+        }
+    }
+
+    /**
+     * Move xyTheta rigidly, the way from would have to move to become to: its
+     * position and heading relative to from become relative to to.
+     * @param xyTheta - x (meters), y (meters) and heading (radians), changed in place
+     */
+    public static void transform(double[] xyTheta, double[] from, double[] to) {
+        double dx = xyTheta[0] - from[0];
+        double dy = xyTheta[1] - from[1];
+        double cosFrom = Math.cos(from[2]);
+        double sinFrom = Math.sin(from[2]);
+        double relativeX = cosFrom * dx + sinFrom * dy;
+        double relativeY = -sinFrom * dx + cosFrom * dy;
+        double cosTo = Math.cos(to[2]);
+        double sinTo = Math.sin(to[2]);
+        xyTheta[0] = to[0] + cosTo * relativeX - sinTo * relativeY;
+        xyTheta[1] = to[1] + sinTo * relativeX + cosTo * relativeY;
+        xyTheta[2] = MathUtil.angleModulus(xyTheta[2] + to[2] - from[2]);
+    }
+
+    /** Forget all poses, e.g., after the pose has been reset */
+    public synchronized void clear() {
+        m_head = 0;
+        m_size = 0;
+    }
+
+    public synchronized int size() {
+        return m_size;
+    }
+
+    /** @return physical array index of the i'th oldest pose */
+    private int physical(int i) {
+        return (m_head + i) % m_capacity;
+    }
+}
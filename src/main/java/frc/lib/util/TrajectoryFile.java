@@ -0,0 +1,82 @@
+package frc.lib.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+
+/**
+ * Reads and writes a Trajectory as a compact binary file, so trajectories can be
+ * generated on a laptop at build time and only loaded on the robot.
+ *
+ * The file is a header (magic number, version, sample count, as little-endian ints)
+ * followed by each sample as kDoublesPerSample little-endian doubles: time, x, y,
+ * heading (radians), velocity, acceleration, curvature.  Reading memory-maps the file
+ * and makes the States straight from the mapped bytes; there is no parsing.
+ */
+public final class TrajectoryFile {
+    /** "TRAJ" */
+    private static final int kMagic = 0x4A415254;
+    private static final int kVersion = 1;
+    private static final int kHeaderBytes = 3 * Integer.BYTES;
+    private static final int kDoublesPerSample = 7;
+    private static final int kSampleBytes = kDoublesPerSample * Double.BYTES;
+
+    private TrajectoryFile() {}
+
+    public static void write(Path path, Trajectory trajectory) throws IOException {
+        List<Trajectory.State> states = trajectory.getStates();
+        ByteBuffer buffer = ByteBuffer.allocate(kHeaderBytes + states.size() * kSampleBytes)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(kMagic).putInt(kVersion).putInt(states.size());
+        for (Trajectory.State state : states) {
+            buffer.putDouble(state.timeSeconds)
+                .putDouble(state.poseMeters.getX())
+                .putDouble(state.poseMeters.getY())
+                .putDouble(state.poseMeters.getRotation().getRadians())
+                .putDouble(state.velocityMetersPerSecond)
+                .putDouble(state.accelerationMetersPerSecondSq)
+                .putDouble(state.curvatureRadPerMeter);
+        }
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Files.write(path, buffer.array());
+    }
+
+    /** @throws IOException if the file is missing, or is not a trajectory file of this version */
+    public static Trajectory read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.remaining() < kHeaderBytes || buffer.getInt() != kMagic || buffer.getInt() != kVersion) {
+                throw new IOException(path + " is not a version " + kVersion + " trajectory file");
+            }
+            int count = buffer.getInt();
+            if (count <= 0 || buffer.remaining() != (long) count * kSampleBytes) {
+                throw new IOException(path + " has the wrong length for " + count + " samples");
+            }
+            List<Trajectory.State> states = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                double time = buffer.getDouble();
+                double x = buffer.getDouble();
+                double y = buffer.getDouble();
+                double heading = buffer.getDouble();
+                double velocity = buffer.getDouble();
+                double acceleration = buffer.getDouble();
+                double curvature = buffer.getDouble();
+                states.add(new Trajectory.State(time, velocity, acceleration,
+                    new Pose2d(x, y, new Rotation2d(heading)), curvature));
+            }
+            return new Trajectory(states);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package frc.robot;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
+import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.logging.InputLogger;
+import frc.robot.logging.LogTable;
+import frc.robot.logging.LoggableInputs;
+
+/**
+ * A dashboard chooser of autonomous routines that only builds the one that is
+ * selected.  Building a routine loads its trajectories, which takes time and
+ * memory, so the chooser holds factories instead of commands.  While
+ * the robot is disabled, once the selection has stopped changing, the
+ * selected routine is built and kept; it is reused as long as the selection
+ * stays the same, and dropped when it changes.  If autonomous starts before
+ * the selection has been built, it is built then.
+ *
+ * The building is done on the main robot thread, in disabledPeriodic(),
+ * rather than on another thread, because composing commands registers them
+ * with the CommandScheduler, which is not thread-safe.
+ *
+ * The name of the selected option is an input (see InputLogger), so a replay
+ * runs the routine that was selected in the match.
+ */
+public class AutoChooser {
+    /** wait this many loops after the selection changes, so scrolling through the list does not build every option */
+    private static final int kSettleLoops = 25;
+
+    private final SendableChooser<String> m_chooser = new SendableChooser<>();
+    private final Map<String, Supplier<Command>> m_factories = new HashMap<>();
+    private final SelectionInputs m_inputs = new SelectionInputs();
+    private String m_lastSelected = null;
+    private int m_settledLoops = 0;
+    private String m_builtName = null;
+    private Command m_built = null;
+
+    private static class SelectionInputs implements LoggableInputs {
+        /** name of the selected option; "" if none */
+        String selected = "";
+
+        @Override
+        public void toLog(LogTable table) {
+            table.put("Selected", selected);
+        }
+
+        @Override
+        public void fromLog(LogTable table) {
+            selected = table.get("Selected", selected);
+        }
+    }
+
+    /**
+     * @param factory - builds the routine; null for a choice that does nothing
+     */
+    public void setDefaultOption(String name, Supplier<Command> factory) {
+        m_factories.put(name, factory);
+        m_chooser.setDefaultOption(name, name);
+    }
+
+    /**
+     * @param factory - builds the routine; null for a choice that does nothing
+     */
+    public void addOption(String name, Supplier<Command> factory) {
+        m_factories.put(name, factory);
+        m_chooser.addOption(name, name);
+    }
+
+    /** @return the chooser to put on the dashboard */
+    public SendableChooser<String> getSendableChooser() {
+        return m_chooser;
+    }
+
+    /** Call every loop while disabled */
+    public void disabledPeriodic() {
+        String selected = updateSelection();
+        if (!selected.equals(m_lastSelected)) {
+            m_lastSelected = selected;
+            m_settledLoops = 0;
+            return;
+        }
+        if (m_settledLoops < kSettleLoops) {
+            m_settledLoops++;
+            if (m_settledLoops == kSettleLoops) {
+                build(selected);
+            }
+        }
+    }
+
+    /** @return the selected routine, building it now if that has not been done; null if there is none */
+    public Command getSelected() {
+        build(updateSelection());
+        return m_built;
+    }
+
+    /** @return the selected option's name, recorded or (in replay) recalled */
+    private String updateSelection() {
+        String selected = m_chooser.getSelected();
+        m_inputs.selected = selected != null ? selected : "";
+        InputLogger.processInputs("AutoChooser", m_inputs);
+        return m_inputs.selected;
+    }
+
+    private void build(String name) {
+        if (name.equals(m_builtName)) {
+            return;
+        }
+        m_built = null; // let the old routine's trajectories be collected
+        m_builtName = name;
+        Supplier<Command> factory = m_factories.get(name);
+        if (factory != null) {
+            m_built = factory.get();
+        }
+    }
+}
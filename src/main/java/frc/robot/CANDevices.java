@@ -0,0 +1,63 @@
+package frc.robot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoubleSupplier;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Every CAN device the robot talks to, with a way to tell how recently each
+ * one was heard from.  Devices register themselves when they are constructed,
+ * like with StatusFrameManager; CANBusMonitor checks them every loop.
+ *
+ * A Phoenix device is checked with one of its signals that the main thread
+ * already refreshes every loop, so checking it costs no CAN traffic.  Spark
+ * MAXs do not timestamp their frames, so SparkMaxIOReal records when its
+ * reads last succeeded on the main thread, and that time is used.
+ * Only used from the main robot thread.
+ */
+public final class CANDevices {
+    private interface Probe {
+        /** @return seconds since the device was last heard from */
+        double getAgeSeconds();
+    }
+
+    private static final List<String> s_names = new ArrayList<>();
+    private static final List<Probe> s_probes = new ArrayList<>();
+
+    private CANDevices() {}
+
+    /**
+     * @param name - e.g., "TalonFX 1"
+     * @param signal - a signal of the device that is refreshed every loop on the main thread
+     */
+    public static synchronized void registerPhoenix(String name, BaseStatusSignal signal) {
+        s_names.add(name);
+        s_probes.add(() -> signal.getStatus().isOK() ? signal.getTimestamp().getLatency() : Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * @param name - e.g., "Spark MAX 5"
+     * @param lastHeardSeconds - FPGA time the device's readings were last read successfully
+     */
+    public static synchronized void registerSparkMax(String name, DoubleSupplier lastHeardSeconds) {
+        s_names.add(name);
+        s_probes.add(() -> Timer.getFPGATimestamp() - lastHeardSeconds.getAsDouble());
+    }
+
+    public static synchronized int getCount() {
+        return s_names.size();
+    }
+
+    public static synchronized String getName(int i) {
+        return s_names.get(i);
+    }
+
+    /** @return seconds since device i was last heard from; infinite if its last read failed */
+    public static synchronized double getAgeSeconds(int i) {
+        return s_probes.get(i).getAgeSeconds();
+    }
+}
@@ -6,9 +6,17 @@ import com.ctre.phoenix6.signals.SensorDirectionValue;
 import com.revrobotics.CANSparkLowLevel.MotorType;
 import com.revrobotics.SparkRelativeEncoder;
 
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Transform3d;
 import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.geometry.Translation3d;
 import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
 import edu.wpi.first.math.trajectory.TrapezoidProfile;
 import edu.wpi.first.math.util.Units;
 import frc.lib.util.COTSTalonFXSwerveConstants;
@@ -30,11 +38,14 @@ public final class Constants {
 
         /* Swerve Kinematics 
          * No need to ever change this unless you are not doing a traditional rectangular/square 4 module swerve */
-         public static final SwerveDriveKinematics swerveKinematics = new SwerveDriveKinematics(
+        /** Module locations relative to robot center, indexed by module number */
+        public static final Translation2d[] moduleTranslations = {
             new Translation2d(wheelBase / 2.0, trackWidth / 2.0),
             new Translation2d(wheelBase / 2.0, -trackWidth / 2.0),
             new Translation2d(-wheelBase / 2.0, trackWidth / 2.0),
-            new Translation2d(-wheelBase / 2.0, -trackWidth / 2.0));
+            new Translation2d(-wheelBase / 2.0, -trackWidth / 2.0)
+        };
+         public static final SwerveDriveKinematics swerveKinematics = new SwerveDriveKinematics(moduleTranslations);
 
         /* Module Gear Ratios */
         public static final double driveGearRatio = chosenModule.driveGearRatio;
@@ -90,6 +101,14 @@ public final class Constants {
         public static final double maxSpeed = 3.5; //TODO: This must be tuned to specific robot
         /** Radians per Second */
         public static final double maxAngularVelocity = 2.5; //TODO: This must be tuned to specific robot
+        /** Teleop scales the driver's speeds by this while a brownout is predicted, to draw less current */
+        public static final double brownoutSpeedScale = 0.6;
+
+        /* Odometry */
+        /** Hertz.  Rate the odometry thread samples module positions and gyro yaw */
+        public static final double odometryFrequency = 250.0;
+        /** Seconds of pose history kept for time-based lookups */
+        public static final double poseHistorySeconds = 2.0;
 
         /* Neutral Modes */
         public static final NeutralModeValue angleNeutralMode = NeutralModeValue.Coast;
@@ -151,7 +170,74 @@ public final class Constants {
         public static final TrapezoidProfile.Constraints kThetaControllerConstraints =
             new TrapezoidProfile.Constraints(
                 kMaxAngularSpeedRadiansPerSecond, kMaxAngularSpeedRadiansPerSecondSquared);
+
+        /* PathPlanner's holonomic path follower; its paths carry their own speed limits */
+        public static final double kPathTranslationKP = 5.0;
+        public static final double kPathRotationKP = 5.0;
+    }
+    public static final class PathfindingConstants {
+        /** Meters, bumper to bumper, front to back; the robotLength in .pathplanner/settings.json */
+        public static final double robotLength = 0.87;
+        /* Where the robot drives to for each field target, for the blue alliance; mirrored for red.
+         * The shooter is on the robot's front, so each pose faces its target. */
+        /** Amp shot: where the amp autos' paths (GoToAmpBlue1, GoBackToAmpBlue) end */
+        public static final Pose2d ampPose = new Pose2d(1.79, 7.68, Rotation2d.fromDegrees(90.0));
+        /** Speaker shot: bumpers against the subwoofer, whose front is 0.917 m (36 1/8 in) from the alliance wall, centered on AprilTag 7 */
+        public static final Pose2d speakerPose = new Pose2d(0.917 + robotLength / 2.0, 5.548, Rotation2d.fromDegrees(180.0));
+        /** Collection at the source: bumpers against it, centered between AprilTags 1 and 2 (which face 120 degrees) */
+        public static final Pose2d sourcePose = new Pose2d(
+            15.632 + robotLength / 2.0 * Math.cos(Units.degreesToRadians(120.0)),
+            0.565 + robotLength / 2.0 * Math.sin(Units.degreesToRadians(120.0)),
+            Rotation2d.fromDegrees(120.0 - 180.0));
+        /* Limits for the paths the pathfinder makes */
+        public static final double maxSpeed = 3.0;
+        public static final double maxAcceleration = 3.0;
+        public static final double maxAngularVelocity = Units.degreesToRadians(540.0);
+        public static final double maxAngularAcceleration = Units.degreesToRadians(720.0);
+    }
+    public static final class VisionConstants {
+        public static final String cameraName = "AprilTagCamera";
+        /** Robot center (on the floor) to camera lens */
+        public static final Transform3d robotToCamera = new Transform3d( //TODO: measure on robot
+            new Translation3d(Units.inchesToMeters(-10.0), 0.0, Units.inchesToMeters(20.0)),
+            new Rotation3d(0.0, Units.degreesToRadians(-20.0), Units.degreesToRadians(180.0)));
+
+        /* Standard deviations (x meters, y meters, heading radians) of a vision pose from a
+         * tag 1 meter away.  They grow with the square of the average tag distance. */
+        public static final Matrix<N3, N1> singleTagStdDevs = VecBuilder.fill(0.9, 0.9, 4.0);
+        public static final Matrix<N3, N1> multiTagStdDevs = VecBuilder.fill(0.3, 0.3, 1.0);
+        /** Ignore single-tag poses from tags farther than this (meters); they flip around too much */
+        public static final double maxSingleTagDistance = 4.0;
+        /** Standard deviations (x meters, y meters, heading radians) of the wheel odometry per update */
+        public static final Matrix<N3, N1> odometryStdDevs = VecBuilder.fill(0.1, 0.1, 0.05);
     }
+
+    public static final class PowerDistributionConstants {
+        /** How often the background sampler reads the board */
+        public static final double sampleRateHz = 100.0;
+        /** The roboRIO disables outputs below this */
+        public static final double brownoutVoltage = 6.8;
+        /** How far ahead the voltage forecast looks, seconds */
+        public static final double forecastHorizonSeconds = 0.25;
+        /** How much recent history the forecast fits, seconds */
+        public static final double forecastWindowSeconds = 0.5;
+        /** Battery plus wiring resistance, ohms, until enough current swing has been seen to measure it */
+        public static final double nominalResistanceOhms = 0.020;
+
+        /* PDH channels feeding each mechanism, for energy accounting.  Each
+         * entry in energyChannels goes with the name at the same index. */
+        public static final String[] energySubsystems = { //TODO: check the channels against the robot's wiring
+            "Swerve Drive", "Swerve Steer", "Shoulder", "Shooter", "Indexer", "Collector", "Wrist"};
+        public static final int[][] energyChannels = {
+            {0, 1, 18, 19}, // drive TalonFXs, modules 0 - 3
+            {2, 3, 16, 17}, // angle TalonFXs, modules 0 - 3
+            {4, 5},         // left and right shoulder Spark MAXs
+            {6, 7},         // upper and lower rollers
+            {8},
+            {9},
+            {10}};
+    }
+
     /**
      * Info regarding the two shooter motors: REV Neo's running in opposite directions.
      */
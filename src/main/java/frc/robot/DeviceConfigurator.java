@@ -0,0 +1,173 @@
+package frc.robot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * Configures CAN devices in the background at startup, several at once,
+ * instead of one blocking call after another.  Each device's IO layer gets a
+ * Device and hands it configuration steps; a device's steps run in the order
+ * they were given, but different devices' steps run at the same time.  A step
+ * applies a setting and reads it back to check it took, and is retried if not.
+ *
+ * Whoever needs a device configured (e.g., before reading a CANcoder's
+ * absolute position) waits for that Device.  RobotContainer calls awaitAll()
+ * once all the subsystems are made, which also reports any device that still
+ * failed after its retries, and ends startup.  Settings made after startup
+ * (e.g., gains from the dashboard) are not queued here; the IO layers make
+ * them directly, so they reach the device in order with its control requests.
+ * (A device whose startup settings are still queued is the exception; its
+ * later settings are queued behind them, and failures are reported at once.)
+ */
+public final class DeviceConfigurator {
+    /** how many devices are configured at once */
+    private static final int kThreads = 4;
+    private static final int kMaxAttempts = 3;
+    /** long enough for every device's steps to use all their attempts */
+    public static final double kDefaultTimeoutSeconds = 10.0;
+
+    /**
+     * One setting for a device, e.g., "apply this TalonFXConfiguration".
+     */
+    public interface Step {
+        /**
+         * Apply the setting and read it back.  Runs on a background thread.
+         * @return true if the device now has the setting
+         */
+        boolean apply();
+    }
+
+    private static final AtomicInteger s_threadCount = new AtomicInteger();
+    private static final ExecutorService s_executor = Executors.newFixedThreadPool(kThreads, runnable -> {
+        Thread thread = new Thread(runnable, "Device Configurator " + s_threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final List<Device> s_devices = new ArrayList<>();
+    private static final List<String> s_failures = new ArrayList<>();
+    private static int s_reportedFailures = 0;
+    private static volatile boolean s_startupFinished = false;
+
+    private DeviceConfigurator() {}
+
+    public static final class Device {
+        private final String m_name;
+        private CompletableFuture<Void> m_tail = CompletableFuture.completedFuture(null);
+
+        private Device(String name) {
+            m_name = name;
+        }
+
+        /**
+         * Run step after this device's earlier steps, retrying it if it fails.
+         * Returns immediately.
+         * @param what - the setting, for reporting failures, e.g., "factory defaults"
+         */
+        public synchronized void configure(String what, Step step) {
+            m_tail = m_tail.thenRunAsync(() -> run(what, step), s_executor);
+        }
+
+        private void run(String what, Step step) {
+            for (int attempt = 1; attempt <= kMaxAttempts; attempt++) {
+                try {
+                    if (step.apply()) {
+                        return;
+                    }
+                } catch (RuntimeException e) {
+                    // a vendor library error; treated like a failed read back
+                }
+            }
+            addFailure(m_name + ": " + what);
+        }
+
+        private synchronized CompletableFuture<Void> getTail() {
+            return m_tail;
+        }
+
+        /**
+         * Wait for this device's steps given so far to finish.
+         * @param timeoutSeconds - 0 to check without waiting
+         * @return true if they finished in time
+         */
+        public boolean await(double timeoutSeconds) {
+            try {
+                getTail().get((long) (timeoutSeconds * 1000.0), TimeUnit.MILLISECONDS);
+                return true;
+            } catch (TimeoutException e) {
+                return false;
+            } catch (Exception e) {
+                // the steps catch their own errors, so this is an interrupt
+                return false;
+            }
+        }
+    }
+
+    /** @param name - e.g., "TalonFX 1" */
+    public static synchronized Device addDevice(String name) {
+        Device device = new Device(name);
+        s_devices.add(device);
+        return device;
+    }
+
+    /** @return true once awaitAll() has been called, after which settings should not be queued */
+    public static boolean isStartupFinished() {
+        return s_startupFinished;
+    }
+
+    private static synchronized void addFailure(String failure) {
+        s_failures.add(failure);
+        if (s_startupFinished) {
+            // awaitAll() has already reported; nothing else will
+            reportNewFailures();
+        }
+    }
+
+    /** Report each failure not yet reported to the driver station and the DataLog's messages */
+    private static synchronized void reportNewFailures() {
+        for (; s_reportedFailures < s_failures.size(); s_reportedFailures++) {
+            String message = "Could not configure " + s_failures.get(s_reportedFailures);
+            DataLogManager.log(message);
+            DriverStation.reportError(message, false);
+        }
+    }
+
+    /**
+     * Wait for every step given so far to finish, then report the devices that
+     * failed (once each) to the driver station and the DataLog's messages.
+     * This ends startup; see isStartupFinished().
+     * @return true if every step succeeded in time
+     */
+    public static boolean awaitAll(double timeoutSeconds) {
+        s_startupFinished = true;
+        CompletableFuture<?>[] tails;
+        synchronized (DeviceConfigurator.class) {
+            tails = new CompletableFuture<?>[s_devices.size()];
+            for (int i = 0; i < tails.length; i++) {
+                tails[i] = s_devices.get(i).getTail();
+            }
+        }
+        boolean finished = true;
+        try {
+            CompletableFuture.allOf(tails).get((long) (timeoutSeconds * 1000.0), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            finished = false;
+            DriverStation.reportError("Device configuration did not finish in " + timeoutSeconds + " s", false);
+        } catch (Exception e) {
+            // the steps catch their own errors, so this is an interrupt
+            finished = false;
+        }
+        synchronized (DeviceConfigurator.class) {
+            reportNewFailures();
+            return finished && s_failures.isEmpty();
+        }
+    }
+}
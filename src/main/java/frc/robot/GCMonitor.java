@@ -0,0 +1,208 @@
+package frc.robot;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.ThreadMXBean;
+
+import frc.robot.telemetry.DoubleSignal;
+import frc.robot.telemetry.Telemetry;
+
+/**
+ * Finds out whether garbage collection is behind loop overruns.  Robot calls
+ * startLoop() and endLoop() around each loop; endLoop() records how many bytes
+ * the main thread allocated during the loop and whether the loop overran its
+ * period.  The JVM tells us about each collection, on its own thread, with the
+ * pause's start time and duration.  An overrun that overlaps a pause is counted
+ * as caused by GC.  The notice of a collection can arrive after the loop it
+ * paused has ended, so the last few overruns are kept to check late notices
+ * against.
+ *
+ * Every kPublishPeriodLoops loops, endLoop() publishes the window's allocation
+ * per loop and GC pauses per minute, and the overrun totals, under "GC/".
+ * Only used from the main robot thread, except for the notification listener.
+ */
+public final class GCMonitor {
+    private static final int kPublishPeriodLoops = 50; // once a second
+    /** more than enough collections for one loop; further ones are only counted */
+    private static final int kMaxPauses = 16;
+    /** how many overruns to keep for late notices to be checked against */
+    private static final int kMaxOverruns = 16;
+    private static final double kNanosPerMillisecond = 1.0e6;
+    private static final double kBytesPerKilobyte = 1024.0;
+    private static final double kSecondsPerMinute = 60.0;
+    private static final double kMinDebugLevel = 2.0;
+    private static final double kPublishRateHz = 1.0;
+
+    private static ThreadMXBean s_threadBean = null;
+    /** System.nanoTime() when the JVM started; GC times are milliseconds since then */
+    private static long s_jvmStartNanos = 0;
+    private static long s_periodNanos = 0;
+
+    /* guarded by s_pauseLock; written by the notification listener */
+    private static final Object s_pauseLock = new Object();
+    private static final long[] s_pauseStartNanos = new long[kMaxPauses];
+    private static final long[] s_pauseEndNanos = new long[kMaxPauses];
+    private static int s_pauseCount = 0;
+    private static int s_droppedPauses = 0;
+
+    /* the last kMaxOverruns overruns, a ring buffer */
+    private static final long[] s_overrunStartNanos = new long[kMaxOverruns];
+    private static final long[] s_overrunEndNanos = new long[kMaxOverruns];
+    private static final boolean[] s_overrunBlamed = new boolean[kMaxOverruns];
+    private static int s_overrunHead = 0;
+
+    /* since start(), since a late notice can blame an overrun in an earlier window */
+    private static int s_overruns = 0;
+    private static int s_gcOverruns = 0;
+
+    private static long s_loopStartNanos = 0;
+    private static long s_loopStartBytes = 0;
+
+    /* this window's numbers */
+    private static int s_loops = 0;
+    private static long s_windowStartNanos = 0;
+    private static long s_allocatedBytes = 0;
+    private static long s_maxAllocatedBytes = 0;
+    private static int s_pauses = 0;
+    private static long s_maxPauseNanos = 0;
+    private static long s_totalPauseNanos = 0;
+
+    private static DoubleSignal s_allocatedTelemetry;
+    private static DoubleSignal s_maxAllocatedTelemetry;
+    private static DoubleSignal s_pausesPerMinuteTelemetry;
+    private static DoubleSignal s_maxPauseTelemetry;
+    private static DoubleSignal s_totalPauseTelemetry;
+    private static DoubleSignal s_overrunsTelemetry;
+    private static DoubleSignal s_gcOverrunsTelemetry;
+
+    private GCMonitor() {}
+
+    /**
+     * Start listening for collections.  Call once, from the main robot thread,
+     * before the first loop.
+     * @param periodSeconds - the robot's loop period; a longer loop is an overrun
+     */
+    public static void start(double periodSeconds) {
+        s_periodNanos = (long) (periodSeconds * 1.0e9);
+        s_jvmStartNanos = System.nanoTime()
+            - (long) (ManagementFactory.getRuntimeMXBean().getUptime() * kNanosPerMillisecond);
+        java.lang.management.ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean instanceof ThreadMXBean && ((ThreadMXBean) threadBean).isThreadAllocatedMemorySupported()) {
+            s_threadBean = (ThreadMXBean) threadBean;
+            s_threadBean.setThreadAllocatedMemoryEnabled(true);
+        } else {
+            System.out.println("This JVM cannot count allocated bytes; GC/ allocation will read 0");
+        }
+        for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gcBean instanceof NotificationEmitter) {
+                ((NotificationEmitter) gcBean).addNotificationListener(GCMonitor::handleNotification, null, null);
+            }
+        }
+        s_allocatedTelemetry = Telemetry.addDouble("GC/Allocated KB per loop", kMinDebugLevel, kPublishRateHz);
+        s_maxAllocatedTelemetry = Telemetry.addDouble("GC/Max allocated KB per loop", kMinDebugLevel, kPublishRateHz);
+        s_pausesPerMinuteTelemetry = Telemetry.addDouble("GC/Pauses per minute", kMinDebugLevel, kPublishRateHz);
+        s_maxPauseTelemetry = Telemetry.addDouble("GC/Max pause ms", kMinDebugLevel, kPublishRateHz);
+        s_totalPauseTelemetry = Telemetry.addDouble("GC/Total pause ms", kMinDebugLevel, kPublishRateHz);
+        s_overrunsTelemetry = Telemetry.addDouble("GC/Loop overruns", kMinDebugLevel, kPublishRateHz);
+        s_gcOverrunsTelemetry = Telemetry.addDouble("GC/Overruns caused by GC", kMinDebugLevel, kPublishRateHz);
+        s_windowStartNanos = System.nanoTime();
+        Telemetry.addString("GC/Collectors", Telemetry.kLogOnly).set(describeCollectors());
+    }
+
+    private static String describeCollectors() {
+        StringBuilder names = new StringBuilder();
+        for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            names.append(names.length() == 0 ? "" : ", ").append(gcBean.getName());
+        }
+        return names.toString();
+    }
+
+    /** Called on a JVM thread after each collection */
+    private static void handleNotification(Notification notification, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+        GarbageCollectionNotificationInfo info =
+            GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        long startNanos = s_jvmStartNanos + (long) (info.getGcInfo().getStartTime() * kNanosPerMillisecond);
+        long endNanos = s_jvmStartNanos + (long) (info.getGcInfo().getEndTime() * kNanosPerMillisecond);
+        synchronized (s_pauseLock) {
+            if (s_pauseCount < kMaxPauses) {
+                s_pauseStartNanos[s_pauseCount] = startNanos;
+                s_pauseEndNanos[s_pauseCount] = endNanos;
+                s_pauseCount++;
+            } else {
+                s_droppedPauses++;
+            }
+        }
+    }
+
+    public static void startLoop() {
+        s_loopStartNanos = System.nanoTime();
+        s_loopStartBytes = s_threadBean != null ? s_threadBean.getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    public static void endLoop() {
+        long endNanos = System.nanoTime();
+        long bytes = s_threadBean != null ? s_threadBean.getCurrentThreadAllocatedBytes() - s_loopStartBytes : 0;
+        s_allocatedBytes += bytes;
+        s_maxAllocatedBytes = Math.max(s_maxAllocatedBytes, bytes);
+        if (endNanos - s_loopStartNanos > s_periodNanos) {
+            s_overruns++;
+            s_overrunStartNanos[s_overrunHead] = s_loopStartNanos;
+            s_overrunEndNanos[s_overrunHead] = endNanos;
+            s_overrunBlamed[s_overrunHead] = false;
+            s_overrunHead = (s_overrunHead + 1) % kMaxOverruns;
+        }
+        synchronized (s_pauseLock) {
+            for (int i = 0; i < s_pauseCount; i++) {
+                recordPause(s_pauseStartNanos[i], s_pauseEndNanos[i]);
+            }
+            s_pauses += s_droppedPauses;
+            s_pauseCount = 0;
+            s_droppedPauses = 0;
+        }
+        s_loops++;
+        if (s_loops >= kPublishPeriodLoops) {
+            publishAndReset(endNanos);
+        }
+    }
+
+    private static void recordPause(long startNanos, long endNanos) {
+        long pauseNanos = endNanos - startNanos;
+        s_pauses++;
+        s_totalPauseNanos += pauseNanos;
+        s_maxPauseNanos = Math.max(s_maxPauseNanos, pauseNanos);
+        for (int i = 0; i < kMaxOverruns; i++) {
+            if (!s_overrunBlamed[i] && s_overrunEndNanos[i] != 0
+                    && startNanos < s_overrunEndNanos[i] && endNanos > s_overrunStartNanos[i]) {
+                s_overrunBlamed[i] = true;
+                s_gcOverruns++;
+            }
+        }
+    }
+
+    private static void publishAndReset(long nowNanos) {
+        double minutes = (nowNanos - s_windowStartNanos) / 1.0e9 / kSecondsPerMinute;
+        s_allocatedTelemetry.set(s_allocatedBytes / kBytesPerKilobyte / s_loops);
+        s_maxAllocatedTelemetry.set(s_maxAllocatedBytes / kBytesPerKilobyte);
+        s_pausesPerMinuteTelemetry.set(minutes > 0.0 ? s_pauses / minutes : 0.0);
+        s_maxPauseTelemetry.set(s_maxPauseNanos / kNanosPerMillisecond);
+        s_totalPauseTelemetry.set(s_totalPauseNanos / kNanosPerMillisecond);
+        s_overrunsTelemetry.set(s_overruns);
+        s_gcOverrunsTelemetry.set(s_gcOverruns);
+        s_loops = 0;
+        s_windowStartNanos = nowNanos;
+        s_allocatedBytes = 0;
+        s_maxAllocatedBytes = 0;
+        s_pauses = 0;
+        s_maxPauseNanos = 0;
+        s_totalPauseNanos = 0;
+    }
+}
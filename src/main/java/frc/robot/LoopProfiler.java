@@ -0,0 +1,157 @@
+package frc.robot;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.telemetry.DoubleSignal;
+import frc.robot.telemetry.Telemetry;
+
+/**
+ * Finds out which periodic() or execute() is responsible when the robot loop
+ * overruns 20 ms.  Each timed piece of code gets a Section, made once (in a
+ * field, like a telemetry signal) and wrapped around the code every loop:
+ *
+ *     m_loopSection.start();
+ *     ...
+ *     m_loopSection.stop();
+ *
+ * Subsystems are timed by ProfiledSubsystem, which wraps periodic().  Commands'
+ * execute() is timed from the CommandScheduler's callbacks (see install()), so
+ * they need no code of their own; ProfiledCommand also times isFinished().
+ *
+ * Each Section keeps a LoopTimeHistogram of its times in fixed buckets, so
+ * recording a time is an array increment with no allocation.  Every kPublishPeriodLoops
+ * loops, Robot calls periodic(), which publishes each section's median, 99th
+ * percentile and maximum for that window under "Loop Time/" and starts a new
+ * window.  The percentiles are accurate to a bucket width.
+ *
+ * A Section is only started and stopped from the main robot thread.
+ */
+public final class LoopProfiler {
+    private static final int kPublishPeriodLoops = 50; // once a second
+    /** Only send the histograms to the dashboard when debugLevel is at least this; they are always logged */
+    private static final double kMinDebugLevel = 2.0;
+    private static final double kPublishRateHz = 1.0;
+
+    private static final List<Section> s_sections = new CopyOnWriteArrayList<>();
+    private static final Map<String, Section> s_sectionsByName = new HashMap<>();
+    private static int s_loopsSincePublish = 0;
+    /* by command name, since commands may be constructed many times */
+    private static final Map<String, Section> s_commandSections = new HashMap<>();
+    private static long s_lastCommandEventNanos = 0;
+    /* the command whose execute() was timed last; its isFinished() runs next */
+    private static Command s_lastExecutedCommand = null;
+
+    private LoopProfiler() {}
+
+    public static final class Section {
+        private final LoopTimeHistogram m_histogram = new LoopTimeHistogram();
+        private long m_startNanos = 0;
+        private final DoubleSignal m_p50Telemetry;
+        private final DoubleSignal m_p99Telemetry;
+        private final DoubleSignal m_maxTelemetry;
+
+        private Section(String name) {
+            m_p50Telemetry = Telemetry.addDouble("Loop Time/" + name + " p50 ms", kMinDebugLevel, kPublishRateHz);
+            m_p99Telemetry = Telemetry.addDouble("Loop Time/" + name + " p99 ms", kMinDebugLevel, kPublishRateHz);
+            m_maxTelemetry = Telemetry.addDouble("Loop Time/" + name + " max ms", kMinDebugLevel, kPublishRateHz);
+        }
+
+        public void start() {
+            m_startNanos = System.nanoTime();
+        }
+
+        /** Record the time since start() */
+        public void stop() {
+            record(System.nanoTime() - m_startNanos);
+        }
+
+        private void record(long nanos) {
+            m_histogram.record(nanos);
+        }
+
+        private void publishAndReset() {
+            if (m_histogram.getCount() == 0) {
+                return; // e.g., a command that did not run this window
+            }
+            m_p50Telemetry.set(m_histogram.percentile(0.50));
+            m_p99Telemetry.set(m_histogram.percentile(0.99));
+            m_maxTelemetry.set(m_histogram.getMaxMilliseconds());
+            m_histogram.reset();
+        }
+    }
+
+    /**
+     * @param name - what is being timed, e.g. "Swerve.periodic()"
+     * @return the Section with this name, made the first time it is asked for
+     */
+    public static synchronized Section addSection(String name) {
+        Section section = s_sectionsByName.get(name);
+        if (section == null) {
+            section = new Section(name);
+            s_sectionsByName.put(name, section);
+            s_sections.add(section);
+        }
+        return section;
+    }
+
+    /**
+     * Time every command the scheduler runs, as "Name.execute()".  The scheduler
+     * only calls back after each execute(), so a command's time runs from the end
+     * of the one before it.  That includes the one before's isFinished(), unless
+     * it is a ProfiledCommand, which times its own (see onIsFinished()).  Call
+     * once, from robotInit(), after the button bindings are made.
+     */
+    public static void install(CommandScheduler scheduler) {
+        // bound last, so this runs just before the scheduler runs the commands
+        scheduler.getActiveButtonLoop().bind(LoopProfiler::markCommandEvent);
+        scheduler.onCommandExecute(LoopProfiler::recordCommand);
+        // end() is not timed; it runs once
+        scheduler.onCommandFinish(command -> markCommandEvent());
+        scheduler.onCommandInterrupt(command -> markCommandEvent());
+    }
+
+    private static void markCommandEvent() {
+        s_lastCommandEventNanos = System.nanoTime();
+    }
+
+    /**
+     * Called by ProfiledCommand after timing its isFinished(), so the next
+     * command's execute() time starts after it.  Only the scheduled command's
+     * counts; a command inside a group is part of the group's execute().
+     */
+    public static void onIsFinished(Command command) {
+        if (command == s_lastExecutedCommand) {
+            markCommandEvent();
+        }
+    }
+
+    private static void recordCommand(Command command) {
+        long now = System.nanoTime();
+        String name = command.getName();
+        Section section = s_commandSections.get(name);
+        if (section == null) {
+            section = addSection(name + ".execute()");
+            s_commandSections.put(name, section);
+        }
+        section.record(now - s_lastCommandEventNanos);
+        s_lastCommandEventNanos = now;
+        s_lastExecutedCommand = command;
+    }
+
+    /** Call once per robot loop, after everything that is timed */
+    public static void periodic() {
+        s_loopsSincePublish++;
+        if (s_loopsSincePublish < kPublishPeriodLoops) {
+            return;
+        }
+        s_loopsSincePublish = 0;
+        for (int i = 0; i < s_sections.size(); i++) {
+            s_sections.get(i).publishAndReset();
+        }
+    }
+}
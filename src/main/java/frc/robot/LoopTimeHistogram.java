@@ -0,0 +1,54 @@
+package frc.robot;
+
+import java.util.Arrays;
+
+/**
+ * The times recorded for one LoopProfiler section, in fixed buckets, so
+ * recording a time is an array increment with no allocation.  Percentiles are
+ * accurate to a bucket width.
+ */
+final class LoopTimeHistogram {
+    static final long kBucketWidthNanos = 50_000; // 0.05 ms
+    static final int kNumBuckets = 500; // up to 25 ms; longer times go in the last bucket
+    private static final double kNanosPerMillisecond = 1.0e6;
+
+    private final int[] m_buckets = new int[kNumBuckets];
+    private int m_count = 0;
+    private long m_maxNanos = 0;
+
+    void record(long nanos) {
+        int bucket = (int) Math.min(nanos / kBucketWidthNanos, kNumBuckets - 1);
+        m_buckets[bucket]++;
+        m_count++;
+        if (nanos > m_maxNanos) {
+            m_maxNanos = nanos;
+        }
+    }
+
+    /** @return upper edge of the bucket holding the fraction'th time (but no more than the maximum), in milliseconds */
+    double percentile(double fraction) {
+        int rank = (int) Math.ceil(fraction * m_count);
+        int seen = 0;
+        for (int bucket = 0; bucket < kNumBuckets; bucket++) {
+            seen += m_buckets[bucket];
+            if (seen >= rank) {
+                return Math.min((bucket + 1) * kBucketWidthNanos, m_maxNanos) / kNanosPerMillisecond;
+            }
+        }
+        return getMaxMilliseconds();
+    }
+
+    double getMaxMilliseconds() {
+        return m_maxNanos / kNanosPerMillisecond;
+    }
+
+    int getCount() {
+        return m_count;
+    }
+
+    void reset() {
+        Arrays.fill(m_buckets, 0);
+        m_count = 0;
+        m_maxNanos = 0;
+    }
+}
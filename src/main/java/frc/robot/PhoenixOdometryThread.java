@@ -0,0 +1,153 @@
+package frc.robot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
+
+import edu.wpi.first.wpilibj.RobotController;
+
+/**
+ * Samples the odometry signals at StatusFrameManager.getOdometryFrequency()
+ * instead of once per scheduler run.  Each pass waits for fresh frames of every
+ * registered signal, so the samples are from the same moment, and stores them
+ * with the time the frames were measured, from the signals' own timestamps.
+ * A pass whose wait fails is skipped, since its values would be stale.  Once per loop, with the lock held, the IO layers copy
+ * the samples into their inputs and Swerve clears them; the samples then go
+ * through the inputs, so the pose estimate can be replayed from a log.
+ *
+ * Only used on the real robot.
+ */
+public class PhoenixOdometryThread extends Thread {
+    /** more than enough for one slow loop; further samples are dropped */
+    public static final int kMaxSamples = 32;
+    private static PhoenixOdometryThread s_instance = null;
+
+    private final ReentrantLock m_lock = new ReentrantLock();
+    private final List<StatusSignal<Double>> m_positions = new ArrayList<>();
+    private final List<StatusSignal<Double>> m_velocities = new ArrayList<>();
+    private BaseStatusSignal[] m_allSignals = new BaseStatusSignal[0];
+    /* guarded by m_lock */
+    private double[][] m_samples = new double[0][];
+    /* each position signal's latency in this pass; only used by run() */
+    private double[] m_latencies = new double[0];
+    private final double[] m_timestamps = new double[kMaxSamples];
+    private int m_sampleCount = 0;
+    private volatile int m_failedWaits = 0;
+
+    public static synchronized PhoenixOdometryThread getInstance() {
+        if (s_instance == null) {
+            s_instance = new PhoenixOdometryThread();
+        }
+        return s_instance;
+    }
+
+    private PhoenixOdometryThread() {
+        setName("Swerve Odometry");
+        setDaemon(true);
+    }
+
+    /**
+     * Add a signal to sample.  Register every signal before start().
+     * @param position - the thread's own copy (clone()) of the signal; StatusSignal
+     * objects are not thread-safe
+     * @param velocity - its derivative (also the thread's own copy), to line its
+     * samples up in time with the other signals', or null
+     * @return index to pass to getSample()
+     */
+    public synchronized int registerSignal(StatusSignal<Double> position, StatusSignal<Double> velocity) {
+        m_positions.add(position);
+        m_velocities.add(velocity);
+        return m_positions.size() - 1;
+    }
+
+    @Override
+    public synchronized void start() {
+        List<BaseStatusSignal> allSignals = new ArrayList<>();
+        for (int i = 0; i < m_positions.size(); i++) {
+            allSignals.add(m_positions.get(i));
+            if (m_velocities.get(i) != null) {
+                allSignals.add(m_velocities.get(i));
+            }
+        }
+        m_allSignals = allSignals.toArray(new BaseStatusSignal[0]);
+        m_samples = new double[m_positions.size()][kMaxSamples];
+        m_latencies = new double[m_positions.size()];
+        super.start();
+    }
+
+    @Override
+    public void run() {
+        if (m_allSignals.length == 0) {
+            return;
+        }
+        while (true) {
+            // allow two periods before giving up, so one late frame does not stall the loop
+            double timeoutSeconds = 2.0 / StatusFrameManager.getOdometryFrequency();
+            if (BaseStatusSignal.waitForAll(timeoutSeconds, m_allSignals).isError()) {
+                m_failedWaits++;
+                continue;
+            }
+            // the frames arrived at slightly different times; the sample is from
+            // their average, in the same time base as vision timestamps
+            double nowSeconds = RobotController.getFPGATime() / 1.0e6;
+            double meanLatencySeconds = 0.0;
+            for (int i = 0; i < m_latencies.length; i++) {
+                m_latencies[i] = m_positions.get(i).getTimestamp().getLatency();
+                meanLatencySeconds += m_latencies[i];
+            }
+            meanLatencySeconds /= m_latencies.length;
+            m_lock.lock();
+            try {
+                if (m_sampleCount < kMaxSamples) {
+                    for (int i = 0; i < m_samples.length; i++) {
+                        double value = m_positions.get(i).getValueAsDouble();
+                        StatusSignal<Double> velocity = m_velocities.get(i);
+                        if (velocity != null) {
+                            // move it to the average time, like getLatencyCompensatedValue() does to now
+                            value += velocity.getValueAsDouble() * (m_latencies[i] - meanLatencySeconds);
+                        }
+                        m_samples[i][m_sampleCount] = value;
+                    }
+                    m_timestamps[m_sampleCount] = nowSeconds - meanLatencySeconds;
+                    m_sampleCount++;
+                }
+            } finally {
+                m_lock.unlock();
+            }
+        }
+    }
+
+    /** Hold the lock while copying samples and clearing them */
+    public void lock() {
+        m_lock.lock();
+    }
+
+    public void unlock() {
+        m_lock.unlock();
+    }
+
+    public int getSampleCount() {
+        return m_sampleCount;
+    }
+
+    /** @return FPGA time of sample i, seconds */
+    public double getTimestamp(int i) {
+        return m_timestamps[i];
+    }
+
+    /** @return value of the signal registered as index at sample i */
+    public double getSample(int index, int i) {
+        return m_samples[index][i];
+    }
+
+    public void clearSamples() {
+        m_sampleCount = 0;
+    }
+
+    public int getFailedWaits() {
+        return m_failedWaits;
+    }
+}
@@ -4,11 +4,16 @@
 
 package frc.robot;
 
+import com.pathplanner.lib.pathfinding.LocalADStar;
+import com.pathplanner.lib.pathfinding.Pathfinding;
+
 import edu.wpi.first.wpilibj.DataLogManager;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.logging.InputLogger;
 
 
 /**
@@ -24,6 +29,9 @@ public class Robot extends TimedRobot {
 
   private RobotContainer m_robotContainer;
 
+  private final LoopProfiler.Section m_loopSection = LoopProfiler.addSection("Robot loop");
+  private final LoopProfiler.Section m_schedulerSection = LoopProfiler.addSection("CommandScheduler.run()");
+
   /**
    * This function is run when the robot is first started up and should be used for any
    * initialization code.
@@ -34,8 +42,46 @@ public class Robot extends TimedRobot {
     // autonomous chooser on the dashboard.
     DataLogManager.start(); //Starts recording data log
     DriverStation.startDataLog(DataLogManager.getLog()); //Record both DS control and joystick data
+    TuningVariables.recordStartupValues();
+    // Load navgrid.json and start the planner thread now, rather than on the robot
+    // thread at the first pathfinding button press (see PathfindToFieldTarget)
+    Pathfinding.setPathfinder(new LocalADStar());
     m_robotContainer = new RobotContainer();
+    LoopProfiler.install(CommandScheduler.getInstance());
+    GCMonitor.start(getPeriod());
+  }
 
+  /**
+   * In replay (see InputLogger), run one loop per recorded loop, as fast as
+   * possible, instead of waiting 20 ms between loops.
+   */
+  @Override
+  public void startCompetition() {
+    if (InputLogger.getMode() != InputLogger.Mode.kReplay) {
+      super.startCompetition();
+      return;
+    }
+    SimHooks.pauseTiming(); // InputLogger steps the clock to each recorded loop's time
+    robotInit();
+    System.out.println("********** Robot program startup complete (replay) **********");
+    while (InputLogger.nextReplayCycle()) {
+      loopFunc();
+    }
+    System.out.println("********** Replay complete **********");
+    DataLogManager.getLog().flush();
+  }
+
+  @Override
+  protected void loopFunc() {
+    m_loopSection.start();
+    GCMonitor.startLoop();
+    InputLogger.beforeLoop();
+    TuningVariables.periodic();
+    TunableGains.periodic();
+    super.loopFunc();
+    GCMonitor.endLoop();
+    m_loopSection.stop();
+    LoopProfiler.periodic();
   }
 
   /**
@@ -47,23 +93,31 @@ public class Robot extends TimedRobot {
    */
   @Override
   public void robotPeriodic() {
+    InputLogger.recordDriverStation();
     // Runs the Scheduler.  This is responsible for polling buttons, adding newly-scheduled
     // commands, running already-scheduled commands, removing finished or interrupted commands,
     // and running subsystem periodic() methods.  This must be called from the robot's periodic
     // block in order for anything in the Command-based framework to work.
+    m_schedulerSection.start();
     CommandScheduler.getInstance().run();
+    m_schedulerSection.stop();
   }
 
   /** This function is called once each time the robot enters Disabled mode. */
   @Override
-  public void disabledInit() {}
+  public void disabledInit() {
+    StatusFrameManager.apply(StatusFrameManager.Profile.kDisabled);
+  }
 
   @Override
-  public void disabledPeriodic() {}
+  public void disabledPeriodic() {
+    m_robotContainer.disabledPeriodic();
+  }
 
   /** This autonomous runs the autonomous command selected by your {@link RobotContainer} class. */
   @Override
   public void autonomousInit() {
+    StatusFrameManager.apply(StatusFrameManager.Profile.kAutonomous);
     m_autonomousCommand = m_robotContainer.getAutonomousCommand();
 
     // schedule the autonomous command (example)
@@ -78,6 +132,7 @@ public class Robot extends TimedRobot {
 
   @Override
   public void teleopInit() {
+    StatusFrameManager.apply(StatusFrameManager.Profile.kTeleop);
     // This makes sure that the autonomous stops running when
     // teleop starts running. If you want the autonomous to
     // continue until interrupted by another command, remove
@@ -93,6 +148,7 @@ public class Robot extends TimedRobot {
 
   @Override
   public void testInit() {
+    StatusFrameManager.apply(StatusFrameManager.Profile.kTeleop);
     // Cancels all running commands at the start of test mode.
     CommandScheduler.getInstance().cancelAll();
   }
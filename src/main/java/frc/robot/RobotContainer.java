@@ -1,27 +1,30 @@
 package frc.robot;
 
-//import com.pathplanner.lib.auto.NamedCommands;
-//import com.pathplanner.lib.commands.PathPlannerAuto;
+import com.pathplanner.lib.auto.NamedCommands;
 
+import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.wpilibj.GenericHID;
 import edu.wpi.first.wpilibj.XboxController;
-import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.InstantCommand;
 import edu.wpi.first.wpilibj2.command.ParallelCommandGroup;
 import edu.wpi.first.wpilibj2.command.button.JoystickButton;
 import edu.wpi.first.wpilibj2.command.button.Trigger;
+import frc.robot.autos.PathPlannerFiles;
 import frc.robot.autos.parkAuto;
 import frc.robot.commands.AimAtAprilTag;
+import frc.robot.commands.PathfindToFieldTarget;
 import frc.robot.commands.SetShoulderRPM;
 import frc.robot.commands.SetWrist2PercentSpeed;
 import frc.robot.commands.ShoulderGoToPosition;
 import frc.robot.commands.TeleopSwerve;
 import frc.robot.commands.Wrist2GoToPosition;
 import frc.robot.subsystems.BeamBreakSensor;
+import frc.robot.subsystems.CANBusMonitor;
 import frc.robot.subsystems.ClimberServo;
 import frc.robot.subsystems.CollectorRoller;
+import frc.robot.subsystems.PowerDistributionMonitor;
 import frc.robot.subsystems.Shooter2;
 import frc.robot.subsystems.Shoulder;
 import frc.robot.subsystems.Swerve;
@@ -76,16 +79,21 @@ public class RobotContainer {
     private final BeamBreakSensor m_BeamBreakSensor = new BeamBreakSensor();
     private final CollectorRoller m_CollectorRoller = TuningVariables.useCollectorRoller.getBoolean() ? new CollectorRoller() : null;
     private final ClimberServo m_climberServo = new ClimberServo(0);
-    private final Vision m_Vision = new Vision("AprilTagCamera");
-    /* Autos */
-    private final SendableChooser<Command> m_chooser = new SendableChooser<>();
-
-    //private final Command m_Blue1AmpShotAuto = new PathPlannerAuto("Blue1AmpShotAuto");
-    //private final Command m_Blue2AmpShotAuto = new PathPlannerAuto("Blue2AmpShotAuto");
+    /* in simulation the camera sees the tags from wherever the simulated drivetrain is */
+    private final Vision m_Vision = new Vision(Constants.VisionConstants.cameraName,
+        s_Swerve != null ? s_Swerve::getPose : Pose2d::new);
+    /* records every PDH channel's current in the DataLog */
+    private final PowerDistributionMonitor m_powerDistributionMonitor = new PowerDistributionMonitor();
+    /* created last, so every CAN device has registered with CANDevices */
+    private final CANBusMonitor m_canBusMonitor = new CANBusMonitor();
+    /* Autos; only the selected one is built (see AutoChooser) */
+    private final AutoChooser m_chooser = new AutoChooser();
+    /* every PathPlanner path and auto, loaded while disabled; made once the named commands are registered */
+    private final PathPlannerFiles m_pathPlannerFiles;
         
     /** The container for the robot. Contains subsystems, OI devices, and commands. */
     public RobotContainer() {
-        TuningVariables.setAllToDefaultValues();
+        TuningVariables.setStartupDefaults();
         if (s_Swerve == null){
             System.out.println("No drivetrain object was created - check TuningVariables in Smartdashboard");
         }
@@ -102,6 +110,8 @@ public class RobotContainer {
         } else {
             System.out.println("Note manipulator's Xbox controller should be attached to port " + m_armController.getPort());
         }
+        if (s_Swerve != null) m_Vision.setPoseMeasurementConsumer(s_Swerve::addVisionMeasurement);
+        if (s_Swerve != null) m_powerDistributionMonitor.addBrownoutListener(s_Swerve::setBrownoutPredicted);
         if (s_Swerve != null) s_Swerve.setDefaultCommand(
             new TeleopSwerve(
                 s_Swerve, 
@@ -111,29 +121,37 @@ public class RobotContainer {
                 () -> robotCentric.getAsBoolean())
             );
             
-        //registerNamedPathPlannerCommands();
+        // before any PathPlannerAuto is made, since it looks its named commands up then
+        registerNamedPathPlannerCommands();
+        m_pathPlannerFiles = new PathPlannerFiles(s_Swerve != null);
 
         //Add commands to the autonomous command chooser
-        m_chooser.setDefaultOption("Leave Starting Zone", new parkAuto(s_Swerve));
-        m_chooser.addOption("Red Amp And Intake", new redAmpPlusIntakeAuto(s_Swerve, m_shoulder, m_wrist2, m_shooter2, m_CollectorRoller, m_BeamBreakSensor));
-        m_chooser.addOption("Blue Amp And Intake", new blueAmpPlusIntakeAuto(s_Swerve, m_shoulder, m_wrist2, m_shooter2, m_CollectorRoller, m_BeamBreakSensor));
-        m_chooser.addOption("Center Speaker", new centerSpeaker(s_Swerve, m_shoulder, m_wrist2, m_shooter2));
-        m_chooser.addOption("Right Speaker", new rightSpeaker(s_Swerve, m_shoulder, m_wrist2, m_shooter2));
-        m_chooser.addOption("Left Speaker", new leftSpeaker(s_Swerve, m_shoulder, m_wrist2, m_shooter2));
-        m_chooser.addOption("Center Speaker Plus Center Note", new centerSpeakerScore2(s_Swerve, m_shoulder, m_wrist2, m_shooter2, m_CollectorRoller, m_BeamBreakSensor));
+        m_chooser.setDefaultOption("Leave Starting Zone", () -> new parkAuto(s_Swerve));
+        m_chooser.addOption("Red Amp And Intake", () -> new redAmpPlusIntakeAuto(s_Swerve, m_shoulder, m_wrist2, m_shooter2, m_CollectorRoller, m_BeamBreakSensor));
+        m_chooser.addOption("Blue Amp And Intake", () -> new blueAmpPlusIntakeAuto(s_Swerve, m_shoulder, m_wrist2, m_shooter2, m_CollectorRoller, m_BeamBreakSensor));
+        m_chooser.addOption("Center Speaker", () -> new centerSpeaker(s_Swerve, m_shoulder, m_wrist2, m_shooter2));
+        m_chooser.addOption("Right Speaker", () -> new rightSpeaker(s_Swerve, m_shoulder, m_wrist2, m_shooter2));
+        m_chooser.addOption("Left Speaker", () -> new leftSpeaker(s_Swerve, m_shoulder, m_wrist2, m_shooter2));
+        m_chooser.addOption("Center Speaker Plus Center Note", () -> new centerSpeakerScore2(s_Swerve, m_shoulder, m_wrist2, m_shooter2, m_CollectorRoller, m_BeamBreakSensor));
         m_chooser.addOption("Red Speaker + Note Right", null);
         m_chooser.addOption("Blue Speaker + Note Left", null);
-        m_chooser.addOption("Do Nothing", new compAuto(s_Swerve, m_shoulder, m_wrist2, m_shooter2, m_CollectorRoller, m_BeamBreakSensor));
-        //m_chooser.addOption("Amp Shot Auto", m_Blue1AmpShotAuto);
-        //m_chooser.addOption("Amp Shot 2 Auto", m_Blue2AmpShotAuto);
+        m_chooser.addOption("Do Nothing", () -> new compAuto(s_Swerve, m_shoulder, m_wrist2, m_shooter2, m_CollectorRoller, m_BeamBreakSensor));
+        // PathPlanner autos, already loaded by the time the chooser builds one
+        if (s_Swerve != null) {
+            m_chooser.addOption("Amp Shot Auto", () -> m_pathPlannerFiles.getAuto("Blue1AmpShotAuto"));
+            m_chooser.addOption("Amp Shot 2 Auto", () -> m_pathPlannerFiles.getAuto("Blue2AmpShotAuto"));
+        }
         //Put the chooser on the dashboard
-        SmartDashboard.putData(m_chooser);
+        SmartDashboard.putData(m_chooser.getSendableChooser());
 
         // Configure the button bindings
         configureButtonBindings();
         SmartDashboard.putData("Remove all preferences", new InstantCommand(TuningVariables::removeAllPreferences)); 
         SmartDashboard.putData("Set All TuningVariables to default values", new InstantCommand(TuningVariables::setAllToDefaultValues)); 
         SmartDashboard.putData(m_Vision);
+
+        // the subsystems' devices have been configuring in the background while the above ran
+        DeviceConfigurator.awaitAll(DeviceConfigurator.kDefaultTimeoutSeconds);
     }
 
     private void registerNamedPathPlannerCommands(){
@@ -149,10 +167,11 @@ public class RobotContainer {
       ).withTimeout(3.0);
       Command doIntake = m_shooter2.intake2UntilBeamBreak(m_CollectorRoller, m_BeamBreakSensor); 
 
-      //NamedCommands.registerCommand("GoToAmpPosition", goToAmpShotPosition);
-      //NamedCommands.registerCommand("Shoot", shoot2ForAmp);
-      //NamedCommands.registerCommand("GoToCollectionPosition", goToCollectionPosition);
-      //NamedCommands.registerCommand("Collect", doIntake);      
+      NamedCommands.registerCommand("GoToAmpPosition", goToAmpShotPosition);
+      NamedCommands.registerCommand("GoToAmpShotPosition", goToAmpShotPosition); // used by Blue2AmpShotAuto
+      NamedCommands.registerCommand("Shoot", shoot2ForAmp);
+      NamedCommands.registerCommand("GoToCollectionPosition", goToCollectionPosition);
+      NamedCommands.registerCommand("Collect", doIntake);
     }
 
     /**
@@ -199,6 +218,15 @@ public class RobotContainer {
         armRightTrigger.whileTrue(shootForAmp);
         
         driveA.whileTrue(new AimAtAprilTag(m_Vision, s_Swerve, 14, 1)); //allow 1 degree of error
+        // While held, drive around the field's obstacles to the amp, the speaker or the source
+        if (s_Swerve != null && m_driveController != null) {
+          new JoystickButton(m_driveController, XboxController.Button.kB.value)
+            .whileTrue(new PathfindToFieldTarget(s_Swerve, PathfindToFieldTarget.Target.kAmp));
+          new JoystickButton(m_driveController, XboxController.Button.kX.value)
+            .whileTrue(new PathfindToFieldTarget(s_Swerve, PathfindToFieldTarget.Target.kSpeaker));
+          new JoystickButton(m_driveController, XboxController.Button.kRightBumper.value)
+            .whileTrue(new PathfindToFieldTarget(s_Swerve, PathfindToFieldTarget.Target.kSource));
+        }
         // Now for climbing control.  Climbing requires much more power in shoulder than shooting does.
         // Y button, while held down, causes arm to rise to vertical.
         armY.whileTrue(new goToClimbPosition(m_shoulder, m_wrist2));
@@ -244,4 +272,10 @@ public class RobotContainer {
         // An ExampleCommand will run in autonomous
         return m_chooser.getSelected();
     }
+
+    /** Called every loop while disabled, from Robot.disabledPeriodic() */
+    public void disabledPeriodic() {
+        m_pathPlannerFiles.disabledPeriodic();
+        m_chooser.disabledPeriodic();
+    }
   }
\ No newline at end of file
@@ -0,0 +1,126 @@
+package frc.robot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.hardware.ParentDevice;
+import com.revrobotics.CANSparkLowLevel.PeriodicFrame;
+import com.revrobotics.CANSparkMax;
+
+/**
+ * One place that decides how often every CAN device sends its status frames.
+ * Devices come with every status frame turned on at vendor-default rates, most
+ * of which we never read.  Here the signals we do read get the rates we need
+ * and everything else is turned down as far as it will go.
+ *
+ * Devices register themselves when they are constructed.  Robot calls apply()
+ * when the mode changes, since, e.g., the odometry does not need 250 Hz
+ * position frames while disabled.
+ */
+public final class StatusFrameManager {
+    public enum Profile {
+        kDisabled(50.0, 4.0, 100),
+        kAutonomous(Constants.Swerve.odometryFrequency, 10.0, 20),
+        kTeleop(Constants.Swerve.odometryFrequency, 10.0, 20);
+
+        /** Hz for the Phoenix signals the odometry thread waits on */
+        public final double odometryHz;
+        /** Hz for Phoenix signals only used for dashboards and occasional checks */
+        public final double telemetryHz;
+        /** milliseconds between Spark MAX velocity/current (status 1) and position (status 2) frames */
+        public final int sparkFeedbackPeriodMs;
+
+        Profile(double odometryHz, double telemetryHz, int sparkFeedbackPeriodMs) {
+            this.odometryHz = odometryHz;
+            this.telemetryHz = telemetryHz;
+            this.sparkFeedbackPeriodMs = sparkFeedbackPeriodMs;
+        }
+    }
+
+    /* Spark MAX frame periods, milliseconds.  65535 is the slowest allowed. */
+    private static final int kSparkLeaderStatus0PeriodMs = 10; // followers are driven from the leader's status 0
+    private static final int kSparkStatus0PeriodMs = 100; // applied output and faults
+    private static final int kSparkUnusedPeriodMs = 65535; // analog, alternate encoder, duty cycle encoder
+
+    private static final List<BaseStatusSignal> s_odometrySignals = new ArrayList<>();
+    private static final List<BaseStatusSignal> s_telemetrySignals = new ArrayList<>();
+    private static final List<ParentDevice> s_phoenixDevices = new ArrayList<>();
+    private static final List<CANSparkMax> s_sparkMaxes = new ArrayList<>();
+    private static final Set<CANSparkMax> s_sparkMaxLeaders = Collections.newSetFromMap(new IdentityHashMap<>());
+    private static boolean s_busOptimized = false;
+    private static volatile Profile s_profile = Profile.kDisabled;
+
+    private StatusFrameManager() {}
+
+    /** Signals that must arrive at the odometry rate */
+    public static synchronized void registerOdometrySignals(BaseStatusSignal... signals) {
+        s_odometrySignals.addAll(List.of(signals));
+        BaseStatusSignal.setUpdateFrequencyForAll(s_profile.odometryHz, signals);
+    }
+
+    /** Signals we read, but only for dashboards and occasional checks */
+    public static synchronized void registerTelemetrySignals(BaseStatusSignal... signals) {
+        s_telemetrySignals.addAll(List.of(signals));
+        BaseStatusSignal.setUpdateFrequencyForAll(s_profile.telemetryHz, signals);
+    }
+
+    /**
+     * Phoenix devices whose unregistered signals should be turned off.  Register
+     * all of a device's signals before the first apply().
+     */
+    public static synchronized void registerPhoenixDevices(ParentDevice... devices) {
+        s_phoenixDevices.addAll(List.of(devices));
+    }
+
+    public static synchronized void registerSparkMax(CANSparkMax sparkMax) {
+        s_sparkMaxes.add(sparkMax);
+        applySparkMax(sparkMax, s_profile);
+    }
+
+    /** A Spark MAX that other Spark MAXs follow needs to send its applied output quickly */
+    public static synchronized void registerSparkMaxLeader(CANSparkMax sparkMax) {
+        s_sparkMaxLeaders.add(sparkMax);
+        applySparkMax(sparkMax, s_profile);
+    }
+
+    /**
+     * @return Hz the odometry signals are currently running at
+     */
+    public static double getOdometryFrequency() {
+        return s_profile.odometryHz;
+    }
+
+    /**
+     * Set every registered device's frame rates for a robot mode.
+     */
+    public static synchronized void apply(Profile profile) {
+        s_profile = profile;
+        BaseStatusSignal.setUpdateFrequencyForAll(profile.odometryHz, s_odometrySignals.toArray(new BaseStatusSignal[0]));
+        BaseStatusSignal.setUpdateFrequencyForAll(profile.telemetryHz, s_telemetrySignals.toArray(new BaseStatusSignal[0]));
+        if (!s_busOptimized) {
+            // turns off every signal that has not been given a rate above; only needed once
+            for (ParentDevice device : s_phoenixDevices) {
+                device.optimizeBusUtilization();
+            }
+            s_busOptimized = true;
+        }
+        for (CANSparkMax sparkMax : s_sparkMaxes) {
+            applySparkMax(sparkMax, profile);
+        }
+    }
+
+    private static void applySparkMax(CANSparkMax sparkMax, Profile profile) {
+        sparkMax.setPeriodicFramePeriod(PeriodicFrame.kStatus0,
+            s_sparkMaxLeaders.contains(sparkMax) ? kSparkLeaderStatus0PeriodMs : kSparkStatus0PeriodMs);
+        sparkMax.setPeriodicFramePeriod(PeriodicFrame.kStatus1, profile.sparkFeedbackPeriodMs);
+        sparkMax.setPeriodicFramePeriod(PeriodicFrame.kStatus2, profile.sparkFeedbackPeriodMs);
+        sparkMax.setPeriodicFramePeriod(PeriodicFrame.kStatus3, kSparkUnusedPeriodMs);
+        sparkMax.setPeriodicFramePeriod(PeriodicFrame.kStatus4, kSparkUnusedPeriodMs);
+        sparkMax.setPeriodicFramePeriod(PeriodicFrame.kStatus5, kSparkUnusedPeriodMs);
+        sparkMax.setPeriodicFramePeriod(PeriodicFrame.kStatus6, kSparkUnusedPeriodMs);
+    }
+}
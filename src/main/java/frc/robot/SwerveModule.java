@@ -1,10 +1,6 @@
 package frc.robot;
 
-import com.ctre.phoenix6.controls.DutyCycleOut;
-import com.ctre.phoenix6.controls.PositionVoltage;
-import com.ctre.phoenix6.controls.VelocityVoltage;
-import com.ctre.phoenix6.hardware.CANcoder;
-import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.BaseStatusSignal;
 
 import edu.wpi.first.math.controller.SimpleMotorFeedforward;
 import edu.wpi.first.math.geometry.Rotation2d;
@@ -12,89 +8,175 @@ import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
 import frc.lib.math.Conversions;
 import frc.lib.util.SwerveModuleConstants;
+import frc.robot.logging.InputLogger;
 
 public class SwerveModule {
     public int moduleNumber;
     private Rotation2d angleOffset;
 
-    private TalonFX mAngleMotor;
-    private TalonFX mDriveMotor;
-    private CANcoder angleEncoder;
+    private final SwerveModuleIO io;
+    private final String inputsName;
 
     private final SimpleMotorFeedforward driveFeedForward = new SimpleMotorFeedforward(Constants.Swerve.driveKS, Constants.Swerve.driveKV, Constants.Swerve.driveKA);
 
-    /* drive motor control requests */
-    private final DutyCycleOut driveDutyCycle = new DutyCycleOut(0);
-    private final VelocityVoltage driveVelocity = new VelocityVoltage(0);
-
-    /* angle motor control requests */
-    private final PositionVoltage anglePosition = new PositionVoltage(0);
+    /* The sensor values for this scheduler run; see updateInputs() */
+    private final SwerveModuleSnapshot snapshot = new SwerveModuleSnapshot();
+    /* the last setDesiredState, after optimizing, for logging */
+    private double desiredMetersPerSecond = 0.0;
+    private double desiredAngleRotations = 0.0;
 
     public SwerveModule(int moduleNumber, SwerveModuleConstants moduleConstants){
         this.moduleNumber = moduleNumber;
         this.angleOffset = moduleConstants.angleOffset;
-        
-        /* Angle Encoder Config */
-        angleEncoder = new CANcoder(moduleConstants.cancoderID);
-        angleEncoder.getConfigurator().apply(Robot.ctreConfigs.swerveCANcoderConfig);
+        inputsName = "Swerve/Module" + moduleNumber;
+
+        switch (InputLogger.getMode()) {
+            case kReal:
+                io = new SwerveModuleIOReal(moduleConstants);
+                break;
+            case kSim:
+                io = new SwerveModuleIOSim(moduleConstants);
+                break;
+            default:
+                io = new SwerveModuleIO() {};
+                break;
+        }
+        // Swerve calls resetToAbsolute() once the devices are configured
+        BaseStatusSignal[] signals = io.getStatusSignals();
+        if (signals.length > 0) {
+            BaseStatusSignal.refreshAll(signals);
+        }
+        updateInputs();
+    }
+
+    /** @return the signals updateInputs() reads, for Swerve to refresh with the other modules' */
+    public BaseStatusSignal[] getStatusSignals(){
+        return io.getStatusSignals();
+    }
 
-        /* Angle Motor Config */
-        mAngleMotor = new TalonFX(moduleConstants.angleMotorID);
-        mAngleMotor.getConfigurator().apply(Robot.ctreConfigs.swerveAngleFXConfig);
-        resetToAbsolute();
+    /**
+     * Read the module's sensors (or, in replay, the recorded values) into the
+     * snapshot and log them.  On the real robot the caller must hold the
+     * PhoenixOdometryThread lock, and have refreshed getStatusSignals().
+     */
+    public void updateInputs(){
+        io.updateInputs(snapshot);
+        InputLogger.processInputs(inputsName, snapshot);
+    }
 
-        /* Drive Motor Config */
-        mDriveMotor = new TalonFX(moduleConstants.driveMotorID);
-        mDriveMotor.getConfigurator().apply(Robot.ctreConfigs.swerveDriveFXConfig);
-        mDriveMotor.getConfigurator().setPosition(0.0);
+    /**
+     * @return this scheduler run's sample of the module's sensors
+     */
+    public SwerveModuleSnapshot getSnapshot(){
+        return snapshot;
     }
 
     public void setDesiredState(SwerveModuleState desiredState, boolean isOpenLoop){
-        desiredState = SwerveModuleState.optimize(desiredState, getState().angle); 
-        mAngleMotor.setControl(anglePosition.withPosition(desiredState.angle.getRotations()));
-        setSpeed(desiredState, isOpenLoop);
+        setDesiredState(desiredState.speedMetersPerSecond, desiredState.angle.getRotations(), isOpenLoop);
+    }
+
+    /**
+     * Allocation-free version of setDesiredState.  Does the same job as
+     * SwerveModuleState.optimize: never turn the wheel more than a quarter
+     * rotation, reversing the drive direction instead.
+     * @param speedMetersPerSecond - desired wheel speed
+     * @param angleRotations - desired wheel angle, in rotations counterclockwise
+     * @param isOpenLoop - true for duty cycle control of the drive motor, false for velocity control
+     */
+    public void setDesiredState(double speedMetersPerSecond, double angleRotations, boolean isOpenLoop){
+        double currentRotations = snapshot.angleRotations;
+        double delta = angleRotations - currentRotations;
+        delta -= Math.rint(delta); // now in [-0.5, 0.5]
+        if (Math.abs(delta) > 0.25) {
+            speedMetersPerSecond = -speedMetersPerSecond;
+            delta += delta > 0.0 ? -0.5 : 0.5;
+        }
+        desiredMetersPerSecond = speedMetersPerSecond;
+        desiredAngleRotations = currentRotations + delta;
+        // the angle motor uses ContinuousWrap, so any equivalent position is fine
+        io.setAnglePosition(desiredAngleRotations);
+        setSpeed(speedMetersPerSecond, isOpenLoop);
+    }
+
+    /** @return drive speed last asked for, after optimizing, in meters per second */
+    public double getDesiredMetersPerSecond(){
+        return desiredMetersPerSecond;
     }
 
-    private void setSpeed(SwerveModuleState desiredState, boolean isOpenLoop){
+    /** @return angle motor position last asked for, in rotations (not wrapped) */
+    public double getDesiredAngleRotations(){
+        return desiredAngleRotations;
+    }
+
+    private void setSpeed(double speedMetersPerSecond, boolean isOpenLoop){
         if(isOpenLoop){
-            driveDutyCycle.Output = desiredState.speedMetersPerSecond / Constants.Swerve.maxSpeed;
-            mDriveMotor.setControl(driveDutyCycle);
+            io.setDriveDutyCycle(speedMetersPerSecond / Constants.Swerve.maxSpeed);
         }
         else {
-            driveVelocity.Velocity = Conversions.MPSToRPS(desiredState.speedMetersPerSecond, Constants.Swerve.wheelCircumference);
-            driveVelocity.FeedForward = driveFeedForward.calculate(desiredState.speedMetersPerSecond);
-            mDriveMotor.setControl(driveVelocity);
+            io.setDriveVelocity(Conversions.MPSToRPS(speedMetersPerSecond, Constants.Swerve.wheelCircumference),
+                driveFeedForward.calculate(speedMetersPerSecond));
         }
     }
 
     public Rotation2d getCANcoder(){
-        return Rotation2d.fromRotations(angleEncoder.getAbsolutePosition().getValue());
+        return Rotation2d.fromRotations(snapshot.canCoderRotations);
+    }
+
+    /**
+     * Wait for the module's devices to be configured, which they are in the
+     * background (see DeviceConfigurator)
+     * @param timeoutSeconds - 0 to check without waiting
+     * @return true if they were configured in time
+     */
+    public boolean awaitConfiguration(double timeoutSeconds){
+        return io.awaitConfiguration(timeoutSeconds);
     }
 
     public void resetToAbsolute(){
-        double absolutePosition = getCANcoder().getRotations() - angleOffset.getRotations();
-        mAngleMotor.setPosition(absolutePosition);
+        double absolutePosition = snapshot.canCoderRotations - angleOffset.getRotations();
+        io.setAngleMotorPosition(absolutePosition);
+        snapshot.angleRotations = absolutePosition;
     }
 
     public SwerveModuleState getState(){
-        return new SwerveModuleState(
-            Conversions.RPSToMPS(mDriveMotor.getVelocity().getValue(), Constants.Swerve.wheelCircumference), 
-            Rotation2d.fromRotations(mAngleMotor.getPosition().getValue())
-        );
+        return new SwerveModuleState(snapshot.driveMetersPerSecond, Rotation2d.fromRotations(snapshot.angleRotations));
     }
 
     public SwerveModulePosition getPosition(){
-        return new SwerveModulePosition(
-            Conversions.rotationsToMeters(mDriveMotor.getPosition().getValue(), Constants.Swerve.wheelCircumference), 
-            Rotation2d.fromRotations(mAngleMotor.getPosition().getValue())
-        );
+        return new SwerveModulePosition(snapshot.driveMeters, Rotation2d.fromRotations(snapshot.angleRotations));
+    }
+
+    /**
+     * Like getState, but fills in an existing SwerveModuleState instead of creating one.
+     */
+    public void getState(SwerveModuleState state){
+        state.speedMetersPerSecond = snapshot.driveMetersPerSecond;
+        state.angle = Rotation2d.fromRotations(snapshot.angleRotations);
+    }
+
+    /**
+     * Like getPosition, but fills in an existing SwerveModulePosition instead of creating one.
+     */
+    public void getPosition(SwerveModulePosition position){
+        position.distanceMeters = snapshot.driveMeters;
+        position.angle = Rotation2d.fromRotations(snapshot.angleRotations);
+    }
+
+    /** Replace the drive motor's closed loop gains.  Sends them over CAN, so only call on a change. */
+    public void setDriveGains(double kP, double kI, double kD){
+        io.setDriveGains(kP, kI, kD);
+    }
+
+    /** Replace the angle motor's closed loop gains.  Sends them over CAN, so only call on a change. */
+    public void setAngleGains(double kP, double kI, double kD){
+        io.setAngleGains(kP, kI, kD);
     }
 
     public double getDriveCurrent(){
-        return mDriveMotor.getSupplyCurrent().getValueAsDouble();
+        return snapshot.driveCurrent;
     }
 
     public double getAngleCurrent(){
-        return mAngleMotor.getSupplyCurrent().getValueAsDouble();
+        return snapshot.angleCurrent;
     }
 }
\ No newline at end of file
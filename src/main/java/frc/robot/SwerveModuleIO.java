@@ -0,0 +1,46 @@
+package frc.robot;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+
+/**
+ * The hardware behind a SwerveModule.  SwerveModuleIOReal talks to the TalonFXs
+ * and CANcoder, SwerveModuleIOSim simulates them, and in replay the module uses
+ * this interface's do-nothing defaults while its inputs come from the log.
+ */
+public interface SwerveModuleIO {
+    /**
+     * The signals updateInputs() reads.  Swerve refreshes every module's and the
+     * gyro's with one refreshAll() per loop, before calling updateInputs().
+     */
+    default BaseStatusSignal[] getStatusSignals() { return new BaseStatusSignal[0]; }
+
+    /** Fill in inputs with the latest sensor values, refreshed by the caller */
+    default void updateInputs(SwerveModuleSnapshot inputs) {}
+
+    /** @param output - drive motor duty cycle, -1 to 1 */
+    default void setDriveDutyCycle(double output) {}
+
+    /**
+     * @param rotationsPerSecond - wheel speed
+     * @param feedForwardVolts - added to the closed loop output
+     */
+    default void setDriveVelocity(double rotationsPerSecond, double feedForwardVolts) {}
+
+    /** @param rotations - angle motor position to go to (the motor wraps continuously) */
+    default void setAnglePosition(double rotations) {}
+
+    /** Tell the angle motor it is now at rotations, without moving it */
+    default void setAngleMotorPosition(double rotations) {}
+
+    /** Replace the drive motor's closed loop gains (Slot0) */
+    default void setDriveGains(double kP, double kI, double kD) {}
+
+    /** Replace the angle motor's closed loop gains (Slot0) */
+    default void setAngleGains(double kP, double kI, double kD) {}
+
+    /**
+     * Wait for the devices' startup configuration to finish
+     * @return true if it finished in time
+     */
+    default boolean awaitConfiguration(double timeoutSeconds) { return true; }
+}
@@ -0,0 +1,196 @@
+package frc.robot;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.configs.CANcoderConfiguration;
+import com.ctre.phoenix6.configs.Slot0Configs;
+import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.controls.DutyCycleOut;
+import com.ctre.phoenix6.controls.PositionVoltage;
+import com.ctre.phoenix6.controls.VelocityVoltage;
+import com.ctre.phoenix6.hardware.CANcoder;
+import com.ctre.phoenix6.hardware.TalonFX;
+
+import frc.lib.math.Conversions;
+import frc.lib.util.SwerveModuleConstants;
+
+/** A swerve module's TalonFX drive and angle motors and CANcoder */
+public class SwerveModuleIOReal implements SwerveModuleIO {
+    /* the devices store settings with less precision than a double */
+    private static final double kVerifyTolerance = 1e-3;
+
+    private final TalonFX mAngleMotor;
+    private final TalonFX mDriveMotor;
+    private final CANcoder angleEncoder;
+    private final DeviceConfigurator.Device[] devices;
+
+    /* drive motor control requests */
+    private final DutyCycleOut driveDutyCycle = new DutyCycleOut(0);
+    private final VelocityVoltage driveVelocity = new VelocityVoltage(0);
+
+    /* angle motor control requests */
+    private final PositionVoltage anglePosition = new PositionVoltage(0);
+
+    /* Signals read into the inputs once per scheduler run; Swerve refreshes them, along with the other modules' */
+    private final StatusSignal<Double> drivePosition;
+    private final StatusSignal<Double> driveVelocitySignal;
+    private final StatusSignal<Double> angleMotorPosition;
+    private final StatusSignal<Double> canCoderPosition;
+    private final StatusSignal<Double> driveCurrent;
+    private final StatusSignal<Double> angleCurrent;
+    private final BaseStatusSignal[] signals;
+
+    /* indexes of this module's signals in PhoenixOdometryThread */
+    private final int odometryDriveIndex;
+    private final int odometryAngleIndex;
+
+    public SwerveModuleIOReal(SwerveModuleConstants moduleConstants){
+        /* The configs are applied in the background, along with every other
+         * device's; see DeviceConfigurator.  Swerve waits for them. */
+        /* Angle Encoder Config */
+        angleEncoder = new CANcoder(moduleConstants.cancoderID);
+        DeviceConfigurator.Device encoderDevice = DeviceConfigurator.addDevice("CANcoder " + moduleConstants.cancoderID);
+        encoderDevice.configure("configuration", () -> applyAndVerify(angleEncoder, Robot.ctreConfigs.swerveCANcoderConfig));
+
+        /* Angle Motor Config */
+        mAngleMotor = new TalonFX(moduleConstants.angleMotorID);
+        DeviceConfigurator.Device angleDevice = DeviceConfigurator.addDevice("TalonFX " + moduleConstants.angleMotorID);
+        angleDevice.configure("configuration", () -> applyAndVerify(mAngleMotor, Robot.ctreConfigs.swerveAngleFXConfig));
+
+        /* Drive Motor Config */
+        mDriveMotor = new TalonFX(moduleConstants.driveMotorID);
+        DeviceConfigurator.Device driveDevice = DeviceConfigurator.addDevice("TalonFX " + moduleConstants.driveMotorID);
+        driveDevice.configure("configuration", () -> applyAndVerify(mDriveMotor, Robot.ctreConfigs.swerveDriveFXConfig));
+        driveDevice.configure("zero position", () -> mDriveMotor.getConfigurator().setPosition(0.0).isOK());
+        devices = new DeviceConfigurator.Device[] {encoderDevice, angleDevice, driveDevice};
+
+        /* The odometry thread gets its own copies of the position signals, since
+         * StatusSignal objects are not thread-safe. */
+        StatusSignal<Double> odometryDrivePosition = mDriveMotor.getPosition().clone();
+        StatusSignal<Double> odometryDriveVelocity = mDriveMotor.getVelocity().clone();
+        StatusSignal<Double> odometryAnglePosition = mAngleMotor.getPosition().clone();
+        StatusSignal<Double> odometryAngleVelocity = mAngleMotor.getVelocity().clone();
+        StatusFrameManager.registerOdometrySignals(odometryDrivePosition, odometryDriveVelocity, odometryAnglePosition, odometryAngleVelocity);
+        odometryDriveIndex = PhoenixOdometryThread.getInstance().registerSignal(odometryDrivePosition, odometryDriveVelocity);
+        odometryAngleIndex = PhoenixOdometryThread.getInstance().registerSignal(odometryAnglePosition, odometryAngleVelocity);
+
+        drivePosition = mDriveMotor.getPosition();
+        driveVelocitySignal = mDriveMotor.getVelocity();
+        angleMotorPosition = mAngleMotor.getPosition();
+        canCoderPosition = angleEncoder.getAbsolutePosition();
+        driveCurrent = mDriveMotor.getSupplyCurrent();
+        angleCurrent = mAngleMotor.getSupplyCurrent();
+        signals = new BaseStatusSignal[] {
+            drivePosition, driveVelocitySignal, angleMotorPosition, canCoderPosition, driveCurrent, angleCurrent
+        };
+        // drive and angle position/velocity are already at the odometry rate
+        StatusFrameManager.registerTelemetrySignals(canCoderPosition, driveCurrent, angleCurrent);
+        StatusFrameManager.registerPhoenixDevices(angleEncoder, mAngleMotor, mDriveMotor);
+        CANDevices.registerPhoenix("TalonFX " + moduleConstants.driveMotorID, drivePosition);
+        CANDevices.registerPhoenix("TalonFX " + moduleConstants.angleMotorID, angleMotorPosition);
+        CANDevices.registerPhoenix("CANcoder " + moduleConstants.cancoderID, canCoderPosition);
+    }
+
+    @Override
+    public BaseStatusSignal[] getStatusSignals(){
+        return signals;
+    }
+
+    /** Caller must hold the PhoenixOdometryThread lock, and have refreshed getStatusSignals() */
+    @Override
+    public void updateInputs(SwerveModuleSnapshot inputs){
+        inputs.driveMeters = Conversions.rotationsToMeters(drivePosition.getValueAsDouble(), Constants.Swerve.wheelCircumference);
+        inputs.driveMetersPerSecond = Conversions.RPSToMPS(driveVelocitySignal.getValueAsDouble(), Constants.Swerve.wheelCircumference);
+        inputs.angleRotations = angleMotorPosition.getValueAsDouble();
+        inputs.canCoderRotations = canCoderPosition.getValueAsDouble();
+        inputs.driveCurrent = driveCurrent.getValueAsDouble();
+        inputs.angleCurrent = angleCurrent.getValueAsDouble();
+
+        PhoenixOdometryThread odometryThread = PhoenixOdometryThread.getInstance();
+        int sampleCount = odometryThread.getSampleCount();
+        inputs.odometrySampleCount = sampleCount;
+        for(int i = 0 ; i < sampleCount ; i++){
+            inputs.odometryTimestamps[i] = odometryThread.getTimestamp(i);
+            inputs.odometryDriveMeters[i] = Conversions.rotationsToMeters(odometryThread.getSample(odometryDriveIndex, i), Constants.Swerve.wheelCircumference);
+            inputs.odometryAngleRotations[i] = odometryThread.getSample(odometryAngleIndex, i);
+        }
+    }
+
+    @Override
+    public void setDriveDutyCycle(double output){
+        driveDutyCycle.Output = output;
+        mDriveMotor.setControl(driveDutyCycle);
+    }
+
+    @Override
+    public void setDriveVelocity(double rotationsPerSecond, double feedForwardVolts){
+        driveVelocity.Velocity = rotationsPerSecond;
+        driveVelocity.FeedForward = feedForwardVolts;
+        mDriveMotor.setControl(driveVelocity);
+    }
+
+    @Override
+    public void setAnglePosition(double rotations){
+        mAngleMotor.setControl(anglePosition.withPosition(rotations));
+    }
+
+    @Override
+    public void setAngleMotorPosition(double rotations){
+        mAngleMotor.setPosition(rotations);
+    }
+
+    @Override
+    public void setDriveGains(double kP, double kI, double kD){
+        mDriveMotor.getConfigurator().apply(slot0(Robot.ctreConfigs.swerveDriveFXConfig.Slot0, kP, kI, kD));
+    }
+
+    @Override
+    public void setAngleGains(double kP, double kI, double kD){
+        mAngleMotor.getConfigurator().apply(slot0(Robot.ctreConfigs.swerveAngleFXConfig.Slot0, kP, kI, kD));
+    }
+
+    @Override
+    public boolean awaitConfiguration(double timeoutSeconds){
+        boolean finished = true;
+        for(DeviceConfigurator.Device device : devices){
+            // they configure at the same time, so this waits about as long as the slowest
+            finished &= device.await(timeoutSeconds);
+        }
+        return finished;
+    }
+
+    /** @return true if the TalonFX reads back the settings we rely on */
+    private static boolean applyAndVerify(TalonFX motor, TalonFXConfiguration config){
+        if (!motor.getConfigurator().apply(config).isOK()) {
+            return false;
+        }
+        TalonFXConfiguration actual = new TalonFXConfiguration();
+        return motor.getConfigurator().refresh(actual).isOK()
+            && actual.MotorOutput.Inverted == config.MotorOutput.Inverted
+            && actual.MotorOutput.NeutralMode == config.MotorOutput.NeutralMode
+            && Math.abs(actual.Feedback.SensorToMechanismRatio - config.Feedback.SensorToMechanismRatio) < kVerifyTolerance
+            && actual.CurrentLimits.SupplyCurrentLimitEnable == config.CurrentLimits.SupplyCurrentLimitEnable
+            && Math.abs(actual.CurrentLimits.SupplyCurrentLimit - config.CurrentLimits.SupplyCurrentLimit) < kVerifyTolerance
+            && actual.ClosedLoopGeneral.ContinuousWrap == config.ClosedLoopGeneral.ContinuousWrap;
+    }
+
+    /** @return true if the CANcoder reads back the settings we rely on */
+    private static boolean applyAndVerify(CANcoder encoder, CANcoderConfiguration config){
+        if (!encoder.getConfigurator().apply(config).isOK()) {
+            return false;
+        }
+        CANcoderConfiguration actual = new CANcoderConfiguration();
+        return encoder.getConfigurator().refresh(actual).isOK()
+            && actual.MagnetSensor.SensorDirection == config.MagnetSensor.SensorDirection
+            && actual.MagnetSensor.AbsoluteSensorRange == config.MagnetSensor.AbsoluteSensorRange
+            && Math.abs(actual.MagnetSensor.MagnetOffset - config.MagnetSensor.MagnetOffset) < kVerifyTolerance;
+    }
+
+    /** @return a copy of base with new PID gains; only done when the gains change */
+    private static Slot0Configs slot0(Slot0Configs base, double kP, double kI, double kD){
+        return new Slot0Configs()
+            .withKP(kP).withKI(kI).withKD(kD)
+            .withKS(base.kS).withKV(base.kV).withKA(base.kA).withKG(base.kG)
+            .withGravityType(base.GravityType);
+    }
+}
@@ -0,0 +1,92 @@
+package frc.robot;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.simulation.DCMotorSim;
+import frc.lib.math.Conversions;
+import frc.lib.util.SwerveModuleConstants;
+
+/**
+ * A physics simulation of a swerve module, with the TalonFXs' closed loops
+ * imitated by proportional control using the same gains.
+ */
+public class SwerveModuleIOSim implements SwerveModuleIO {
+    private static final double kLoopPeriodSeconds = 0.02;
+
+    private final DCMotorSim driveSim = new DCMotorSim(DCMotor.getFalcon500(1), Constants.Swerve.driveGearRatio, 0.025);
+    private final DCMotorSim angleSim = new DCMotorSim(DCMotor.getFalcon500(1), Constants.Swerve.angleGearRatio, 0.004);
+    private final double angleOffsetRotations;
+
+    private boolean driveClosedLoop = false;
+    private double driveDutyCycle = 0.0;
+    private double driveRotationsPerSecond = 0.0;
+    private double driveFeedForwardVolts = 0.0;
+    private double angleSetpointRotations = 0.0;
+    private double driveKP = Constants.Swerve.driveKP;
+    private double angleKP = Constants.Swerve.angleKP;
+
+    public SwerveModuleIOSim(SwerveModuleConstants moduleConstants){
+        angleOffsetRotations = moduleConstants.angleOffset.getRotations();
+    }
+
+    @Override
+    public void updateInputs(SwerveModuleSnapshot inputs){
+        double driveVolts = driveClosedLoop
+            ? driveFeedForwardVolts + driveKP * (driveRotationsPerSecond - driveSim.getAngularVelocityRPM() / 60.0)
+            : driveDutyCycle * 12.0;
+        double angleError = angleSetpointRotations - angleSim.getAngularPositionRotations();
+        double angleVolts = angleKP * (angleError - Math.rint(angleError)); // continuous wrap
+        driveSim.setInputVoltage(MathUtil.clamp(driveVolts, -12.0, 12.0));
+        angleSim.setInputVoltage(MathUtil.clamp(angleVolts, -12.0, 12.0));
+        driveSim.update(kLoopPeriodSeconds);
+        angleSim.update(kLoopPeriodSeconds);
+
+        inputs.driveMeters = Conversions.rotationsToMeters(driveSim.getAngularPositionRotations(), Constants.Swerve.wheelCircumference);
+        inputs.driveMetersPerSecond = Conversions.RPSToMPS(driveSim.getAngularVelocityRPM() / 60.0, Constants.Swerve.wheelCircumference);
+        inputs.angleRotations = angleSim.getAngularPositionRotations();
+        double canCoderRotations = inputs.angleRotations + angleOffsetRotations;
+        inputs.canCoderRotations = canCoderRotations - Math.floor(canCoderRotations + 0.5);
+        inputs.driveCurrent = Math.abs(driveSim.getCurrentDrawAmps());
+        inputs.angleCurrent = Math.abs(angleSim.getCurrentDrawAmps());
+
+        // one odometry sample per loop
+        inputs.odometrySampleCount = 1;
+        inputs.odometryTimestamps[0] = Timer.getFPGATimestamp();
+        inputs.odometryDriveMeters[0] = inputs.driveMeters;
+        inputs.odometryAngleRotations[0] = inputs.angleRotations;
+    }
+
+    @Override
+    public void setDriveDutyCycle(double output){
+        driveClosedLoop = false;
+        driveDutyCycle = output;
+    }
+
+    @Override
+    public void setDriveVelocity(double rotationsPerSecond, double feedForwardVolts){
+        driveClosedLoop = true;
+        driveRotationsPerSecond = rotationsPerSecond;
+        driveFeedForwardVolts = feedForwardVolts;
+    }
+
+    @Override
+    public void setAnglePosition(double rotations){
+        angleSetpointRotations = rotations;
+    }
+
+    @Override
+    public void setAngleMotorPosition(double rotations){
+        angleSim.setState(rotations * 2.0 * Math.PI, angleSim.getAngularVelocityRadPerSec());
+    }
+
+    @Override
+    public void setDriveGains(double kP, double kI, double kD){
+        driveKP = kP;
+    }
+
+    @Override
+    public void setAngleGains(double kP, double kI, double kD){
+        angleKP = kP;
+    }
+}
@@ -0,0 +1,63 @@
+package frc.robot;
+
+import frc.robot.logging.LogTable;
+import frc.robot.logging.LoggableInputs;
+
+/**
+ * One consistent sample of a SwerveModule's sensors, taken once per scheduler run
+ * by Swerve.periodic().  Everything that reads module sensors on the main thread
+ * (optimize, getState, getPosition, dashboards) reads from here instead of going
+ * to the hardware, so they all see the same values.  These are the module's
+ * logged inputs, so in replay they come from the recorded match.
+ */
+public class SwerveModuleSnapshot implements LoggableInputs {
+    /** Drive wheel distance, meters */
+    public double driveMeters;
+    /** Drive wheel speed, meters per second */
+    public double driveMetersPerSecond;
+    /** Angle motor position, rotations counterclockwise (not wrapped) */
+    public double angleRotations;
+    /** CANcoder absolute position, rotations counterclockwise */
+    public double canCoderRotations;
+    /** Drive motor supply current, amps */
+    public double driveCurrent;
+    /** Angle motor supply current, amps */
+    public double angleCurrent;
+
+    /*
+     * High rate odometry samples since the last scheduler run, oldest first.
+     * The arrays are made once, big enough for the most samples a loop can
+     * have; only the first odometrySampleCount elements are used.
+     */
+    public int odometrySampleCount = 0;
+    /** FPGA time of each sample, seconds */
+    public final double[] odometryTimestamps = new double[PhoenixOdometryThread.kMaxSamples];
+    public final double[] odometryDriveMeters = new double[PhoenixOdometryThread.kMaxSamples];
+    public final double[] odometryAngleRotations = new double[PhoenixOdometryThread.kMaxSamples];
+
+    @Override
+    public void toLog(LogTable table){
+        table.put("DriveMeters", driveMeters);
+        table.put("DriveMetersPerSecond", driveMetersPerSecond);
+        table.put("AngleRotations", angleRotations);
+        table.put("CANcoderRotations", canCoderRotations);
+        table.put("DriveCurrent", driveCurrent);
+        table.put("AngleCurrent", angleCurrent);
+        table.put("OdometryTimestamps", odometryTimestamps, odometrySampleCount);
+        table.put("OdometryDriveMeters", odometryDriveMeters, odometrySampleCount);
+        table.put("OdometryAngleRotations", odometryAngleRotations, odometrySampleCount);
+    }
+
+    @Override
+    public void fromLog(LogTable table){
+        driveMeters = table.get("DriveMeters", driveMeters);
+        driveMetersPerSecond = table.get("DriveMetersPerSecond", driveMetersPerSecond);
+        angleRotations = table.get("AngleRotations", angleRotations);
+        canCoderRotations = table.get("CANcoderRotations", canCoderRotations);
+        driveCurrent = table.get("DriveCurrent", driveCurrent);
+        angleCurrent = table.get("AngleCurrent", angleCurrent);
+        odometrySampleCount = Math.min(table.getInto("OdometryTimestamps", odometryTimestamps),
+            Math.min(table.getInto("OdometryDriveMeters", odometryDriveMeters),
+                table.getInto("OdometryAngleRotations", odometryAngleRotations)));
+    }
+}
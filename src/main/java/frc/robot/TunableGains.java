@@ -0,0 +1,76 @@
+package frc.robot;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Controller gains that can be changed from the dashboard without redeploying.
+ * The gains are TuningVariables marked Keep.kAcrossReboots, so they are saved
+ * in Preferences and RobotContainer's reset at boot leaves them alone; when one
+ * of them changes, the new set of gains is handed to an Applier, which sends
+ * them to the motor controllers.
+ *
+ * Gains are only sent when a value actually changes, so in the steady state
+ * this does no CAN traffic at all.  Changing several gains at once (e.g.,
+ * setAllToDefaultValues) sends them in a single apply.  Each TunableGains
+ * also applies once at startup, so saved values take effect after a reboot.
+ */
+public final class TunableGains {
+    /** Sends gains to hardware; called on the robot thread */
+    public interface Applier {
+        /** @param gains - the TuningVariables' values, in the order given to create() */
+        void apply(double[] gains);
+    }
+
+    private static final List<TunableGains> s_all = new CopyOnWriteArrayList<>();
+
+    private final TuningVariables[] m_variables;
+    private final Applier m_applier;
+    private final double[] m_gains;
+    private final double[] m_appliedGains;
+    private boolean m_dirty = true;
+
+    private TunableGains(Applier applier, TuningVariables[] variables) {
+        m_variables = variables;
+        m_applier = applier;
+        m_gains = new double[variables.length];
+        m_appliedGains = new double[variables.length];
+        for (int i = 0; i < variables.length; i++) {
+            m_appliedGains[i] = Double.NaN; // never equal, so the first periodic() applies
+            variables[i].addChangeListener(() -> m_dirty = true);
+        }
+    }
+
+    /**
+     * @param applier - sends the gains to the motor controllers
+     * @param variables - numeric TuningVariables holding the gains
+     */
+    public static TunableGains create(Applier applier, TuningVariables... variables) {
+        TunableGains gains = new TunableGains(applier, variables);
+        s_all.add(gains);
+        return gains;
+    }
+
+    /** Called by Robot every loop, right after TuningVariables.periodic() */
+    public static void periodic() {
+        for (int i = 0; i < s_all.size(); i++) {
+            s_all.get(i).applyIfChanged();
+        }
+    }
+
+    private void applyIfChanged() {
+        if (!m_dirty) {
+            return;
+        }
+        m_dirty = false;
+        boolean changed = false;
+        for (int i = 0; i < m_variables.length; i++) {
+            m_gains[i] = m_variables[i].getNumber();
+            changed |= m_gains[i] != m_appliedGains[i];
+        }
+        if (changed) {
+            m_applier.apply(m_gains);
+            System.arraycopy(m_gains, 0, m_appliedGains, 0, m_gains.length);
+        }
+    }
+}
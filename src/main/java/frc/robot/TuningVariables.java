@@ -3,7 +3,18 @@
 
 package frc.robot;
 
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import edu.wpi.first.networktables.NetworkTableEvent;
+import edu.wpi.first.networktables.NetworkTableInstance;
 import edu.wpi.first.wpilibj.Preferences;
+import frc.robot.logging.InputLogger;
+import frc.robot.logging.LogTable;
+import frc.robot.logging.LoggableInputs;
 
 /** These things are like the variables in Constants,
  * but can be set via the Preferences class (e.g.,
@@ -21,6 +32,20 @@ import edu.wpi.first.wpilibj.Preferences;
  * 
  * A current limitation is that the turning variables
  * must be doubles.
+ *
+ * Reading a value is just a field load: each variable keeps its value in a
+ * field, which a NetworkTables listener refreshes when the preference
+ * changes.  New values take effect at the start of the next robot loop
+ * (see periodic()), so a value never changes partway through a loop, and
+ * they are recorded as inputs so log replay sees the same values.  Use
+ * addChangeListener() to react to a change instead of polling for it.
+ *
+ * RobotContainer sets most variables back to their defaults at every boot
+ * (see setStartupDefaults()), so settings left over from testing do not
+ * linger.  Variables marked Keep.kAcrossReboots, the controller gains, are
+ * left alone, so gains tuned from the dashboard are kept.  To go back to the
+ * gains in the code, use the dashboard's "Set All TuningVariables to default
+ * values" button.
  */
 public enum TuningVariables {
     // To add a new value, just enter its name and default value to the following command-separated list
@@ -46,13 +71,112 @@ public enum TuningVariables {
      */
     useArmController(true),
     /**true means to try to use the collector roller */
-    useCollectorRoller(true);
+    useCollectorRoller(true),
+    /** true means to fuse AprilTag poses into the swerve pose estimate.  Only turn this
+     *  on when autos set their starting pose in field coordinates.
+     */
+    useVisionPose(false),
+
+    // Controller gains; see TunableGains.  Changes are sent to the motor controllers right away.
+    /** shoulder Spark MAX velocity loop, in encoder units */
+    shoulderKP(Constants.ShoulderConstants.PID.kP, Keep.kAcrossReboots),
+    shoulderKI(Constants.ShoulderConstants.PID.kI, Keep.kAcrossReboots),
+    shoulderKD(Constants.ShoulderConstants.PID.kD, Keep.kAcrossReboots),
+    shoulderKFeedForward(Constants.ShoulderConstants.PID.kFeedForward, Keep.kAcrossReboots),
+    /** swerve angle TalonFX position loop (Slot0) */
+    swerveAngleKP(Constants.Swerve.angleKP, Keep.kAcrossReboots),
+    swerveAngleKI(Constants.Swerve.angleKI, Keep.kAcrossReboots),
+    swerveAngleKD(Constants.Swerve.angleKD, Keep.kAcrossReboots),
+    /** swerve drive TalonFX velocity loop (Slot0) */
+    swerveDriveKP(Constants.Swerve.driveKP, Keep.kAcrossReboots),
+    swerveDriveKI(Constants.Swerve.driveKI, Keep.kAcrossReboots),
+    swerveDriveKD(Constants.Swerve.driveKD, Keep.kAcrossReboots),
+    /** AimAtAprilTag's rotation speed per radian of error */
+    aimKP(0.1, Keep.kAcrossReboots);
+
+    /** Marks a variable that setStartupDefaults() leaves alone */
+    enum Keep { kAcrossReboots };
 
     private double m_defaultValueNumber;
     private boolean m_defaultValueBoolean;
     private String m_defaultValueString;
     enum Type { kNumber, kBoolean, kString; };
     private Type m_type;
+    private boolean m_keptAcrossReboots = false;
+
+    /* the values code reads; only changed by the robot thread */
+    private volatile double m_valueNumber;
+    private volatile boolean m_valueBoolean;
+    private volatile String m_valueString;
+    /* the latest values from Preferences, written by the NetworkTables listener thread */
+    private volatile double m_pendingNumber;
+    private volatile boolean m_pendingBoolean;
+    private volatile String m_pendingString;
+    /* the values the change listeners were last told about */
+    private double m_reportedNumber;
+    private boolean m_reportedBoolean;
+    private String m_reportedString;
+    private final List<Runnable> m_changeListeners = new CopyOnWriteArrayList<>();
+
+    /* values() makes a new array each call */
+    private static final TuningVariables[] s_all = values();
+    /** set when any pending value changes */
+    private static final AtomicBoolean s_pendingChanged = new AtomicBoolean(false);
+    private static final LoggableInputs s_inputs = new LoggableInputs() {
+        @Override
+        public void toLog(LogTable table) {
+            for (TuningVariables tv : s_all) {
+                switch (tv.m_type) {
+                    case kNumber:
+                        table.put(tv.name(), tv.m_valueNumber);
+                        break;
+                    case kBoolean:
+                        table.put(tv.name(), tv.m_valueBoolean);
+                        break;
+                    case kString:
+                        table.put(tv.name(), tv.m_valueString);
+                        break;
+                }
+            }
+        }
+
+        @Override
+        public void fromLog(LogTable table) {
+            for (TuningVariables tv : s_all) {
+                switch (tv.m_type) {
+                    case kNumber:
+                        tv.m_valueNumber = table.get(tv.name(), tv.m_valueNumber);
+                        break;
+                    case kBoolean:
+                        tv.m_valueBoolean = table.get(tv.name(), tv.m_valueBoolean);
+                        break;
+                    case kString:
+                        tv.m_valueString = table.get(tv.name(), tv.m_valueString);
+                        break;
+                }
+            }
+        }
+    };
+
+    static {
+        for (TuningVariables tv : s_all) {
+            tv.listenForChanges();
+            tv.takeChange();
+        }
+    }
+
+    /**
+     * Record (or, in replay, recall) the values RobotContainer is built with.
+     * Robot calls this on the robot thread before making RobotContainer.  It is
+     * not done when the class loads, because that can happen on the Telemetry
+     * thread (which reads debugLevel), and InputLogger is only for the robot thread.
+     */
+    public static void recordStartupValues(){
+        InputLogger.processInputs("TuningVariables", s_inputs);
+        for (TuningVariables tv : s_all) {
+            tv.takeChange();
+        }
+    }
 
     /** Users cannot call an enum constructor directly;
      * Java will call it for each variable listed above.
@@ -66,6 +190,12 @@ public enum TuningVariables {
         if (!Preferences.containsKey(name())) {
           Preferences.setDouble(name(), m_defaultValueNumber);
         }
+        readPreference();
+        m_valueNumber = m_pendingNumber;
+    }
+    private TuningVariables(double defaultValueNumber, Keep keep){
+        this(defaultValueNumber);
+        m_keptAcrossReboots = true;
     }
     private TuningVariables(boolean defaultValueBoolean){
         m_defaultValueBoolean = defaultValueBoolean;
@@ -73,6 +203,8 @@ public enum TuningVariables {
         if (!Preferences.containsKey(name())){
             Preferences.setBoolean(name(), m_defaultValueBoolean);
         }
+        readPreference();
+        m_valueBoolean = m_pendingBoolean;
     }
     private TuningVariables(String defaultValueString){
         m_defaultValueString = defaultValueString;
@@ -80,6 +212,68 @@ public enum TuningVariables {
         if (!Preferences.containsKey(name())){
             Preferences.setString(name(), m_defaultValueString);
         }
+        readPreference();
+        m_valueString = m_pendingString;
+    }
+    /** Copy the value in Preferences to the pending value */
+    private void readPreference(){
+        switch(m_type){
+            case kNumber:
+                m_pendingNumber = Preferences.getDouble(name(), m_defaultValueNumber);
+                break;
+            case kBoolean:
+                m_pendingBoolean = Preferences.getBoolean(name(), m_defaultValueBoolean);
+                break;
+            case kString:
+                m_pendingString = Preferences.getString(name(), m_defaultValueString);
+                break;
+        }
+    }
+    private void listenForChanges(){
+        NetworkTableInstance nt = NetworkTableInstance.getDefault();
+        nt.addListener(nt.getTable("Preferences").getTopic(name()), EnumSet.of(NetworkTableEvent.Kind.kValueAll),
+            event -> {
+                readPreference();
+                s_pendingChanged.set(true);
+            });
+    }
+    /**
+     * Have listener run whenever this variable's value changes.  It runs on
+     * the robot thread, at the start of the loop after the change.
+     */
+    public void addChangeListener(Runnable listener){
+        m_changeListeners.add(listener);
+    }
+    /**
+     * Called by Robot at the start of every loop: make the latest values from
+     * Preferences the current ones, record them, and tell the change listeners.
+     */
+    public static void periodic(){
+        if (s_pendingChanged.getAndSet(false)) {
+            for (TuningVariables tv : s_all) {
+                tv.m_valueNumber = tv.m_pendingNumber;
+                tv.m_valueBoolean = tv.m_pendingBoolean;
+                tv.m_valueString = tv.m_pendingString;
+            }
+        }
+        InputLogger.processInputs("TuningVariables", s_inputs);
+        for (TuningVariables tv : s_all) {
+            if (tv.takeChange()) {
+                for (Runnable listener : tv.m_changeListeners) {
+                    listener.run();
+                }
+            }
+        }
+    }
+    /** @return true if the value changed since the last call */
+    private boolean takeChange(){
+        boolean changed = m_valueNumber != m_reportedNumber
+            || m_valueBoolean != m_reportedBoolean
+            || !Objects.equals(m_valueString, m_reportedString);
+        m_reportedNumber = m_valueNumber;
+        m_reportedBoolean = m_valueBoolean;
+        m_reportedString = m_valueString;
+        return changed;
     }
     /** From flash memory, get the value of this tuning variable */
     private void checkType(Type type){
@@ -90,17 +284,17 @@ public enum TuningVariables {
     }
     public double getNumber(){
         checkType(Type.kNumber);
-        return Preferences.getDouble(name(), m_defaultValueNumber);
+        return m_valueNumber;
     }
     public boolean getBoolean(){
         checkType(Type.kBoolean);
-        return Preferences.getBoolean(name(), m_defaultValueBoolean);
+        return m_valueBoolean;
     }
     public String getString(){
         checkType(Type.kString);
-        return Preferences.getString(name(), m_defaultValueString);
+        return m_valueString;
     }
-    /** In flash memory, set this tuning variable to a value */
+    /** In flash memory, set this tuning variable to a value.  Takes effect next loop. */
     public void set(double value){
         checkType(Type.kNumber);
         Preferences.setDouble(name(), value);
@@ -133,9 +327,24 @@ public enum TuningVariables {
             tv.setToDefaultValue();
         }
     }
+    /**
+     * In flash memory, set all tuning variables except the ones marked
+     * Keep.kAcrossReboots to their default values.  RobotContainer calls this
+     * at every boot.
+     */
+    public static void setStartupDefaults() {
+        for(TuningVariables tv: s_all) {
+            if (!tv.m_keptAcrossReboots) {
+                tv.setToDefaultValue();
+            }
+        }
+    }
     /** Remove this tuning variable from flash memory */
     public void remove(){
         Preferences.remove(name());
+        // removing a preference does not notify the listener; reads go back to the default
+        readPreference();
+        s_pendingChanged.set(true);
     }
     /** Remove all tuning variables from flash memory */
     public static void removeAllKnown() {
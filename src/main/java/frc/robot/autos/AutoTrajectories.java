@@ -0,0 +1,137 @@
+package frc.robot.autos;
+
+import frc.lib.util.TrajectoryFile;
+import frc.robot.Constants;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.math.trajectory.TrajectoryConfig;
+import edu.wpi.first.math.trajectory.TrajectoryGenerator;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+
+/**
+ * The autos' trajectories, defined by their waypoints.  Generating a trajectory
+ * (parameterizing its splines) is slow on the roboRIO, so the Gradle task
+ * "generateTrajectories" runs main() on the build machine to write each one to
+ * src/main/deploy/trajectories, and the autos load() the deployed files.  The
+ * task runs before every build, so the files always match these waypoints and
+ * Constants.AutoConstants.
+ *
+ * The second paths of the amp autos used to start from the robot's pose when the
+ * auto was made, which was always the origin since the autos were made at startup;
+ * they start from the origin here too.
+ *
+ * If a file is missing (e.g., after adding a trajectory without building),
+ * load() generates the trajectory instead, with a warning.
+ */
+public final class AutoTrajectories {
+    public static final String kPark = "park";
+    public static final String kCenterSpeakerScore2 = "centerSpeakerScore2";
+    public static final String kRedAmpToIntake = "redAmpToIntake";
+    public static final String kRedIntakeToNote = "redIntakeToNote";
+    public static final String kBlueAmpToIntake = "blueAmpToIntake";
+    public static final String kBlueIntakeToNote = "blueIntakeToNote";
+    public static final String kComp = "comp";
+    private static final String[] kNames = {
+        kPark, kCenterSpeakerScore2, kRedAmpToIntake, kRedIntakeToNote, kBlueAmpToIntake, kBlueIntakeToNote, kComp
+    };
+
+    /** the deploy directory's subdirectory with the trajectory files */
+    private static final String kDirectory = "trajectories";
+    private static final String kExtension = ".traj";
+
+    private AutoTrajectories() {}
+
+    /** @param name - one of the k names above */
+    public static Trajectory load(String name) {
+        Path path = Filesystem.getDeployDirectory().toPath().resolve(kDirectory).resolve(name + kExtension);
+        try {
+            return TrajectoryFile.read(path);
+        } catch (IOException e) {
+            DriverStation.reportWarning("Could not load " + path + " (" + e.getMessage() + "); generating it", false);
+            return generate(name);
+        }
+    }
+
+    /**
+     * Write every trajectory to the directory given as the only argument.
+     * Run by the Gradle task; does not use the HAL.
+     */
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get(args[0]);
+        for (String name : kNames) {
+            Trajectory trajectory = generate(name);
+            TrajectoryFile.write(directory.resolve(name + kExtension), trajectory);
+            System.out.println("Wrote " + name + kExtension + ": " + trajectory.getStates().size() + " samples, "
+                + trajectory.getTotalTimeSeconds() + " s");
+        }
+    }
+
+    private static Trajectory generate(String name) {
+        switch (name) {
+            case kPark:
+                return generate(
+                    pose(0.0, 0.0, 0.0),
+                    List.of(translation(1.5, 0.05)),
+                    pose(3.0, 0.0, 0.0));
+            case kCenterSpeakerScore2:
+                return generate(
+                    pose(0.5, 3.0, 180.0),
+                    List.of(translation(5.0, 0.25), translation(8.5, 0.25), translation(9.5, 3.0)),
+                    pose(0.0, 3.0, 180.0));
+            case kRedAmpToIntake:
+                return generate(
+                    pose(0.0, 0.0, 270.0),
+                    List.of(translation(1.0, 0.25)),
+                    pose(2.0, 0.0, 270.0));
+            case kRedIntakeToNote:
+                return generate(
+                    new Pose2d(),
+                    List.of(translation(2.0, 2.5)),
+                    pose(5.0, 2.5, 0.0));
+            case kBlueAmpToIntake:
+                return generate(
+                    pose(0.0, 3.0, 90.0),
+                    List.of(translation(1.0, 2.75)),
+                    pose(2.0, 3.0, 90.0));
+            case kBlueIntakeToNote:
+                return generate(
+                    new Pose2d(),
+                    List.of(translation(2.0, 0.5)),
+                    pose(5.0, 0.5, 0.0));
+            case kComp:
+                return generate(
+                    pose(0.0, 0.0, 180.0 + 60.0),
+                    List.of(translation(2.0, 2.0)),
+                    pose(10.0, 4.0, 0.0));
+            default:
+                throw new IllegalArgumentException("No trajectory named " + name);
+        }
+    }
+
+    private static Trajectory generate(Pose2d start, List<Translation2d> interiorWaypoints, Pose2d end) {
+        TrajectoryConfig config =
+            new TrajectoryConfig(
+                    Constants.AutoConstants.kMaxSpeedMetersPerSecond,
+                    Constants.AutoConstants.kMaxAccelerationMetersPerSecondSquared)
+                .setKinematics(Constants.Swerve.swerveKinematics);
+        return TrajectoryGenerator.generateTrajectory(start, interiorWaypoints, end, config);
+    }
+
+    private static Pose2d pose(double xFeet, double yFeet, double degrees) {
+        return new Pose2d(Units.feetToMeters(xFeet), Units.feetToMeters(yFeet), new Rotation2d(Units.degreesToRadians(degrees)));
+    }
+
+    private static Translation2d translation(double xFeet, double yFeet) {
+        return new Translation2d(Units.feetToMeters(xFeet), Units.feetToMeters(yFeet));
+    }
+}
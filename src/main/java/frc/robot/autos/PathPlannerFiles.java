@@ -0,0 +1,121 @@
+package frc.robot.autos;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.pathplanner.lib.commands.PathPlannerAuto;
+import com.pathplanner.lib.path.PathPlannerPath;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj2.command.Command;
+
+/**
+ * Every PathPlanner path and auto in the deploy directory, loaded while the
+ * robot is disabled.  Reading and parsing a file, and generating a path's
+ * points, are too slow for the start of autonomous, so disabledPeriodic()
+ * loads one file per loop until all are loaded; a file that will not load is
+ * reported then, not when autonomous starts.  An auto loads its own copies of
+ * its paths (PathPlannerAuto reads them by name), so the paths are loaded for
+ * whoever follows them directly, e.g. with AutoBuilder.followPath().
+ *
+ * Autos are only loaded if AutoBuilder is configured (there is a drivetrain),
+ * after the named commands are registered, since an auto looks them up as it
+ * is made.  The loading is done on the main robot thread, because making an
+ * auto composes commands, which registers them with the CommandScheduler.
+ */
+public class PathPlannerFiles {
+    private static final String kPathExtension = ".path";
+    private static final String kAutoExtension = ".auto";
+
+    private final boolean m_loadAutos;
+    private final Deque<String> m_pathsToLoad = new ArrayDeque<>();
+    private final Deque<String> m_autosToLoad = new ArrayDeque<>();
+    /* null for a file that would not load */
+    private final Map<String, PathPlannerPath> m_paths = new HashMap<>();
+    private final Map<String, Command> m_autos = new HashMap<>();
+
+    /**
+     * Find the files; they are loaded later
+     * @param loadAutos - false if AutoBuilder is not configured
+     */
+    public PathPlannerFiles(boolean loadAutos) {
+        m_loadAutos = loadAutos;
+        File directory = new File(Filesystem.getDeployDirectory(), "pathplanner");
+        m_pathsToLoad.addAll(Arrays.asList(names(new File(directory, "paths"), kPathExtension)));
+        if (loadAutos) {
+            m_autosToLoad.addAll(Arrays.asList(names(new File(directory, "autos"), kAutoExtension)));
+        }
+    }
+
+    /** @return the names of the files in directory with the extension, without it, in order */
+    private static String[] names(File directory, String extension) {
+        String[] files = directory.list((dir, name) -> name.endsWith(extension));
+        if (files == null) {
+            return new String[0];
+        }
+        Arrays.sort(files);
+        for (int i = 0; i < files.length; i++) {
+            files[i] = files[i].substring(0, files[i].length() - extension.length());
+        }
+        return files;
+    }
+
+    /** Call every loop while disabled; loads at most one file */
+    public void disabledPeriodic() {
+        if (!m_pathsToLoad.isEmpty()) {
+            loadPath(m_pathsToLoad.removeFirst());
+        } else if (!m_autosToLoad.isEmpty()) {
+            loadAuto(m_autosToLoad.removeFirst());
+        }
+    }
+
+    /** @return the path named pathName, loading it now if that has not been done; null if it will not load */
+    public PathPlannerPath getPath(String pathName) {
+        if (!m_paths.containsKey(pathName)) {
+            m_pathsToLoad.remove(pathName);
+            loadPath(pathName);
+        }
+        return m_paths.get(pathName);
+    }
+
+    /**
+     * @return the auto named autoName, loading it now if that has not been done;
+     * null if it will not load or autos are not loaded.  The same command is
+     * returned every time, so schedule it rather than composing it.
+     */
+    public Command getAuto(String autoName) {
+        if (!m_loadAutos) {
+            return null;
+        }
+        if (!m_autos.containsKey(autoName)) {
+            m_autosToLoad.remove(autoName);
+            loadAuto(autoName);
+        }
+        return m_autos.get(autoName);
+    }
+
+    private void loadPath(String pathName) {
+        PathPlannerPath path = null;
+        try {
+            path = PathPlannerPath.fromPathFile(pathName);
+        } catch (RuntimeException e) {
+            DriverStation.reportError("Could not load PathPlanner path " + pathName + ": " + e.getMessage(), false);
+        }
+        m_paths.put(pathName, path);
+    }
+
+    private void loadAuto(String autoName) {
+        Command auto = null;
+        try {
+            auto = new PathPlannerAuto(autoName);
+        } catch (RuntimeException e) {
+            DriverStation.reportError("Could not load PathPlanner auto " + autoName + ": " + e.getMessage(), false);
+        }
+        m_autos.put(autoName, auto);
+    }
+}
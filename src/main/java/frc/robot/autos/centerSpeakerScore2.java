@@ -10,17 +10,9 @@ import frc.robot.subsystems.BeamBreakSensor;
 import frc.robot.subsystems.CollectorRoller;
 import frc.robot.subsystems.Shooter2;
 
-import java.util.List;
-
 import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.controller.ProfiledPIDController;
-import edu.wpi.first.math.geometry.Pose2d;
-import edu.wpi.first.math.geometry.Rotation2d;
-import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.trajectory.Trajectory;
-import edu.wpi.first.math.trajectory.TrajectoryConfig;
-import edu.wpi.first.math.trajectory.TrajectoryGenerator;
-import edu.wpi.first.math.util.Units;
 import edu.wpi.first.wpilibj2.command.InstantCommand;
 import edu.wpi.first.wpilibj2.command.ParallelCommandGroup;
 import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
@@ -43,11 +35,6 @@ public class centerSpeakerScore2 extends SequentialCommandGroup {
         m_beamBreakSensor = beamBreakSensor;
         addRequirements(s_Swerve, m_shoulder, m_wrist2, m_shooter2, m_collectorRoller, m_beamBreakSensor);
 
-        TrajectoryConfig config =
-            new TrajectoryConfig(
-                    Constants.AutoConstants.kMaxSpeedMetersPerSecond,
-                    Constants.AutoConstants.kMaxAccelerationMetersPerSecondSquared)
-                .setKinematics(Constants.Swerve.swerveKinematics);
         
         var thetaController =
             new ProfiledPIDController(
@@ -56,18 +43,7 @@ public class centerSpeakerScore2 extends SequentialCommandGroup {
 
 
 
-        Trajectory firstPathTrajectory =
-            TrajectoryGenerator.generateTrajectory(
-                // Start at the origin facing the +X direction
-                new Pose2d(Units.feetToMeters(0.5), Units.feetToMeters(3.0), new Rotation2d(Units.degreesToRadians(180))),
-                //Must change 'Y' value by at least 0.02 somewhere in the sequence
-                List.of(
-                     new Translation2d(Units.feetToMeters(5.0), Units.feetToMeters(0.25)),
-                     new Translation2d(Units.feetToMeters(8.5), Units.feetToMeters(0.25)),
-                     new Translation2d(Units.feetToMeters(9.5), Units.feetToMeters(3.0))
-                    ),
-                new Pose2d(Units.feetToMeters(0.0), Units.feetToMeters(3.0), new Rotation2d(Units.degreesToRadians(180))),
-                config);
+        Trajectory firstPathTrajectory = AutoTrajectories.load(AutoTrajectories.kCenterSpeakerScore2);
 
         SwerveControllerCommand firstPathCommand =
             new SwerveControllerCommand(
@@ -3,17 +3,9 @@ package frc.robot.autos;
 import frc.robot.Constants;
 import frc.robot.subsystems.Swerve;
 
-import java.util.List;
-
 import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.controller.ProfiledPIDController;
-import edu.wpi.first.math.geometry.Pose2d;
-import edu.wpi.first.math.geometry.Rotation2d;
-import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.trajectory.Trajectory;
-import edu.wpi.first.math.trajectory.TrajectoryConfig;
-import edu.wpi.first.math.trajectory.TrajectoryGenerator;
-import edu.wpi.first.math.util.Units;
 import edu.wpi.first.wpilibj2.command.InstantCommand;
 import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
 import edu.wpi.first.wpilibj2.command.SwerveControllerCommand;
@@ -24,11 +16,6 @@ public class parkAuto extends SequentialCommandGroup {
         s_Swerve = swerve;
         addRequirements(s_Swerve);
 
-        TrajectoryConfig config =
-            new TrajectoryConfig(
-                    Constants.AutoConstants.kMaxSpeedMetersPerSecond,
-                    Constants.AutoConstants.kMaxAccelerationMetersPerSecondSquared)
-                .setKinematics(Constants.Swerve.swerveKinematics);
         
         var thetaController =
             new ProfiledPIDController(
@@ -37,16 +24,7 @@ public class parkAuto extends SequentialCommandGroup {
 
 
 
-        Trajectory firstPathTrajectory =
-            TrajectoryGenerator.generateTrajectory(
-                // Start at the origin facing the +X direction
-                new Pose2d(Units.feetToMeters(0), Units.feetToMeters(0), new Rotation2d(Units.degreesToRadians(0))),
-                //Must change 'Y' value by at least 0.02 somewhere in the sequence
-                List.of(
-                     new Translation2d(Units.feetToMeters(1.5), Units.feetToMeters(0.05))
-                    ),
-                new Pose2d(Units.feetToMeters(3.0), Units.feetToMeters(0.0), new Rotation2d(Units.degreesToRadians(0))),
-                config);
+        Trajectory firstPathTrajectory = AutoTrajectories.load(AutoTrajectories.kPark);
 
         SwerveControllerCommand firstPathCommand =
             new SwerveControllerCommand(
@@ -4,17 +4,14 @@
 
 package frc.robot.commands;
 
-import org.photonvision.targeting.PhotonTrackedTarget;
-
 import edu.wpi.first.math.Vector;
-import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.numbers.N2;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
-import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.TuningVariables;
 import frc.robot.subsystems.Swerve;
 import frc.robot.subsystems.Vision;
 
-public class AimAtAprilTag extends Command {
+public class AimAtAprilTag extends ProfiledCommand {
    Vision m_Vision;
    Swerve m_Swerve;
    double m_TargetYawDegrees;
@@ -32,9 +29,7 @@ public class AimAtAprilTag extends Command {
     m_AllowableErrorDegrees = allowableErrorDegrees;
     m_IsTargetVisible = false;
     m_WasTargetVisible = false; 
-    m_kP = 0.1;
     m_id = id;
-    SmartDashboard.putNumber("Aim kP", m_kP);
     // Use addRequirements() here to declare subsystem dependencies.
     addRequirements(vision, swerve);
   }
@@ -47,13 +42,8 @@ public class AimAtAprilTag extends Command {
 
   private void updateYaw() {
 
-    PhotonTrackedTarget target = m_Vision.getAprilTag(m_id);
-    m_IsTargetVisible = target != null;
-    if (m_IsTargetVisible) {
-      m_CurrentYawDegrees = m_Vision.getYaw(target);
-    } else {
-      m_CurrentYawDegrees = 0;
-    }
+    m_IsTargetVisible = m_Vision.hasAprilTag(m_id);
+    m_CurrentYawDegrees = m_Vision.getAprilTagYaw(m_id);
   }
   // Called every time the scheduler runs while the command is scheduled.
   @Override
@@ -64,25 +54,25 @@ public class AimAtAprilTag extends Command {
       double errorDegreesCW = (m_CurrentYawDegrees - m_TargetYawDegrees);
       double errorRadiansCCW = -errorDegreesCW * 2.0 * Math.PI / 360.0;
       //If positive, rotate clockwise. If negative, rotate counterclockwise
-      m_kP = SmartDashboard.getNumber("Aim kP", m_kP);
+      m_kP = TuningVariables.aimKP.getNumber();
       double rotationSpeedRadiansPerSecondCCW = errorRadiansCCW * m_kP;
       SmartDashboard.putNumber("rotation speed radians per second CCW", rotationSpeedRadiansPerSecondCCW);
-      m_Swerve.drive(new Translation2d(0.0, 0.0),  rotationSpeedRadiansPerSecondCCW, false, false);
+      m_Swerve.drive(0.0, 0.0,  rotationSpeedRadiansPerSecondCCW, false, false);
     } else {
       double searchSpeedRadiansPerSecondCCW = 4.0;
-      m_Swerve.drive(new Translation2d(0.0, 0.0), searchSpeedRadiansPerSecondCCW, false, false);
+      m_Swerve.drive(0.0, 0.0, searchSpeedRadiansPerSecondCCW, false, false);
     }
   }
 
   // Called once the command ends or is interrupted.
   @Override
   public void end(boolean interrupted) {
-    m_Swerve.drive(new Translation2d(0.0, 0.0), 0.0, false, false);
+    m_Swerve.drive(0.0, 0.0, 0.0, false, false);
   }
 
   // Returns true when the command should end.
   @Override
-  public boolean isFinished() {
+  protected boolean profiledIsFinished() {
     updateYaw();
     if (m_IsTargetVisible) {
       double error = (m_CurrentYawDegrees - m_TargetYawDegrees);
@@ -4,12 +4,11 @@
 
 package frc.robot.commands;
 
-import edu.wpi.first.wpilibj2.command.Command;
 import frc.robot.subsystems.CollectorRoller;
 import frc.robot.subsystems.BeamBreakSensor;
 import frc.robot.subsystems.Shooter;
 
-public class IntakeUntilBeamBreak extends Command {
+public class IntakeUntilBeamBreak extends ProfiledCommand {
   private CollectorRoller m_CollectorRoller;
   private BeamBreakSensor m_BeamBreakSensor;
   private Shooter m_Shooter;
@@ -46,7 +45,7 @@ public class IntakeUntilBeamBreak extends Command {
 
   // Returns true when the command should end.
   @Override
-  public boolean isFinished() {
+  protected boolean profiledIsFinished() {
     return m_BeamBreakSensor.noteIsInShooter();
   }
 }
@@ -4,10 +4,9 @@
 
 package frc.robot.commands;
 
-import edu.wpi.first.wpilibj2.command.Command;
 import frc.robot.subsystems.Shoulder;
 
-public class MoveShoulderToUsingSmartMotion extends Command {
+public class MoveShoulderToUsingSmartMotion extends ProfiledCommand {
   private Shoulder m_shoulder;
   private double m_desiredPosition;
   private double m_maxSpeed;
@@ -48,7 +47,7 @@ public class MoveShoulderToUsingSmartMotion extends Command {
 
   // Returns true when the command should end.
   @Override
-  public boolean isFinished() {
+  protected boolean profiledIsFinished() {
     return false;
   }
 }
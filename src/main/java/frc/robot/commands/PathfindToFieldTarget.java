@@ -0,0 +1,73 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.commands;
+
+import java.util.Set;
+
+import com.pathplanner.lib.auto.AutoBuilder;
+import com.pathplanner.lib.path.PathConstraints;
+import com.pathplanner.lib.util.GeometryUtil;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
+import edu.wpi.first.wpilibj2.command.DeferredCommand;
+import frc.robot.Constants;
+import frc.robot.subsystems.Swerve;
+
+/**
+ * Drives from wherever the robot is to a field target (e.g., the amp), around the
+ * field's obstacles.  The route is planned by PathPlanner's pathfinder, which Robot
+ * starts in robotInit; it runs on its own thread over the deployed navgrid.json and
+ * replans incrementally when the goal or the obstacles change, so planning never
+ * holds up the robot loop.  The path is followed by the holonomic follower that
+ * Swerve configured AutoBuilder with.  The pathfinding command is made each time
+ * this starts, since the target's pose depends on the alliance.  Bind it with
+ * whileTrue(), so letting go of the button gives the driver control back.
+ *
+ * The targets are in field coordinates, so until Swerve's pose is too (see
+ * Swerve.isPoseOnField()), this ends at once with a warning.
+ */
+public class PathfindToFieldTarget extends DeferredCommand {
+  public static enum Target {
+    kAmp(Constants.PathfindingConstants.ampPose),
+    kSpeaker(Constants.PathfindingConstants.speakerPose),
+    kSource(Constants.PathfindingConstants.sourcePose);
+
+    /** for the blue alliance */
+    private final Pose2d m_bluePose;
+
+    private Target(Pose2d bluePose) {
+      m_bluePose = bluePose;
+    }
+  }
+
+  private static final PathConstraints kConstraints = new PathConstraints(
+      Constants.PathfindingConstants.maxSpeed,
+      Constants.PathfindingConstants.maxAcceleration,
+      Constants.PathfindingConstants.maxAngularVelocity,
+      Constants.PathfindingConstants.maxAngularAcceleration);
+
+  public PathfindToFieldTarget(Swerve swerve, Target target) {
+    super(() -> makeCommand(swerve, target), Set.of(swerve));
+  }
+
+  private static Command makeCommand(Swerve swerve, Target target) {
+    if (!swerve.isPoseOnField()) {
+      DriverStation.reportWarning("Not pathfinding to " + target + ": the robot's field position is unknown"
+          + " (run a PathPlanner auto, or enable useVisionPose and let the camera see a tag)", false);
+      return Commands.none();
+    }
+    return AutoBuilder.pathfindToPose(getGoal(target), kConstraints, 0.0);
+  }
+
+  private static Pose2d getGoal(Target target) {
+    if (DriverStation.getAlliance().orElse(DriverStation.Alliance.Blue) == DriverStation.Alliance.Red) {
+      return GeometryUtil.flipFieldPose(target.m_bluePose);
+    }
+    return target.m_bluePose;
+  }
+}
@@ -0,0 +1,37 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.commands;
+
+import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.LoopProfiler;
+
+/**
+ * A command whose isFinished() is timed by LoopProfiler, as "Name.isFinished()",
+ * rather than counted in the next command's execute() time.  Commands override
+ * profiledIsFinished() instead of isFinished().
+ */
+public abstract class ProfiledCommand extends Command {
+  /* made on the first isFinished(), so it has the name withName() or setName() gave */
+  private LoopProfiler.Section m_isFinishedSection = null;
+
+  @Override
+  public final boolean isFinished() {
+    if (m_isFinishedSection == null) {
+      m_isFinishedSection = LoopProfiler.addSection(getName() + ".isFinished()");
+    }
+    m_isFinishedSection.start();
+    try {
+      return profiledIsFinished();
+    } finally {
+      m_isFinishedSection.stop();
+      LoopProfiler.onIsFinished(this);
+    }
+  }
+
+  /** @return true when the command should end */
+  protected boolean profiledIsFinished() {
+    return false;
+  }
+}
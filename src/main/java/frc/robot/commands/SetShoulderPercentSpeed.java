@@ -4,11 +4,10 @@
 
 package frc.robot.commands;
 
-import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.button.Trigger;
 import frc.robot.subsystems.Shoulder;
 
-public class SetShoulderPercentSpeed extends Command {
+public class SetShoulderPercentSpeed extends ProfiledCommand {
   private Shoulder m_shoulder;
   private double m_percentSpeed;
   private Trigger m_overrideSoftLimitsTrigger;
@@ -75,7 +74,7 @@ public class SetShoulderPercentSpeed extends Command {
 
   // Returns true when the command should end.
   @Override
-  public boolean isFinished() {
+  protected boolean profiledIsFinished() {
     return false;
   }
 }
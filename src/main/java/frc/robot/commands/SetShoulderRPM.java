@@ -4,11 +4,10 @@
 
 package frc.robot.commands;
 
-import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.button.Trigger;
 import frc.robot.subsystems.Shoulder;
 
-public class SetShoulderRPM extends Command {
+public class SetShoulderRPM extends ProfiledCommand {
   private Shoulder m_shoulder;
   private double m_RPM;
   Trigger m_overrideSoftLimitsTrigger;
@@ -68,7 +67,7 @@ public class SetShoulderRPM extends Command {
 
   // Returns true when the command should end.
   @Override
-  public boolean isFinished() {
+  protected boolean profiledIsFinished() {
     return false;
   }
 }
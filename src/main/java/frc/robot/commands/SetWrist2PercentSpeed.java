@@ -4,11 +4,10 @@
 
 package frc.robot.commands;
 
-import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.button.Trigger;
 import frc.robot.subsystems.Wrist2;
 
-public class SetWrist2PercentSpeed extends Command {
+public class SetWrist2PercentSpeed extends ProfiledCommand {
   private Wrist2 m_wrist2;
   private double m_percentSpeed;
   private Trigger m_overrideSoftLimitsTrigger;
@@ -64,7 +63,7 @@ public class SetWrist2PercentSpeed extends Command {
 
   // Returns true when the command should end.
   @Override
-  public boolean isFinished() {
+  protected boolean profiledIsFinished() {
     return false;
   }
 }
@@ -4,14 +4,13 @@
 
 package frc.robot.commands;
 
-import edu.wpi.first.wpilibj2.command.Command;
 import frc.robot.subsystems.Shooter;
 /**
  * Command to take a shot, either at given RPM or at full power.
  * This command will never finish: you need to interrupt it when binding
  * it to a trigger.
  */
-public class Shoot extends Command {
+public class Shoot extends ProfiledCommand {
   private Shooter m_shooter;
   private double m_RPM;
   private boolean m_fullBlast = false;
@@ -57,7 +56,7 @@ public class Shoot extends Command {
 
   // Returns true when the command should end.
   @Override
-  public boolean isFinished() {
+  protected boolean profiledIsFinished() {
     return false;
   }
 }
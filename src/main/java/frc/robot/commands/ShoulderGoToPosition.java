@@ -4,10 +4,9 @@
 
 package frc.robot.commands;
 
-import edu.wpi.first.wpilibj2.command.Command;
 import frc.robot.subsystems.Shoulder;
 
-public class ShoulderGoToPosition extends Command {
+public class ShoulderGoToPosition extends ProfiledCommand {
   public static enum Method {
     kRPM,
     kPercentSpeed
@@ -67,7 +66,7 @@ public class ShoulderGoToPosition extends Command {
 
   // Returns true when the command should end.
   @Override
-  public boolean isFinished() {
+  protected boolean profiledIsFinished() {
     boolean finished = m_speed >= 0
       ? m_shoulder.getPosition() >= m_desiredPosition
       : m_shoulder.getPosition() <= m_desiredPosition;
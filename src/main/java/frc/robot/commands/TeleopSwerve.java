@@ -7,7 +7,6 @@ import java.util.function.BooleanSupplier;
 import java.util.function.DoubleSupplier;
 
 import edu.wpi.first.math.MathUtil;
-import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.wpilibj2.command.Command;
 
 
@@ -43,10 +42,12 @@ public class TeleopSwerve extends Command {
         strafeVal = signedPower(strafeVal, 1.0);
         rotationVal = signedPower(rotationVal, 1.0);
 
-        /* Drive */
+        /* Drive, slower while a brownout is predicted */
+        double speedScale = s_Swerve.getTeleopSpeedScale();
         s_Swerve.drive(
-            new Translation2d(translationVal, strafeVal).times(Constants.Swerve.maxSpeed), 
-            rotationVal * Constants.Swerve.maxAngularVelocity, 
+            translationVal * Constants.Swerve.maxSpeed * speedScale,
+            strafeVal * Constants.Swerve.maxSpeed * speedScale,
+            rotationVal * Constants.Swerve.maxAngularVelocity * speedScale, 
             !robotCentricSup.getAsBoolean(), 
             true
         );
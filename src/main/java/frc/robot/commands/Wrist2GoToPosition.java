@@ -4,13 +4,12 @@
 
 package frc.robot.commands;
 
-import edu.wpi.first.wpilibj2.command.Command;
 import frc.robot.subsystems.Wrist2;
 /**
  * Move wrist to desired position (rotations counterclockwise from zero,
  * when looking at robot from its right).
  */
-public class Wrist2GoToPosition extends Command {
+public class Wrist2GoToPosition extends ProfiledCommand {
   private Wrist2 m_wrist2;
   private double m_percentSpeed;
   private double m_absoluteValuePercentSpeed;
@@ -46,7 +45,7 @@ public class Wrist2GoToPosition extends Command {
 
   // Returns true when the command should end.
   @Override
-  public boolean isFinished() {
+  protected boolean profiledIsFinished() {
     boolean finished = m_percentSpeed >= 0
       ? m_wrist2.getPosition() >= m_desiredPosition
       : m_wrist2.getPosition() <= m_desiredPosition;
@@ -0,0 +1,128 @@
+package frc.robot.logging;
+
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+
+/**
+ * The driver station state and joysticks the robot code saw in one loop, so
+ * replay can feed the commands the same buttons and sticks.
+ */
+class DriverStationInputs implements LoggableInputs {
+    private static final double[] kNone = new double[0];
+    private boolean m_enabled;
+    private boolean m_autonomous;
+    private boolean m_test;
+    private boolean m_eStop;
+    private boolean m_fmsAttached;
+    private boolean m_dsAttached;
+    private long m_allianceStation;
+    private double m_matchTime;
+    private final double[][] m_axes = new double[DriverStation.kJoystickPorts][];
+    private final long[] m_buttons = new long[DriverStation.kJoystickPorts];
+    private final long[] m_buttonCounts = new long[DriverStation.kJoystickPorts];
+    private final double[][] m_povs = new double[DriverStation.kJoystickPorts][];
+    private final String[] m_keys = new String[DriverStation.kJoystickPorts * 4];
+
+    DriverStationInputs() {
+        for (int port = 0; port < DriverStation.kJoystickPorts; port++) {
+            m_axes[port] = kNone;
+            m_povs[port] = kNone;
+            m_keys[port * 4] = "Joystick" + port + "/Axes";
+            m_keys[port * 4 + 1] = "Joystick" + port + "/Buttons";
+            m_keys[port * 4 + 2] = "Joystick" + port + "/ButtonCount";
+            m_keys[port * 4 + 3] = "Joystick" + port + "/POVs";
+        }
+    }
+
+    /** Read the (already refreshed) DriverStation data */
+    void update() {
+        m_enabled = DriverStation.isEnabled();
+        m_autonomous = DriverStation.isAutonomous();
+        m_test = DriverStation.isTest();
+        m_eStop = DriverStation.isEStopped();
+        m_fmsAttached = DriverStation.isFMSAttached();
+        m_dsAttached = DriverStation.isDSAttached();
+        m_allianceStation = DriverStation.getRawAllianceStation().ordinal();
+        m_matchTime = DriverStation.getMatchTime();
+        for (int port = 0; port < DriverStation.kJoystickPorts; port++) {
+            int axisCount = DriverStation.getStickAxisCount(port);
+            if (m_axes[port].length != axisCount) {
+                m_axes[port] = new double[axisCount];
+            }
+            for (int axis = 0; axis < axisCount; axis++) {
+                m_axes[port][axis] = DriverStation.getStickAxis(port, axis);
+            }
+            m_buttons[port] = DriverStation.getStickButtons(port);
+            m_buttonCounts[port] = DriverStation.getStickButtonCount(port);
+            int povCount = DriverStation.getStickPOVCount(port);
+            if (m_povs[port].length != povCount) {
+                m_povs[port] = new double[povCount];
+            }
+            for (int pov = 0; pov < povCount; pov++) {
+                m_povs[port][pov] = DriverStation.getStickPOV(port, pov);
+            }
+        }
+    }
+
+    /** Make the simulated driver station report these values */
+    void applyToSimulation() {
+        DriverStationSim.setEnabled(m_enabled);
+        DriverStationSim.setAutonomous(m_autonomous);
+        DriverStationSim.setTest(m_test);
+        DriverStationSim.setEStop(m_eStop);
+        DriverStationSim.setFmsAttached(m_fmsAttached);
+        DriverStationSim.setDsAttached(m_dsAttached);
+        DriverStationSim.setAllianceStationId(AllianceStationID.values()[(int) m_allianceStation]);
+        DriverStationSim.setMatchTime(m_matchTime);
+        for (int port = 0; port < DriverStation.kJoystickPorts; port++) {
+            DriverStationSim.setJoystickAxisCount(port, m_axes[port].length);
+            for (int axis = 0; axis < m_axes[port].length; axis++) {
+                DriverStationSim.setJoystickAxis(port, axis, m_axes[port][axis]);
+            }
+            DriverStationSim.setJoystickButtonCount(port, (int) m_buttonCounts[port]);
+            DriverStationSim.setJoystickButtons(port, (int) m_buttons[port]);
+            DriverStationSim.setJoystickPOVCount(port, m_povs[port].length);
+            for (int pov = 0; pov < m_povs[port].length; pov++) {
+                DriverStationSim.setJoystickPOV(port, pov, (int) m_povs[port][pov]);
+            }
+        }
+        DriverStationSim.notifyNewData();
+    }
+
+    @Override
+    public void toLog(LogTable table) {
+        table.put("Enabled", m_enabled);
+        table.put("Autonomous", m_autonomous);
+        table.put("Test", m_test);
+        table.put("EStop", m_eStop);
+        table.put("FMSAttached", m_fmsAttached);
+        table.put("DSAttached", m_dsAttached);
+        table.put("AllianceStation", m_allianceStation);
+        table.put("MatchTime", m_matchTime);
+        for (int port = 0; port < DriverStation.kJoystickPorts; port++) {
+            table.put(m_keys[port * 4], m_axes[port]);
+            table.put(m_keys[port * 4 + 1], m_buttons[port]);
+            table.put(m_keys[port * 4 + 2], m_buttonCounts[port]);
+            table.put(m_keys[port * 4 + 3], m_povs[port]);
+        }
+    }
+
+    @Override
+    public void fromLog(LogTable table) {
+        m_enabled = table.get("Enabled", false);
+        m_autonomous = table.get("Autonomous", false);
+        m_test = table.get("Test", false);
+        m_eStop = table.get("EStop", false);
+        m_fmsAttached = table.get("FMSAttached", false);
+        m_dsAttached = table.get("DSAttached", false);
+        m_allianceStation = table.get("AllianceStation", (long) AllianceStationID.Red1.ordinal());
+        m_matchTime = table.get("MatchTime", -1.0);
+        for (int port = 0; port < DriverStation.kJoystickPorts; port++) {
+            m_axes[port] = table.get(m_keys[port * 4], kNone);
+            m_buttons[port] = table.get(m_keys[port * 4 + 1], 0L);
+            m_buttonCounts[port] = table.get(m_keys[port * 4 + 2], 0L);
+            m_povs[port] = table.get(m_keys[port * 4 + 3], kNone);
+        }
+    }
+}
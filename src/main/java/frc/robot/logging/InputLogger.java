@@ -0,0 +1,137 @@
+package frc.robot.logging;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.wpi.first.util.datalog.IntegerLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+
+/**
+ * Records every hardware input once per loop, and can play a recording back.
+ *
+ * On the robot (kReal) and in simulation (kSim), each IO layer's inputs are
+ * written to the DataLog under "Inputs/", all stamped with the time the loop
+ * started.  To replay a match, run the simulator with the environment variable
+ * REPLAY_LOG set to the recorded .wpilog (kReplay).  Robot then runs one loop
+ * per recorded loop, as fast as it can, with the clock, the driver station
+ * and every IO layer's inputs set to what they were in the match.  The IO
+ * layers do nothing in replay, so the same Swerve, command and subsystem code
+ * runs on exactly the same data, and its outputs land in a new log that can
+ * be compared with the match.
+ */
+public final class InputLogger {
+    public enum Mode { kReal, kSim, kReplay }
+
+    static final String kPrefix = "Inputs/";
+    static final String kCycleTimestampEntry = kPrefix + "CycleTimestamp";
+    private static final String kReplayLogVariable = "REPLAY_LOG";
+
+    private static final Mode s_mode;
+    private static final Map<String, LogTable> s_tables = new HashMap<>();
+    private static final DriverStationInputs s_driverStationInputs = new DriverStationInputs();
+    private static ReplaySource s_replaySource = null;
+    private static IntegerLogEntry s_cycleTimestampEntry = null;
+    private static int s_replayCycle = -1;
+    /**
+     * FPGA microseconds at the start of this loop.  Until the first loop it is
+     * 1, not 0: DataLog treats a timestamp of 0 as "now", and inputs read in
+     * constructors must be found at the same time again in replay.
+     */
+    private static long s_cycleTimestamp = 1;
+
+    static {
+        String replayLog = System.getenv(kReplayLogVariable);
+        if (RobotBase.isReal()) {
+            s_mode = Mode.kReal;
+        } else if (replayLog != null && !replayLog.isEmpty()) {
+            s_mode = Mode.kReplay;
+            try {
+                s_replaySource = new ReplaySource(replayLog);
+            } catch (IOException e) {
+                throw new Error("Cannot replay " + replayLog + ": " + e.getMessage());
+            }
+            System.out.println("Replaying " + s_replaySource.getCycleTimestamps().length + " loops from " + replayLog);
+        } else {
+            s_mode = Mode.kSim;
+        }
+    }
+
+    private InputLogger() {}
+
+    public static Mode getMode() {
+        return s_mode;
+    }
+
+    /**
+     * Record inputs or, in replay, overwrite them with the recorded values.
+     * Call once per loop, right after the IO layer's updateInputs().
+     * @param name - unique name for this set of inputs, e.g., "Swerve/Module0"
+     */
+    public static void processInputs(String name, LoggableInputs inputs) {
+        LogTable table = s_tables.get(name);
+        if (table == null) {
+            table = new LogTable(name);
+            s_tables.put(name, table);
+        }
+        if (s_mode == Mode.kReplay) {
+            inputs.fromLog(table);
+        } else {
+            inputs.toLog(table);
+        }
+    }
+
+    /**
+     * Called by Robot at the start of every loop, before the driver station
+     * data is refreshed.  In replay this moves the clock and the simulated
+     * driver station to the next recorded loop.
+     */
+    public static void beforeLoop() {
+        if (s_mode == Mode.kReplay) {
+            s_cycleTimestamp = s_replaySource.getCycleTimestamps()[s_replayCycle];
+            long now = RobotController.getFPGATime();
+            if (s_cycleTimestamp > now) {
+                SimHooks.stepTiming((s_cycleTimestamp - now) / 1.0e6);
+            }
+            processInputs("DriverStation", s_driverStationInputs);
+            s_driverStationInputs.applyToSimulation();
+        } else {
+            s_cycleTimestamp = RobotController.getFPGATime();
+            if (s_cycleTimestampEntry == null) {
+                s_cycleTimestampEntry = new IntegerLogEntry(DataLogManager.getLog(), kCycleTimestampEntry);
+            }
+            s_cycleTimestampEntry.append(s_cycleTimestamp, s_cycleTimestamp);
+        }
+    }
+
+    /**
+     * Called by Robot once per loop after the driver station data has been
+     * refreshed, to record what the robot code is about to act on.
+     */
+    public static void recordDriverStation() {
+        if (s_mode != Mode.kReplay) {
+            s_driverStationInputs.update();
+            processInputs("DriverStation", s_driverStationInputs);
+        }
+    }
+
+    /**
+     * In replay, move on to the next recorded loop.
+     * @return false when the recording has no more loops
+     */
+    public static boolean nextReplayCycle() {
+        s_replayCycle++;
+        return s_replayCycle < s_replaySource.getCycleTimestamps().length;
+    }
+
+    static long getCycleTimestamp() {
+        return s_cycleTimestamp;
+    }
+
+    static Object getReplayValue(String name) {
+        return s_replaySource.get(name, s_cycleTimestamp);
+    }
+}
@@ -0,0 +1,187 @@
+package frc.robot.logging;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.wpi.first.util.datalog.BooleanArrayLogEntry;
+import edu.wpi.first.util.datalog.BooleanLogEntry;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DataLogEntry;
+import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.util.datalog.IntegerLogEntry;
+import edu.wpi.first.util.datalog.StringLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+
+/**
+ * One LoggableInputs' worth of DataLog entries, all named "Inputs/<name>/<key>".
+ * put() appends to the DataLog with the current loop's timestamp, so every
+ * input from one loop shares a timestamp; get() reads the replayed value for
+ * the current loop.  Entries are made on first use and then reused.
+ * Nothing here allocates once an entry exists, except the array get()s in
+ * replay.
+ */
+public class LogTable {
+    private final String m_prefix;
+    private final Map<String, DataLogEntry> m_entries = new HashMap<>();
+    private final Map<String, String> m_fullNames = new HashMap<>();
+
+    LogTable(String name) {
+        m_prefix = InputLogger.kPrefix + name + "/";
+    }
+
+    private String fullName(String key) {
+        String fullName = m_fullNames.get(key);
+        if (fullName == null) {
+            fullName = m_prefix + key;
+            m_fullNames.put(key, fullName);
+        }
+        return fullName;
+    }
+
+    private DataLog log() {
+        return DataLogManager.getLog();
+    }
+
+    public void put(String key, double value) {
+        DoubleLogEntry entry = (DoubleLogEntry) m_entries.get(key);
+        if (entry == null) {
+            entry = new DoubleLogEntry(log(), fullName(key));
+            m_entries.put(key, entry);
+        }
+        entry.append(value, InputLogger.getCycleTimestamp());
+    }
+
+    public void put(String key, boolean value) {
+        BooleanLogEntry entry = (BooleanLogEntry) m_entries.get(key);
+        if (entry == null) {
+            entry = new BooleanLogEntry(log(), fullName(key));
+            m_entries.put(key, entry);
+        }
+        entry.append(value, InputLogger.getCycleTimestamp());
+    }
+
+    public void put(String key, long value) {
+        IntegerLogEntry entry = (IntegerLogEntry) m_entries.get(key);
+        if (entry == null) {
+            entry = new IntegerLogEntry(log(), fullName(key));
+            m_entries.put(key, entry);
+        }
+        entry.append(value, InputLogger.getCycleTimestamp());
+    }
+
+    public void put(String key, String value) {
+        StringLogEntry entry = (StringLogEntry) m_entries.get(key);
+        if (entry == null) {
+            entry = new StringLogEntry(log(), fullName(key));
+            m_entries.put(key, entry);
+        }
+        entry.append(value, InputLogger.getCycleTimestamp());
+    }
+
+    public void put(String key, double[] value) {
+        DoubleArrayLogEntry entry = (DoubleArrayLogEntry) m_entries.get(key);
+        if (entry == null) {
+            entry = new DoubleArrayLogEntry(log(), fullName(key));
+            m_entries.put(key, entry);
+        }
+        entry.append(value, InputLogger.getCycleTimestamp());
+    }
+
+    /**
+     * Log the first count elements of value, for a preallocated buffer that
+     * holds a varying number of samples
+     */
+    public void put(String key, double[] value, int count) {
+        PartialDoubleArrayLogEntry entry = (PartialDoubleArrayLogEntry) m_entries.get(key);
+        if (entry == null) {
+            entry = new PartialDoubleArrayLogEntry(log(), fullName(key));
+            m_entries.put(key, entry);
+        }
+        entry.append(value, count, InputLogger.getCycleTimestamp());
+    }
+
+    public void put(String key, boolean[] value) {
+        BooleanArrayLogEntry entry = (BooleanArrayLogEntry) m_entries.get(key);
+        if (entry == null) {
+            entry = new BooleanArrayLogEntry(log(), fullName(key));
+            m_entries.put(key, entry);
+        }
+        entry.append(value, InputLogger.getCycleTimestamp());
+    }
+
+    /*
+     * The get()s return defaultValue if the recording has no value for the key
+     * at or before the current loop, e.g., for a device added since the match.
+     */
+
+    public double get(String key, double defaultValue) {
+        Object value = InputLogger.getReplayValue(fullName(key));
+        return value instanceof Double ? (Double) value : defaultValue;
+    }
+
+    public boolean get(String key, boolean defaultValue) {
+        Object value = InputLogger.getReplayValue(fullName(key));
+        return value instanceof Boolean ? (Boolean) value : defaultValue;
+    }
+
+    public long get(String key, long defaultValue) {
+        Object value = InputLogger.getReplayValue(fullName(key));
+        return value instanceof Long ? (Long) value : defaultValue;
+    }
+
+    public String get(String key, String defaultValue) {
+        Object value = InputLogger.getReplayValue(fullName(key));
+        return value instanceof String ? (String) value : defaultValue;
+    }
+
+    public double[] get(String key, double[] defaultValue) {
+        Object value = InputLogger.getReplayValue(fullName(key));
+        return value instanceof double[] ? (double[]) value : defaultValue;
+    }
+
+    public boolean[] get(String key, boolean[] defaultValue) {
+        Object value = InputLogger.getReplayValue(fullName(key));
+        return value instanceof boolean[] ? (boolean[]) value : defaultValue;
+    }
+
+    /**
+     * Copy a value logged by put(key, value, count) into the start of value
+     * @return how many elements were copied (at most value.length); 0 if there is no value
+     */
+    public int getInto(String key, double[] value) {
+        double[] recorded = get(key, (double[]) null);
+        if (recorded == null) {
+            return 0;
+        }
+        int count = Math.min(recorded.length, value.length);
+        System.arraycopy(recorded, 0, value, 0, count);
+        return count;
+    }
+
+    /**
+     * A "double[]" entry that is appended from part of an array.  DoubleArrayLogEntry
+     * can only append a whole array, which would mean a new array for every count.
+     */
+    private static class PartialDoubleArrayLogEntry extends DataLogEntry {
+        private ByteBuffer m_buffer = ByteBuffer.allocate(0);
+
+        PartialDoubleArrayLogEntry(DataLog log, String name) {
+            super(log, name, DoubleArrayLogEntry.kDataType);
+        }
+
+        void append(double[] value, int count, long timestamp) {
+            int length = count * Double.BYTES;
+            if (m_buffer.capacity() < length) {
+                // grows to the largest count seen, then stays
+                m_buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+            }
+            for (int i = 0; i < count; i++) {
+                m_buffer.putDouble(i * Double.BYTES, value[i]);
+            }
+            m_log.appendRaw(m_entry, m_buffer.array(), 0, length, timestamp);
+        }
+    }
+}
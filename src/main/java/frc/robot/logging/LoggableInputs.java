@@ -0,0 +1,16 @@
+package frc.robot.logging;
+
+/**
+ * Everything a hardware IO layer reads in one loop.  Each loop the owner calls
+ * InputLogger.processInputs(), which either records the values (on the robot
+ * and in simulation) or overwrites them with the values from a recorded match
+ * (in replay).  Code above the IO layer must only use these values, never read
+ * the hardware directly, or replay will not reproduce what happened.
+ */
+public interface LoggableInputs {
+    /** Write every field to table */
+    void toLog(LogTable table);
+
+    /** Read every field back from table */
+    void fromLog(LogTable table);
+}
@@ -0,0 +1,103 @@
+package frc.robot.logging;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+
+/**
+ * The "Inputs/" entries of a recorded .wpilog, loaded into memory so each
+ * replayed loop can look up what the hardware reported in the same loop of
+ * the match.
+ */
+class ReplaySource {
+    /** Values of one entry in time order */
+    private static class Series {
+        private long[] m_timestamps = new long[256];
+        private final List<Object> m_values = new ArrayList<>();
+
+        void add(long timestamp, Object value) {
+            int size = m_values.size();
+            if (size == m_timestamps.length) {
+                m_timestamps = Arrays.copyOf(m_timestamps, size * 2);
+            }
+            m_timestamps[size] = timestamp;
+            m_values.add(value);
+        }
+
+        /** @return the latest value at or before timestamp, or null if there is none */
+        Object valueAt(long timestamp) {
+            int index = Arrays.binarySearch(m_timestamps, 0, m_values.size(), timestamp);
+            if (index < 0) {
+                index = -index - 2; // the element before the insertion point
+            }
+            return index >= 0 ? m_values.get(index) : null;
+        }
+    }
+
+    private final Map<String, Series> m_series = new HashMap<>();
+    private final long[] m_cycleTimestamps;
+
+    ReplaySource(String filename) throws IOException {
+        DataLogReader reader = new DataLogReader(filename);
+        if (!reader.isValid()) {
+            throw new IOException(filename + " is not a valid .wpilog file");
+        }
+        Map<Integer, String> names = new HashMap<>();
+        Map<Integer, String> types = new HashMap<>();
+        for (DataLogRecord record : reader) {
+            if (record.isStart()) {
+                DataLogRecord.StartRecordData start = record.getStartData();
+                if (start.name.startsWith(InputLogger.kPrefix)) {
+                    names.put(start.entry, start.name);
+                    types.put(start.entry, start.type);
+                }
+            } else if (!record.isControl() && names.containsKey(record.getEntry())) {
+                Object value = decode(record, types.get(record.getEntry()));
+                if (value != null) {
+                    m_series.computeIfAbsent(names.get(record.getEntry()), name -> new Series())
+                        .add(record.getTimestamp(), value);
+                }
+            }
+        }
+        Series cycles = m_series.get(InputLogger.kCycleTimestampEntry);
+        if (cycles == null) {
+            throw new IOException(filename + " has no " + InputLogger.kCycleTimestampEntry + " entry; was it recorded by this code?");
+        }
+        m_cycleTimestamps = Arrays.copyOf(cycles.m_timestamps, cycles.m_values.size());
+    }
+
+    private static Object decode(DataLogRecord record, String type) {
+        switch (type) {
+            case "double":
+                return record.getDouble();
+            case "boolean":
+                return record.getBoolean();
+            case "int64":
+                return record.getInteger();
+            case "string":
+                return record.getString();
+            case "double[]":
+                return record.getDoubleArray();
+            case "boolean[]":
+                return record.getBooleanArray();
+            default:
+                return null;
+        }
+    }
+
+    /** @return the timestamp (FPGA microseconds) of each recorded loop, in order */
+    long[] getCycleTimestamps() {
+        return m_cycleTimestamps;
+    }
+
+    Object get(String name, long timestamp) {
+        Series series = m_series.get(name);
+        return series != null ? series.valueAt(timestamp) : null;
+    }
+}
@@ -5,10 +5,9 @@
 package frc.robot.subsystems;
 
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
-import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants;
 
-public class BeamBreakSensor extends SubsystemBase {
+public class BeamBreakSensor extends ProfiledSubsystem {
   
   private OnOffSwitch m_sensor;
   
@@ -23,7 +22,7 @@ public class BeamBreakSensor extends SubsystemBase {
   }
   
   @Override
-  public void periodic() {
+  protected void profiledPeriodic() {
     // This method will be called once per scheduler run
     SmartDashboard.putBoolean("Beam Break Active", noteIsInShooter());
   }
@@ -0,0 +1,180 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems;
+
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.logging.InputLogger;
+import frc.robot.telemetry.BooleanSignal;
+import frc.robot.telemetry.DoubleSignal;
+import frc.robot.telemetry.StringSignal;
+import frc.robot.telemetry.Telemetry;
+
+/**
+ * Watches the CAN bus for the problems that take a robot out of a match:
+ * a saturated bus, the controller's error counters climbing, bus-off events,
+ * and devices that have stopped sending status frames.  Each device the robot
+ * creates registers itself with CANDevices, so every TalonFX, CANcoder,
+ * Pigeon2 and Spark MAX in Constants is covered.
+ *
+ * Each problem is an alert.  When one starts, it is written to the DataLog's
+ * messages and reported to the driver station; the alerts in effect are shown
+ * together under "CAN/Alerts".
+ *
+ * To use this, create a CANBusMonitor in RobotContainer after all the other
+ * subsystems, and retain its value.
+ */
+public class CANBusMonitor extends ProfiledSubsystem {
+  private static final double kMaxBusUtilization = 0.9;
+  /* the CAN controller's own "error warning" level */
+  private static final long kErrorCountWarning = 96;
+  /* Telemetry signals are sent at 4 Hz while disabled, so allow a few missed frames */
+  private static final double kStaleSeconds = 1.0;
+  /* bus-off and transmit buffer full are single events; keep their alerts up long enough to be seen */
+  private static final double kEventAlertSeconds = 5.0;
+  private static final double kMillisecondsPerSecond = 1000.0;
+
+  /* alert indexes; the devices' alerts follow these */
+  private static final int kHighUtilization = 0;
+  private static final int kErrorCounts = 1;
+  private static final int kBusOff = 2;
+  private static final int kTxFull = 3;
+  private static final int kNumBusAlerts = 4;
+
+  private final CANBusMonitorIO m_io;
+  private final CANBusMonitorIO.Inputs m_inputs = new CANBusMonitorIO.Inputs();
+  private String m_deviceNamesSeen = null;
+  private String[] m_deviceNames = new String[0];
+  private boolean[] m_alertActive = new boolean[kNumBusAlerts];
+  private long m_lastBusOffCount = -1;
+  private long m_lastTxFullCount = -1;
+  private double m_lastBusOffSeconds = Double.NEGATIVE_INFINITY;
+  private double m_lastTxFullSeconds = Double.NEGATIVE_INFINITY;
+  private int m_alertCount = 0;
+
+  private final DoubleSignal m_utilizationTelemetry = Telemetry.addDouble("CAN/Utilization %", 1.0, 2.0);
+  private final DoubleSignal m_busOffCountTelemetry = Telemetry.addDouble("CAN/Bus Off Count", 1.0, 1.0);
+  private final DoubleSignal m_txFullCountTelemetry = Telemetry.addDouble("CAN/Tx Full Count", 1.0, 1.0);
+  private final DoubleSignal m_receiveErrorCountTelemetry = Telemetry.addDouble("CAN/Rx Error Count", 1.0, 2.0);
+  private final DoubleSignal m_transmitErrorCountTelemetry = Telemetry.addDouble("CAN/Tx Error Count", 1.0, 2.0);
+  private final DoubleSignal m_alertCountTelemetry = Telemetry.addDouble("CAN/Alert Count", 0.0, 1.0);
+  private final BooleanSignal m_healthyTelemetry = Telemetry.addBoolean("CAN/Healthy", 0.0, 2.0);
+  private final StringSignal m_alertsTelemetry = Telemetry.addString("CAN/Alerts", 0.0, 2.0);
+  private DoubleSignal[] m_deviceAgeTelemetry = new DoubleSignal[0];
+
+  public CANBusMonitor() {
+    m_io = InputLogger.getMode() == InputLogger.Mode.kReplay ? new CANBusMonitorIO() {} : new CANBusMonitorIOReal();
+  }
+
+  /** @return true while any CAN alert is in effect */
+  public boolean hasAlerts() {
+    for (boolean active : m_alertActive) {
+      if (active) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  protected void profiledPeriodic() {
+    // This method will be called once per scheduler run
+    m_io.updateInputs(m_inputs);
+    InputLogger.processInputs("CANBus", m_inputs);
+    if (!m_inputs.deviceNames.equals(m_deviceNamesSeen)) {
+      addDevices();
+    }
+    double now = Timer.getFPGATimestamp();
+
+    m_utilizationTelemetry.set(m_inputs.busUtilization * 100.0);
+    m_busOffCountTelemetry.set(m_inputs.busOffCount);
+    m_txFullCountTelemetry.set(m_inputs.txFullCount);
+    m_receiveErrorCountTelemetry.set(m_inputs.receiveErrorCount);
+    m_transmitErrorCountTelemetry.set(m_inputs.transmitErrorCount);
+
+    if (m_lastBusOffCount >= 0 && m_inputs.busOffCount > m_lastBusOffCount) {
+      m_lastBusOffSeconds = now;
+    }
+    m_lastBusOffCount = m_inputs.busOffCount;
+    if (m_lastTxFullCount >= 0 && m_inputs.txFullCount > m_lastTxFullCount) {
+      m_lastTxFullSeconds = now;
+    }
+    m_lastTxFullCount = m_inputs.txFullCount;
+
+    boolean changed = false;
+    changed |= setAlert(kHighUtilization, m_inputs.busUtilization > kMaxBusUtilization);
+    changed |= setAlert(kErrorCounts, m_inputs.receiveErrorCount >= kErrorCountWarning
+        || m_inputs.transmitErrorCount >= kErrorCountWarning);
+    changed |= setAlert(kBusOff, now - m_lastBusOffSeconds < kEventAlertSeconds);
+    changed |= setAlert(kTxFull, now - m_lastTxFullSeconds < kEventAlertSeconds);
+    for (int i = 0; i < Math.min(m_deviceNames.length, m_inputs.deviceAgesSeconds.length); i++) {
+      double ageSeconds = m_inputs.deviceAgesSeconds[i];
+      m_deviceAgeTelemetry[i].set(ageSeconds * kMillisecondsPerSecond);
+      changed |= setAlert(kNumBusAlerts + i, ageSeconds > kStaleSeconds);
+    }
+    if (changed) {
+      m_alertsTelemetry.set(describeAlerts());
+    }
+    m_alertCountTelemetry.set(m_alertCount);
+    m_healthyTelemetry.set(!hasAlerts());
+  }
+
+  /* make telemetry and alerts for the devices; only happens while they are being created */
+  private void addDevices() {
+    m_deviceNamesSeen = m_inputs.deviceNames;
+    m_deviceNames = m_deviceNamesSeen.isEmpty() ? new String[0] : m_deviceNamesSeen.split(",");
+    DoubleSignal[] ageTelemetry = new DoubleSignal[m_deviceNames.length];
+    for (int i = 0; i < m_deviceNames.length; i++) {
+      ageTelemetry[i] = Telemetry.addDouble("CAN/" + m_deviceNames[i] + " Age ms", Telemetry.kLogOnly);
+    }
+    m_deviceAgeTelemetry = ageTelemetry;
+    boolean[] alertActive = new boolean[kNumBusAlerts + m_deviceNames.length];
+    System.arraycopy(m_alertActive, 0, alertActive, 0, Math.min(m_alertActive.length, alertActive.length));
+    m_alertActive = alertActive;
+  }
+
+  /** @return true if the alert started or ended */
+  private boolean setAlert(int index, boolean active) {
+    if (active == m_alertActive[index]) {
+      return false;
+    }
+    m_alertActive[index] = active;
+    if (active) {
+      m_alertCount++;
+      String message = "CAN alert: " + describeAlert(index);
+      DataLogManager.log(message);
+      DriverStation.reportWarning(message, false);
+    } else {
+      DataLogManager.log("CAN alert cleared: " + describeAlert(index));
+    }
+    return true;
+  }
+
+  private String describeAlert(int index) {
+    switch (index) {
+      case kHighUtilization:
+        return "bus utilization over " + (int) (kMaxBusUtilization * 100.0) + "%";
+      case kErrorCounts:
+        return "error counters at " + m_inputs.receiveErrorCount + " rx, " + m_inputs.transmitErrorCount + " tx";
+      case kBusOff:
+        return "bus off";
+      case kTxFull:
+        return "transmit buffer full";
+      default:
+        return m_deviceNames[index - kNumBusAlerts] + " not heard from in " + kStaleSeconds + " s";
+    }
+  }
+
+  private String describeAlerts() {
+    StringBuilder alerts = new StringBuilder();
+    for (int i = 0; i < m_alertActive.length; i++) {
+      if (m_alertActive[i]) {
+        alerts.append(alerts.length() == 0 ? "" : "; ").append(describeAlert(i));
+      }
+    }
+    return alerts.toString();
+  }
+}
@@ -0,0 +1,57 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems;
+
+import frc.robot.logging.LogTable;
+import frc.robot.logging.LoggableInputs;
+
+/**
+ * The roboRIO's CAN controller and the devices registered with CANDevices,
+ * behind CANBusMonitor.  In replay the monitor uses this do-nothing default
+ * while its inputs come from the log.
+ */
+public interface CANBusMonitorIO {
+  public static class Inputs implements LoggableInputs {
+    private static final double[] kNone = new double[0];
+
+    /** fraction of the bus's capacity in use, 0 to 1 */
+    public double busUtilization = 0.0;
+    /** times the controller has gone bus-off since the roboRIO booted */
+    public long busOffCount = 0;
+    /** times a frame could not be sent because the transmit buffer was full */
+    public long txFullCount = 0;
+    /** the controller's receive and transmit error counters; they count back down as frames succeed */
+    public long receiveErrorCount = 0;
+    public long transmitErrorCount = 0;
+    /** the registered devices' names, separated by commas; only changes while devices are being created */
+    public String deviceNames = "";
+    /** seconds since each device was last heard from, in the order of deviceNames */
+    public double[] deviceAgesSeconds = kNone;
+
+    @Override
+    public void toLog(LogTable table) {
+      table.put("BusUtilization", busUtilization);
+      table.put("BusOffCount", busOffCount);
+      table.put("TxFullCount", txFullCount);
+      table.put("ReceiveErrorCount", receiveErrorCount);
+      table.put("TransmitErrorCount", transmitErrorCount);
+      table.put("DeviceNames", deviceNames);
+      table.put("DeviceAgesSeconds", deviceAgesSeconds);
+    }
+
+    @Override
+    public void fromLog(LogTable table) {
+      busUtilization = table.get("BusUtilization", busUtilization);
+      busOffCount = table.get("BusOffCount", busOffCount);
+      txFullCount = table.get("TxFullCount", txFullCount);
+      receiveErrorCount = table.get("ReceiveErrorCount", receiveErrorCount);
+      transmitErrorCount = table.get("TransmitErrorCount", transmitErrorCount);
+      deviceNames = table.get("DeviceNames", deviceNames);
+      deviceAgesSeconds = table.get("DeviceAgesSeconds", deviceAgesSeconds);
+    }
+  }
+
+  public default void updateInputs(Inputs inputs) {}
+}
@@ -0,0 +1,43 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems;
+
+import edu.wpi.first.hal.can.CANJNI;
+import edu.wpi.first.hal.can.CANStatus;
+import frc.robot.CANDevices;
+
+/** The roboRIO's CAN bus; the HAL simulates the controller in simulation */
+public class CANBusMonitorIOReal implements CANBusMonitorIO {
+  private final CANStatus m_status = new CANStatus();
+  private int m_deviceCount = -1;
+  private String m_deviceNames = "";
+
+  @Override
+  public void updateInputs(Inputs inputs) {
+    // fills in m_status, where RobotController.getCANStatus() would make a new one each loop
+    CANJNI.getCANStatus(m_status);
+    inputs.busUtilization = m_status.percentBusUtilization;
+    inputs.busOffCount = m_status.busOffCount;
+    inputs.txFullCount = m_status.txFullCount;
+    inputs.receiveErrorCount = m_status.receiveErrorCount;
+    inputs.transmitErrorCount = m_status.transmitErrorCount;
+
+    int count = CANDevices.getCount();
+    if (count != m_deviceCount) {
+      // only rebuilt while devices are being registered
+      StringBuilder names = new StringBuilder();
+      for (int i = 0; i < count; i++) {
+        names.append(i == 0 ? "" : ",").append(CANDevices.getName(i));
+      }
+      m_deviceNames = names.toString();
+      m_deviceCount = count;
+      inputs.deviceAgesSeconds = new double[count];
+    }
+    inputs.deviceNames = m_deviceNames;
+    for (int i = 0; i < count; i++) {
+      inputs.deviceAgesSeconds[i] = CANDevices.getAgeSeconds(i);
+    }
+  }
+}
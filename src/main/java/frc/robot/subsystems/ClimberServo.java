@@ -5,11 +5,13 @@
 package frc.robot.subsystems;
 
 import edu.wpi.first.wpilibj.Servo;
-import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.telemetry.DoubleSignal;
+import frc.robot.telemetry.Telemetry;
 
-public class ClimberServo extends SubsystemBase {
+public class ClimberServo extends ProfiledSubsystem {
 
   private Servo m_climberServo;
+  private final DoubleSignal m_angleTelemetry = Telemetry.addDouble("Climber Servo Angle", Telemetry.kLogOnly);
 
   /** Creates a new ClimberServo. */
   public ClimberServo(int channel, double startingAngle) {
@@ -26,7 +28,8 @@ public class ClimberServo extends SubsystemBase {
   }
 
   @Override
-  public void periodic() {
+  protected void profiledPeriodic() {
     // This method will be called once per scheduler run
+    m_angleTelemetry.set(m_climberServo.getAngle());
   }
 }
@@ -4,10 +4,9 @@
 
 package frc.robot.subsystems;
 
-import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants;
 
-public class CollectorRoller extends SubsystemBase {
+public class CollectorRoller extends ProfiledSubsystem {
   private final SparkMaxMotor m_motor = new SparkMaxMotor(Constants.CollectorRollerConstants.kCANId,
     Constants.CollectorRollerConstants.encoderRotationsPerFinalRotation,
     Constants.CollectorRollerConstants.kName);
@@ -37,7 +36,7 @@ public class CollectorRoller extends SubsystemBase {
   }
 
   @Override
-  public void periodic() {
+  protected void profiledPeriodic() {
     // This method will be called once per scheduler run
   }
 }
@@ -0,0 +1,98 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems;
+
+import edu.wpi.first.wpilibj.DataLogManager;
+
+/**
+ * Adds up how much of the battery each mechanism uses, from the currents of
+ * the power distribution channels that feed it.  For each mechanism it keeps
+ * amp-hours, watt-hours (at the board's voltage), peak current and RMS
+ * current since the last reset().  PowerDistributionMonitor resets it at the
+ * start of a match, sends the totals to telemetry, and logs the summary at the end.
+ */
+class EnergyAccountant {
+  private static final double kSecondsPerHour = 3600.0;
+
+  private final String[] m_names;
+  private final int[][] m_channels;
+  private final double[] m_ampSeconds;
+  private final double[] m_joules;
+  private final double[] m_peakAmps;
+  private final double[] m_squaredAmpSeconds;
+  private double m_seconds = 0.0;
+
+  /**
+   * @param names - the mechanisms
+   * @param channels - for each mechanism, the power distribution channels feeding it
+   */
+  EnergyAccountant(String[] names, int[][] channels) {
+    m_names = names;
+    m_channels = channels;
+    m_ampSeconds = new double[names.length];
+    m_joules = new double[names.length];
+    m_peakAmps = new double[names.length];
+    m_squaredAmpSeconds = new double[names.length];
+  }
+
+  void reset() {
+    for (int i = 0; i < m_names.length; i++) {
+      m_ampSeconds[i] = 0.0;
+      m_joules[i] = 0.0;
+      m_peakAmps[i] = 0.0;
+      m_squaredAmpSeconds[i] = 0.0;
+    }
+    m_seconds = 0.0;
+  }
+
+  /**
+   * Add dtSeconds of use at these readings.
+   * Channels the board does not have count as zero.
+   */
+  void accumulate(double[] channelCurrents, double voltage, double dtSeconds) {
+    m_seconds += dtSeconds;
+    for (int i = 0; i < m_names.length; i++) {
+      double amps = 0.0;
+      for (int channel : m_channels[i]) {
+        if (channel < channelCurrents.length) {
+          amps += channelCurrents[channel];
+        }
+      }
+      m_ampSeconds[i] += amps * dtSeconds;
+      m_joules[i] += amps * voltage * dtSeconds;
+      m_squaredAmpSeconds[i] += amps * amps * dtSeconds;
+      if (amps > m_peakAmps[i]) {
+        m_peakAmps[i] = amps;
+      }
+    }
+  }
+
+  /* Totals for mechanism i (in the order of the names) since the last reset() */
+
+  double getAmpHours(int i) {
+    return m_ampSeconds[i] / kSecondsPerHour;
+  }
+
+  double getWattHours(int i) {
+    return m_joules[i] / kSecondsPerHour;
+  }
+
+  double getPeakAmps(int i) {
+    return m_peakAmps[i];
+  }
+
+  double getRmsAmps(int i) {
+    return m_seconds > 0.0 ? Math.sqrt(m_squaredAmpSeconds[i] / m_seconds) : 0.0;
+  }
+
+  /** Write the totals to the DataLog's messages (and the console), one line per mechanism */
+  void logSummary() {
+    DataLogManager.log(String.format("Energy used over %.1f s:", m_seconds));
+    for (int i = 0; i < m_names.length; i++) {
+      DataLogManager.log(String.format("  %-14s %6.3f Ah %7.2f Wh  peak %6.1f A  RMS %6.1f A",
+          m_names[i], getAmpHours(i), getWattHours(i), m_peakAmps[i], getRmsAmps(i)));
+    }
+  }
+}
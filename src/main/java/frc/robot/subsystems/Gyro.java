@@ -4,156 +4,198 @@
 
 package frc.robot.subsystems;
 
-import com.ctre.phoenix6.StatusCode;
-import com.ctre.phoenix6.StatusSignal;
-import com.ctre.phoenix6.configs.Pigeon2Configuration;
-import com.ctre.phoenix6.hardware.Pigeon2;
-import com.kauailabs.navx.frc.AHRS;
-
-import edu.wpi.first.wpilibj.SPI;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
-import edu.wpi.first.wpilibj2.command.SubsystemBase;
-import frc.robot.Constants;
-import frc.robot.TuningVariables;
-
-public class Gyro extends SubsystemBase {
+import java.util.function.DoubleSupplier;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+
+import frc.robot.logging.InputLogger;
+import frc.robot.telemetry.BooleanSignal;
+import frc.robot.telemetry.DoubleSignal;
+import frc.robot.telemetry.StringSignal;
+import frc.robot.telemetry.Telemetry;
+
+public class Gyro extends ProfiledSubsystem {
   /** Creates a new Gyro. */
-  private Pigeon2 m_pigeon;
-  private AHRS m_navX;
+  private final GyroIO m_io;
+  private final GyroIO.Inputs m_inputs = new GyroIO.Inputs();
   private boolean m_usePigeon;
   private double m_yawOffsetPigeon2;
   private double m_yawOffsetNavX;
+  private boolean m_navXWasReady = false;
+
+  private final DoubleSignal m_pigeonYawTelemetry = Telemetry.addDouble("Pigeon Yaw", 4.0, 10.0);
+  private final DoubleSignal m_navXYawTelemetry = Telemetry.addDouble("NavX Yaw", 4.0, 10.0);
+  private final DoubleSignal m_yawDifferenceTelemetry = Telemetry.addDouble("Gyro Differnce", 4.0, 10.0);
+  private final DoubleSignal m_pigeonPitchTelemetry = Telemetry.addDouble("Pigeon Pitch", Telemetry.kLogOnly);
+  private final DoubleSignal m_pigeonRollTelemetry = Telemetry.addDouble("Pigeon Roll", Telemetry.kLogOnly);
+  private final DoubleSignal m_navXPitchTelemetry = Telemetry.addDouble("NavX Pitch", Telemetry.kLogOnly);
+  private final DoubleSignal m_navXRollTelemetry = Telemetry.addDouble("NavX Roll", Telemetry.kLogOnly);
+  private final DoubleSignal m_pigeonFaultBitsTelemetry = Telemetry.addDouble("Pigeon Fault Bits", Telemetry.kLogOnly);
+  private final StringSignal m_pigeonStatusTelemetry = Telemetry.addString("Pigeon Error Status", 4.0, 1.0);
+  private final StringSignal m_pigeonFaultTelemetry = Telemetry.addString("Pigeon Fault Field", 4.0, 1.0);
+  private final StringSignal m_rawPigeonYawTelemetry = Telemetry.addString("rawPigeonYaw", 4.0, 1.0);
+  private final BooleanSignal m_usingPigeonTelemetry = Telemetry.addBoolean("Using Pigeon?", 4.0, 1.0);
+  private final BooleanSignal m_navXConnectedTelemetry = Telemetry.addBoolean("NavX isConnected", 4.0, 1.0);
+  private final BooleanSignal m_navXReadyTelemetry = Telemetry.addBoolean("NavX Ready", 4.0, 1.0);
 
   public Gyro(boolean usePigeon) {
+    this(usePigeon, () -> 0.0);
+  }
+
+  /**
+   * @param simulatedYawRate - in simulation, how fast the robot is turning, degrees
+   * per second counterclockwise.  Ignored on the real robot.
+   */
+  public Gyro(boolean usePigeon, DoubleSupplier simulatedYawRate) {
     m_usePigeon = usePigeon;
-    m_pigeon = new Pigeon2(Constants.Swerve.pigeonID);
-    StatusCode statusCode = m_pigeon.getConfigurator().apply(new Pigeon2Configuration()); // replaces .configFactoryDefault()
-    if (statusCode.isError()) {
-      System.out.println("Pigeon2 has a problem: " + statusCode);
-      m_pigeon = null;
+    switch (InputLogger.getMode()) {
+      case kReal:
+        m_io = new GyroIOReal();
+        break;
+      case kSim:
+        m_io = new GyroIOSim(simulatedYawRate);
+        break;
+      default:
+        m_io = new GyroIO() {};
+        break;
+    }
+    // from now on Swerve refreshes these with the swerve modules' signals
+    BaseStatusSignal[] signals = m_io.getStatusSignals();
+    if (signals.length > 0) {
+      BaseStatusSignal.refreshAll(signals);
+    }
+    updateInputs();
+    if (!m_inputs.pigeonPresent) {
       m_usePigeon = false;
     }
-    m_navX = new AHRS(SPI.Port.kMXP);
-    calibrateNavX();
     // m_usePigeon = Constants.Swerve.usePigeon;
     setYaw(0.0);
   
   }
 
-  public void setYaw(double degreesCcw){
-    if (m_pigeon != null) {
-      m_pigeon.reset();
+  /** @return the signals updateInputs() reads, for Swerve to refresh with the swerve modules' */
+  public BaseStatusSignal[] getStatusSignals() {
+    return m_io.getStatusSignals();
+  }
+
+  /**
+   * Read the gyros (or, in replay, the recorded values) and log them.  Swerve
+   * calls this, holding the PhoenixOdometryThread lock and having refreshed
+   * getStatusSignals(), before its own periodic work, so the yaw is current
+   * when it is used.
+   */
+  public void updateInputs() {
+    m_io.updateInputs(m_inputs);
+    InputLogger.processInputs("Gyro", m_inputs);
+    if (m_inputs.navXReady && !m_navXWasReady && m_inputs.pigeonPresent) {
+      // The NavX finished calibrating while the Pigeon2 stood in for it.  Line its
+      // heading up with the Pigeon2's, so switching to it does not make the yaw jump.
+      m_yawOffsetNavX = getYawPigeon2() + m_inputs.navXYawDegrees;
     }
-    m_navX.reset();
-    m_yawOffsetPigeon2 = degreesCcw;
-    m_yawOffsetNavX = degreesCcw + m_navX.getYaw();
+    m_navXWasReady = m_inputs.navXReady;
+  }
+
+  /**
+   * The NavX calibrates in the background after the robot starts; until it is
+   * done, the Pigeon2 is used even if the NavX was asked for.
+   */
+  private boolean isUsingPigeon() {
+    return m_usePigeon || (!m_inputs.navXReady && m_inputs.pigeonPresent);
+  }
+
+  /**
+   * Make the current heading read as degreesCcw.  This only changes the offsets
+   * applied to the raw yaws, so it takes effect immediately (resetting the
+   * gyros themselves takes a few frames to show up).
+   */
+  public void setYaw(double degreesCcw){
+    m_yawOffsetPigeon2 = degreesCcw - m_inputs.pigeonYawDegrees;
+    m_yawOffsetNavX = degreesCcw + m_inputs.navXYawDegrees;
    }
 
   private double getYawPigeon2() {
-    return m_pigeon != null ? m_pigeon.getYaw().getValueAsDouble() + m_yawOffsetPigeon2 : 0.0;
+    return m_inputs.pigeonPresent ? m_inputs.pigeonYawDegrees + m_yawOffsetPigeon2 : 0.0;
   }
   private double getYawNavX() {
-    return -m_navX.getYaw() + m_yawOffsetNavX;
+    return -m_inputs.navXYawDegrees + m_yawOffsetNavX;
   }
   public double getYaw(){
-    if (m_usePigeon) {
+    if (isUsingPigeon()) {
       return getYawPigeon2();
     } else {
       return getYawNavX();
     }
   }
+
+  /**
+   * Like getYaw, but at one of the swerve modules' odometry samples since the
+   * last updateInputs.  The NavX is not sampled that fast, so when it is in use
+   * every sample gets its latest yaw.
+   * @param sample - index into the modules' odometry samples
+   * @return yaw in degrees counterclockwise
+   */
+  public double getYawForOdometry(int sample){
+    if (isUsingPigeon() && sample < m_inputs.odometrySampleCount) {
+      return m_inputs.odometryPigeonYawDegrees[sample] + m_yawOffsetPigeon2;
+    } else {
+      return getYaw();
+    }
+  }
   
   public double getRoll(){
-    if (m_usePigeon) {
-      return m_pigeon != null ? m_pigeon.getRoll().getValueAsDouble() : 0.0;
+    if (isUsingPigeon()) {
+      return m_inputs.pigeonPresent ? m_inputs.pigeonRollDegrees : 0.0;
     } else {
-      return m_navX.getRoll();
+      return m_inputs.navXRollDegrees;
     }
   }
   
   public double getPitch(){
-    if (m_usePigeon) {
-      return m_pigeon != null ? m_pigeon.getPitch().getValueAsDouble() : 0.0;
+    if (isUsingPigeon()) {
+      return m_inputs.pigeonPresent ? m_inputs.pigeonPitchDegrees : 0.0;
     } else {
-      return m_navX.getPitch();
+      return m_inputs.navXPitchDegrees;
     }
   }
 
   public void toggleGyro(){
-    if (m_pigeon == null) {
+    if (!m_inputs.pigeonPresent) {
       System.out.println("Cannot toggle gyro, pigeon2 does not work");
     } else {
       m_usePigeon = !(m_usePigeon);
     }
   }
 
-  /**
-   * Make sure gyro is done calibrating before using it
-   * @return
-   * true if calibration was successful, false if we could not connect to or could not calibrate NavX
-   */
-  private boolean calibrateNavX() {
-    // calibration only needed for NavX
-    int nTries = 1;
-    boolean retval = true;
-    while (m_navX.isCalibrating() && nTries<100) { //wait to zero yaw if calibration is still running
-      try {
-        Thread.sleep(20);
-        System.out.println("----calibrating gyro---- " + nTries);
-      } catch (InterruptedException e) {
-
-      }
-      nTries++;
-      if (nTries >= 50 && nTries%10==0) {
-        System.out.println("Having trouble calibrating NavX");
-      }
-    }
-    try {
-      Thread.sleep(60); // sometimes isConnected returns false immediately after calibration
-    } catch (InterruptedException e) {
-      // do nothing
-    }
-    if (m_navX.isCalibrating()) {
-      System.out.println("Could not calibrate NavX, will use Pigeon2");
-      retval = false;
-    } else if (!m_navX.isConnected()) {
-      System.out.println("NavX is not connected (is SPI dip switch not ON?), will use Pigeon2");
-      retval = false;
-    }
-    return retval;
-  }
- 
-
   @Override
-  public void periodic() {
+  protected void profiledPeriodic() {
     // This method will be called once per scheduler run
-    if (TuningVariables.debugLevel.getNumber() >= 5){
-      double navXYaw = getYawNavX();
-      StatusSignal<Double> rawPigeonYaw = null;
-      double pigeonYaw = 0.0;
-      StatusCode pigeonStatus = null;
-      if (m_pigeon != null){
-        rawPigeonYaw = m_pigeon.getYaw();
-        pigeonYaw = getYawPigeon2();
-        pigeonStatus = rawPigeonYaw.getStatus();
+    // Numbers are recorded every loop; debugLevel only decides what goes to the dashboard
+    double navXYaw = getYawNavX();
+    double pigeonYaw = getYawPigeon2();
+    m_pigeonYawTelemetry.set(pigeonYaw);
+    m_navXYawTelemetry.set(navXYaw);
+    m_yawDifferenceTelemetry.set(pigeonYaw - navXYaw);
+    m_navXPitchTelemetry.set(m_inputs.navXPitchDegrees);
+    m_navXRollTelemetry.set(m_inputs.navXRollDegrees);
+    m_usingPigeonTelemetry.set(isUsingPigeon());
+    m_navXConnectedTelemetry.set(m_inputs.navXConnected);
+    m_navXReadyTelemetry.set(m_inputs.navXReady);
+
+    if (m_inputs.pigeonPresent){
+      m_pigeonPitchTelemetry.set(m_inputs.pigeonPitchDegrees);
+      m_pigeonRollTelemetry.set(m_inputs.pigeonRollDegrees);
+      m_pigeonFaultBitsTelemetry.set(m_inputs.pigeonFaultBits);
+      // the strings take allocations to build, so only make them at their 1 Hz rate
+      if (m_pigeonStatusTelemetry.isDue()){
+        m_pigeonStatusTelemetry.set(m_inputs.pigeonStatus);
       }
-      if (TuningVariables.debugLevel.getNumber() >= 4.0) {
-        SmartDashboard.putNumber("Pigeon Yaw", pigeonYaw);
-        SmartDashboard.putNumber("NavX Yaw", navXYaw);
-        SmartDashboard.putNumber("Gyro Differnce", pigeonYaw - navXYaw);
+      if (m_pigeonFaultTelemetry.isDue()){
+        m_pigeonFaultTelemetry.set(Long.toString(m_inputs.pigeonFaultBits));
       }
-
-      if (m_pigeon != null){
-        var pigeonError = m_pigeon.getFaultField();
-        if (TuningVariables.debugLevel.getNumber() >= 4.0){
-          SmartDashboard.putString("Pigeon Error Status", pigeonStatus.toString());
-          SmartDashboard.putString("Pigeon Fault Field", pigeonError.toString());
-          SmartDashboard.putString("rawPigeonYaw", rawPigeonYaw.toString());
-          SmartDashboard.putBoolean("Using Pigeon?", m_usePigeon);
-          SmartDashboard.putBoolean("NavX isConnected", m_navX.isConnected());
-        }
+      if (m_rawPigeonYawTelemetry.isDue()){
+        m_rawPigeonYawTelemetry.set(Double.toString(m_inputs.pigeonYawDegrees));
       }
     }
   }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,83 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+
+import frc.robot.PhoenixOdometryThread;
+import frc.robot.logging.LogTable;
+import frc.robot.logging.LoggableInputs;
+
+/**
+ * The hardware behind Gyro: a Pigeon2 and a NavX.  GyroIOReal reads them,
+ * GyroIOSim makes up yaws from the robot's simulated turning, and in replay
+ * Gyro uses these do-nothing defaults while its inputs come from the log.
+ */
+public interface GyroIO {
+  public static class Inputs implements LoggableInputs {
+    /** false if the Pigeon2 could not be configured; the other Pigeon2 values are then meaningless */
+    public boolean pigeonPresent = false;
+    public String pigeonStatus = "";
+    /** raw Pigeon2 yaw, degrees counterclockwise */
+    public double pigeonYawDegrees = 0.0;
+    public double pigeonPitchDegrees = 0.0;
+    public double pigeonRollDegrees = 0.0;
+    public long pigeonFaultBits = 0;
+    public boolean navXConnected = false;
+    /** true once the NavX has finished calibrating; its yaw is not to be used before then */
+    public boolean navXReady = false;
+    /** raw NavX yaw, degrees clockwise */
+    public double navXYawDegrees = 0.0;
+    public double navXPitchDegrees = 0.0;
+    public double navXRollDegrees = 0.0;
+    /** how many of odometryPigeonYawDegrees are used */
+    public int odometrySampleCount = 0;
+    /** raw Pigeon2 yaw at each of the swerve modules' odometry samples; made once, at the most samples a loop can have */
+    public final double[] odometryPigeonYawDegrees = new double[PhoenixOdometryThread.kMaxSamples];
+
+    @Override
+    public void toLog(LogTable table) {
+      table.put("PigeonPresent", pigeonPresent);
+      table.put("PigeonStatus", pigeonStatus);
+      table.put("PigeonYawDegrees", pigeonYawDegrees);
+      table.put("PigeonPitchDegrees", pigeonPitchDegrees);
+      table.put("PigeonRollDegrees", pigeonRollDegrees);
+      table.put("PigeonFaultBits", pigeonFaultBits);
+      table.put("NavXConnected", navXConnected);
+      table.put("NavXReady", navXReady);
+      table.put("NavXYawDegrees", navXYawDegrees);
+      table.put("NavXPitchDegrees", navXPitchDegrees);
+      table.put("NavXRollDegrees", navXRollDegrees);
+      table.put("OdometryPigeonYawDegrees", odometryPigeonYawDegrees, odometrySampleCount);
+    }
+
+    @Override
+    public void fromLog(LogTable table) {
+      pigeonPresent = table.get("PigeonPresent", pigeonPresent);
+      pigeonStatus = table.get("PigeonStatus", pigeonStatus);
+      pigeonYawDegrees = table.get("PigeonYawDegrees", pigeonYawDegrees);
+      pigeonPitchDegrees = table.get("PigeonPitchDegrees", pigeonPitchDegrees);
+      pigeonRollDegrees = table.get("PigeonRollDegrees", pigeonRollDegrees);
+      pigeonFaultBits = table.get("PigeonFaultBits", pigeonFaultBits);
+      navXConnected = table.get("NavXConnected", navXConnected);
+      navXReady = table.get("NavXReady", navXReady);
+      navXYawDegrees = table.get("NavXYawDegrees", navXYawDegrees);
+      navXPitchDegrees = table.get("NavXPitchDegrees", navXPitchDegrees);
+      navXRollDegrees = table.get("NavXRollDegrees", navXRollDegrees);
+      odometrySampleCount = table.getInto("OdometryPigeonYawDegrees", odometryPigeonYawDegrees);
+    }
+  }
+
+  /** Fill in inputs with the latest sensor values */
+  public default void updateInputs(Inputs inputs) {}
+
+  /**
+   * The signals updateInputs() reads.  Swerve refreshes them, with the swerve
+   * modules' signals, in one refreshAll() per loop before calling updateInputs().
+   */
+  public default BaseStatusSignal[] getStatusSignals() {
+    return new BaseStatusSignal[0];
+  }
+}
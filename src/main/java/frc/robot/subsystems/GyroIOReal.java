@@ -0,0 +1,135 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems;
+
+import java.util.concurrent.CompletableFuture;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusCode;
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.configs.Pigeon2Configuration;
+import com.ctre.phoenix6.hardware.Pigeon2;
+import com.kauailabs.navx.frc.AHRS;
+
+import edu.wpi.first.wpilibj.SPI;
+import frc.robot.CANDevices;
+import frc.robot.Constants;
+import frc.robot.PhoenixOdometryThread;
+import frc.robot.StatusFrameManager;
+
+/** The robot's Pigeon2 and NavX */
+public class GyroIOReal implements GyroIO {
+  private Pigeon2 m_pigeon;
+  private final AHRS m_navX;
+  private StatusSignal<Double> m_pigeonYaw;
+  private StatusSignal<Double> m_pigeonPitch;
+  private StatusSignal<Double> m_pigeonRoll;
+  private StatusSignal<Integer> m_pigeonFaultField;
+  /* refreshed by Swerve along with the swerve modules' signals */
+  private BaseStatusSignal[] m_statusSignals = new BaseStatusSignal[0];
+  private int m_odometryYawIndex = -1;
+  /* completes with true when the NavX is calibrated and connected */
+  private final CompletableFuture<Boolean> m_navXCalibration;
+
+  public GyroIOReal() {
+    m_pigeon = new Pigeon2(Constants.Swerve.pigeonID);
+    StatusCode statusCode = m_pigeon.getConfigurator().apply(new Pigeon2Configuration()); // replaces .configFactoryDefault()
+    if (statusCode.isError()) {
+      System.out.println("Pigeon2 has a problem: " + statusCode);
+      m_pigeon = null;
+    }
+    if (m_pigeon != null) {
+      m_pigeonYaw = m_pigeon.getYaw();
+      m_pigeonPitch = m_pigeon.getPitch();
+      m_pigeonRoll = m_pigeon.getRoll();
+      m_pigeonFaultField = m_pigeon.getFaultField();
+      m_statusSignals = new BaseStatusSignal[] {m_pigeonYaw, m_pigeonPitch, m_pigeonRoll, m_pigeonFaultField};
+      // the odometry thread's own copies of the yaw signal and its rate, both in degrees
+      StatusSignal<Double> odometryPigeonYaw = m_pigeon.getYaw().clone();
+      StatusSignal<Double> odometryPigeonYawRate = m_pigeon.getAngularVelocityZWorld().clone();
+      StatusFrameManager.registerOdometrySignals(odometryPigeonYaw, odometryPigeonYawRate);
+      m_odometryYawIndex = PhoenixOdometryThread.getInstance().registerSignal(odometryPigeonYaw, odometryPigeonYawRate);
+      StatusFrameManager.registerTelemetrySignals(m_pigeonPitch, m_pigeonRoll, m_pigeonFaultField);
+      StatusFrameManager.registerPhoenixDevices(m_pigeon);
+      CANDevices.registerPhoenix("Pigeon2 " + Constants.Swerve.pigeonID, m_pigeonYaw);
+    }
+    m_navX = new AHRS(SPI.Port.kMXP);
+    // calibration takes up to a couple of seconds, so it must not hold up robotInit.
+    // It gets its own thread: the common pool has a single thread on the roboRIO,
+    // and calibrateNavX() sleeps.
+    m_navXCalibration = CompletableFuture.supplyAsync(this::calibrateNavX, runnable -> {
+      Thread thread = new Thread(runnable, "NavX Calibration");
+      thread.setDaemon(true);
+      thread.start();
+    });
+  }
+
+  /**
+   * Wait for the NavX to finish calibrating.  Runs in the background; Gyro
+   * uses the Pigeon2 until it is done.
+   * @return
+   * true if calibration was successful, false if we could not connect to or could not calibrate NavX
+   */
+  private boolean calibrateNavX() {
+    // calibration only needed for NavX
+    int nTries = 1;
+    boolean retval = true;
+    while (m_navX.isCalibrating() && nTries<100) { //wait to zero yaw if calibration is still running
+      try {
+        Thread.sleep(20);
+        System.out.println("----calibrating gyro---- " + nTries);
+      } catch (InterruptedException e) {
+
+      }
+      nTries++;
+      if (nTries >= 50 && nTries%10==0) {
+        System.out.println("Having trouble calibrating NavX");
+      }
+    }
+    try {
+      Thread.sleep(60); // sometimes isConnected returns false immediately after calibration
+    } catch (InterruptedException e) {
+      // do nothing
+    }
+    if (m_navX.isCalibrating()) {
+      System.out.println("Could not calibrate NavX, will use Pigeon2");
+      retval = false;
+    } else if (!m_navX.isConnected()) {
+      System.out.println("NavX is not connected (is SPI dip switch not ON?), will use Pigeon2");
+      retval = false;
+    }
+    return retval;
+  }
+
+  @Override
+  public BaseStatusSignal[] getStatusSignals() {
+    return m_statusSignals;
+  }
+
+  /** Caller must hold the PhoenixOdometryThread lock, and have refreshed getStatusSignals() */
+  @Override
+  public void updateInputs(Inputs inputs) {
+    inputs.pigeonPresent = m_pigeon != null;
+    if (m_pigeon != null) {
+      inputs.pigeonStatus = m_pigeonYaw.getStatus().getName();
+      inputs.pigeonYawDegrees = m_pigeonYaw.getValueAsDouble();
+      inputs.pigeonPitchDegrees = m_pigeonPitch.getValueAsDouble();
+      inputs.pigeonRollDegrees = m_pigeonRoll.getValueAsDouble();
+      inputs.pigeonFaultBits = m_pigeonFaultField.getValue();
+
+      PhoenixOdometryThread odometryThread = PhoenixOdometryThread.getInstance();
+      int sampleCount = odometryThread.getSampleCount();
+      inputs.odometrySampleCount = sampleCount;
+      for (int i = 0; i < sampleCount; i++) {
+        inputs.odometryPigeonYawDegrees[i] = odometryThread.getSample(m_odometryYawIndex, i);
+      }
+    }
+    inputs.navXConnected = m_navX.isConnected();
+    inputs.navXReady = m_navXCalibration.getNow(false);
+    inputs.navXYawDegrees = m_navX.getYaw();
+    inputs.navXPitchDegrees = m_navX.getPitch();
+    inputs.navXRollDegrees = m_navX.getRoll();
+  }
+}
@@ -0,0 +1,34 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems;
+
+import java.util.function.DoubleSupplier;
+
+/** Both gyros, following the simulated robot's rotation */
+public class GyroIOSim implements GyroIO {
+  private static final double kLoopPeriodSeconds = 0.02;
+  private final DoubleSupplier m_yawRateDegreesPerSecond;
+  private double m_yawDegrees = 0.0;
+
+  /**
+   * @param yawRateDegreesPerSecond - how fast the simulated robot is turning, counterclockwise
+   */
+  public GyroIOSim(DoubleSupplier yawRateDegreesPerSecond) {
+    m_yawRateDegreesPerSecond = yawRateDegreesPerSecond;
+  }
+
+  @Override
+  public void updateInputs(Inputs inputs) {
+    m_yawDegrees += m_yawRateDegreesPerSecond.getAsDouble() * kLoopPeriodSeconds;
+    inputs.pigeonPresent = true;
+    inputs.pigeonStatus = "OK";
+    inputs.pigeonYawDegrees = m_yawDegrees;
+    inputs.navXConnected = true;
+    inputs.navXReady = true;
+    inputs.navXYawDegrees = -m_yawDegrees;
+    inputs.odometrySampleCount = 1;
+    inputs.odometryPigeonYawDegrees[0] = m_yawDegrees;
+  }
+}
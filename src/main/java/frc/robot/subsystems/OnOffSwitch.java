@@ -4,19 +4,20 @@
 
 package frc.robot.subsystems;
 
-import edu.wpi.first.wpilibj.DigitalInput;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
-import edu.wpi.first.wpilibj2.command.SubsystemBase;
-import frc.robot.TuningVariables;
+import frc.robot.logging.InputLogger;
+import frc.robot.telemetry.BooleanSignal;
+import frc.robot.telemetry.Telemetry;
 /**
  * A wrapper for the DigitalInput class.  You can specify whether activated means the switch
  * is closed or open.  It also sends its state (isActivated) to SmartDashboard, tagged with its name.
  */
-public class OnOffSwitch extends SubsystemBase {
+public class OnOffSwitch extends ProfiledSubsystem {
   private final int m_channel;
   private final boolean m_normallyOpen;
   private final String m_name;
-  private final DigitalInput m_digitalInput;
+  private final OnOffSwitchIO m_io;
+  private final OnOffSwitchIO.Inputs m_inputs = new OnOffSwitchIO.Inputs();
+  private final BooleanSignal m_activatedTelemetry;
 
   /** Creates a new OnOffSwitch.
    * channel - the DIO channel for the digital input 0-9 are on the RoboRIO, 10-25 are on the MXP
@@ -28,25 +29,36 @@ public class OnOffSwitch extends SubsystemBase {
    * for how to wire these things.
    */
   public OnOffSwitch(int channel, boolean normallyOpen, String name) {
+    super("OnOffSwitch " + name);
     m_channel = channel;
-    m_digitalInput = new DigitalInput(m_channel);
+    // HAL simulation stands in for the DIO channel in simulation
+    m_io = InputLogger.getMode() == InputLogger.Mode.kReplay ? new OnOffSwitchIO() {} : new OnOffSwitchIOReal(m_channel);
     m_normallyOpen = normallyOpen;
     m_name = name;
+    m_activatedTelemetry = Telemetry.addBoolean(m_name + " (OnOffSwitch " + m_channel + ")", 4.0, 10.0);
+    updateInputs();
   }
 
   public boolean isActivated(){
-    return m_normallyOpen ? !m_digitalInput.get() : m_digitalInput.get();
+    return m_normallyOpen ? !m_inputs.rawValue : m_inputs.rawValue;
   }
 
   public String getName(){
     return m_name;
   }
 
+  /**
+   * Read the switch (or, in replay, the recorded value) and log it.
+   */
+  private void updateInputs(){
+    m_io.updateInputs(m_inputs);
+    InputLogger.processInputs("OnOffSwitch/" + m_name, m_inputs);
+  }
+
   @Override
-  public void periodic() {
+  protected void profiledPeriodic() {
     // This method will be called once per scheduler run
-    if (TuningVariables.debugLevel.getNumber() >= 4.0){
-      SmartDashboard.putBoolean(m_name + " (OnOffSwitch " + m_channel + ")", isActivated());
-    }
+    updateInputs();
+    m_activatedTelemetry.set(isActivated());
   }
 }
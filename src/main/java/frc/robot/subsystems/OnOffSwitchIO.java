@@ -0,0 +1,32 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems;
+
+import frc.robot.logging.LogTable;
+import frc.robot.logging.LoggableInputs;
+
+/**
+ * The digital input behind an OnOffSwitch.  Simulation uses OnOffSwitchIOReal,
+ * since the HAL simulates DIO channels; in replay OnOffSwitch uses this
+ * do-nothing default while its inputs come from the log.
+ */
+public interface OnOffSwitchIO {
+  public static class Inputs implements LoggableInputs {
+    /** DigitalInput.get(): true when the circuit is open */
+    public boolean rawValue = false;
+
+    @Override
+    public void toLog(LogTable table) {
+      table.put("RawValue", rawValue);
+    }
+
+    @Override
+    public void fromLog(LogTable table) {
+      rawValue = table.get("RawValue", rawValue);
+    }
+  }
+
+  public default void updateInputs(Inputs inputs) {}
+}
@@ -0,0 +1,22 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems;
+
+import edu.wpi.first.wpilibj.DigitalInput;
+
+/** A switch or sensor wired to a DIO channel */
+public class OnOffSwitchIOReal implements OnOffSwitchIO {
+  private final DigitalInput m_digitalInput;
+
+  /** @param channel - 0-9 are on the RoboRIO, 10-25 are on the MXP */
+  public OnOffSwitchIOReal(int channel) {
+    m_digitalInput = new DigitalInput(channel);
+  }
+
+  @Override
+  public void updateInputs(Inputs inputs) {
+    inputs.rawValue = m_digitalInput.get();
+  }
+}
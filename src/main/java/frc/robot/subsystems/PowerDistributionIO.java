@@ -0,0 +1,69 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems;
+
+import frc.robot.logging.LogTable;
+import frc.robot.logging.LoggableInputs;
+
+/**
+ * The PDP or PDH behind PowerDistributionMonitor.  The board is read in the
+ * background, several times per loop; each loop's inputs hold the latest
+ * reading and every voltage and total current sample since the last loop.
+ * Simulation uses
+ * PowerDistributionIOReal, since the HAL simulates the power distribution
+ * board; in replay the monitor uses this do-nothing default while its inputs
+ * come from the log.
+ */
+public interface PowerDistributionIO {
+  public static class Inputs implements LoggableInputs {
+    private static final double[] kNone = new double[0];
+    /** more than enough for one slow loop */
+    public static final int kMaxSamples = 32;
+
+    /** "kCTRE" for the PDP or "kRev" for the PDH */
+    public String type = "";
+    public double voltage = 0.0;
+    public double totalCurrent = 0.0;
+    public double temperature = 0.0;
+    /** amps, one per channel */
+    public double[] channelCurrents = kNone;
+
+    /*
+     * Background samples since the last loop, oldest first.  Only the first
+     * sampleCount entries of the arrays are used; they are never reallocated.
+     */
+    public int sampleCount = 0;
+    /** FPGA time of each sample, seconds */
+    public final double[] sampleTimestamps = new double[kMaxSamples];
+    public final double[] sampleVoltages = new double[kMaxSamples];
+    public final double[] sampleTotalCurrents = new double[kMaxSamples];
+
+    @Override
+    public void toLog(LogTable table) {
+      table.put("Type", type);
+      table.put("Voltage", voltage);
+      table.put("TotalCurrent", totalCurrent);
+      table.put("Temperature", temperature);
+      table.put("ChannelCurrents", channelCurrents);
+      table.put("SampleTimestamps", sampleTimestamps, sampleCount);
+      table.put("SampleVoltages", sampleVoltages, sampleCount);
+      table.put("SampleTotalCurrents", sampleTotalCurrents, sampleCount);
+    }
+
+    @Override
+    public void fromLog(LogTable table) {
+      type = table.get("Type", type);
+      voltage = table.get("Voltage", voltage);
+      totalCurrent = table.get("TotalCurrent", totalCurrent);
+      temperature = table.get("Temperature", temperature);
+      channelCurrents = table.get("ChannelCurrents", channelCurrents);
+      sampleCount = table.getInto("SampleTimestamps", sampleTimestamps);
+      sampleCount = Math.min(sampleCount, table.getInto("SampleVoltages", sampleVoltages));
+      sampleCount = Math.min(sampleCount, table.getInto("SampleTotalCurrents", sampleTotalCurrents));
+    }
+  }
+
+  public default void updateInputs(Inputs inputs) {}
+}
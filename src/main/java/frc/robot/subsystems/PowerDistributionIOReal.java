@@ -0,0 +1,93 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems;
+
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.PowerDistribution;
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * The CTRE PDP (CAN id 0) or Rev PDH (CAN id 1).  Every read of the board
+ * blocks on CAN, so a Notifier reads it in the background at sampleRateHz
+ * and updateInputs only copies out what has been read.  After construction
+ * m_pd is only used from the Notifier thread.
+ */
+public class PowerDistributionIOReal implements PowerDistributionIO {
+  /* the oldest samples are overwritten if a loop is slower than this many */
+  private static final int kMaxSamples = Inputs.kMaxSamples;
+
+  private final PowerDistribution m_pd = new PowerDistribution();
+  private final String m_type = m_pd.getType().toString(); // kCTRE or kRev
+  private final Notifier m_notifier = new Notifier(this::sample);
+  /* guarded by this; a ring buffer of the samples not yet copied out */
+  private final double[] m_timestamps = new double[kMaxSamples];
+  private final double[] m_voltages = new double[kMaxSamples];
+  private final double[] m_totalCurrents = new double[kMaxSamples];
+  private int m_head = 0;
+  private int m_sampleCount = 0;
+  private double m_voltage;
+  private double m_totalCurrent;
+  private double m_temperature;
+  private final double[] m_channelCurrents;
+  /* the Notifier thread's reading, copied to m_channelCurrents under the lock */
+  private final double[] m_sampledChannelCurrents;
+
+  /** @param sampleRateHz - how often to read the board */
+  public PowerDistributionIOReal(double sampleRateHz) {
+    m_channelCurrents = new double[m_pd.getNumChannels()];
+    m_sampledChannelCurrents = new double[m_channelCurrents.length];
+    // read once now, so the first updateInputs has something to copy
+    sample();
+    m_notifier.setName("PowerDistribution Sampler");
+    m_notifier.startPeriodic(1.0 / sampleRateHz);
+  }
+
+  private void sample() {
+    double timestamp = Timer.getFPGATimestamp();
+    double voltage = m_pd.getVoltage();
+    double totalCurrent = m_pd.getTotalCurrent();
+    double temperature = m_pd.getTemperature();
+    // one call per channel into our own array; getAllCurrents() makes a new array every time
+    for (int channel = 0; channel < m_sampledChannelCurrents.length; channel++) {
+      m_sampledChannelCurrents[channel] = m_pd.getCurrent(channel);
+    }
+    synchronized (this) {
+      int index = (m_head + m_sampleCount) % kMaxSamples;
+      if (m_sampleCount < kMaxSamples) {
+        m_sampleCount++;
+      } else {
+        m_head = (m_head + 1) % kMaxSamples;
+      }
+      m_timestamps[index] = timestamp;
+      m_voltages[index] = voltage;
+      m_totalCurrents[index] = totalCurrent;
+      m_voltage = voltage;
+      m_totalCurrent = totalCurrent;
+      m_temperature = temperature;
+      System.arraycopy(m_sampledChannelCurrents, 0, m_channelCurrents, 0, m_channelCurrents.length);
+    }
+  }
+
+  @Override
+  public synchronized void updateInputs(Inputs inputs) {
+    inputs.type = m_type;
+    inputs.voltage = m_voltage;
+    inputs.totalCurrent = m_totalCurrent;
+    inputs.temperature = m_temperature;
+    if (inputs.channelCurrents.length != m_channelCurrents.length) {
+      inputs.channelCurrents = new double[m_channelCurrents.length];
+    }
+    System.arraycopy(m_channelCurrents, 0, inputs.channelCurrents, 0, m_channelCurrents.length);
+    inputs.sampleCount = m_sampleCount;
+    for (int i = 0; i < m_sampleCount; i++) {
+      int index = (m_head + i) % kMaxSamples;
+      inputs.sampleTimestamps[i] = m_timestamps[index];
+      inputs.sampleVoltages[i] = m_voltages[index];
+      inputs.sampleTotalCurrents[i] = m_totalCurrents[index];
+    }
+    m_head = 0;
+    m_sampleCount = 0;
+  }
+}
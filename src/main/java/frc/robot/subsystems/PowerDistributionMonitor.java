@@ -4,33 +4,87 @@
 
 package frc.robot.subsystems;
 
-import edu.wpi.first.wpilibj.PowerDistribution;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
-import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import frc.lib.util.BrownoutForecaster;
+import frc.robot.Constants.PowerDistributionConstants;
+import frc.robot.logging.InputLogger;
+import frc.robot.telemetry.BooleanSignal;
+import frc.robot.telemetry.DoubleSignal;
+import frc.robot.telemetry.Telemetry;
 
 /**
  * Send voltage and current readings from power distribution board,
  * either the CTRE PDP or the RevRobotics PDH, on the smartdashboard.
+ * Every reading is recorded in the DataLog each loop; the individual
+ * channel currents only go to the dashboard when debugLevel is 3 or more.
  * They must be using the expected CAN numbers - 0 for PDP, 1 for PDH.
+ *
+ * The board is read in the background (see PowerDistributionIOReal), and
+ * those samples feed a short-term forecast of the battery voltage.  When the
+ * forecast drops below the brownout voltage, the brownout listeners are told,
+ * so subsystems can shed load before the roboRIO disables their outputs, and
+ * they are told again when it recovers.  RobotContainer has Swerve slow down.
+ *
+ * The channel currents are also added up per mechanism (see
+ * PowerDistributionConstants.energyChannels) from when a match is enabled
+ * until it is disabled after teleop, when a summary is logged.
  * 
  * To use this, create a PowerDistributionMonitor in RobotContainer.
  * You do not have to use it after creating it (but you must retain
  * its value so the garbage collector does not remove it).
  */
-public class PowerDistributionMonitor extends SubsystemBase {
-  private final PowerDistribution m_pd = new PowerDistribution();
-  private final PowerDistribution.ModuleType m_type = m_pd.getType(); // kCTRE or kRev
-  private final int m_numChannels = m_pd.getNumChannels();
+public class PowerDistributionMonitor extends ProfiledSubsystem {
+  /* clear the warning only once the forecast is this far above the brownout voltage */
+  private static final double kWarningHysteresisVolts = 0.5;
+  /* longer gaps (e.g., a stalled loop) are counted as this, rather than guessing what happened */
+  private static final double kMaxEnergyStepSeconds = 0.1;
+  private static final double kEnergyMinDebugLevel = 1.0;
+  private static final double kEnergyPublishRateHz = 1.0;
+  private final PowerDistributionIO m_io;
+  private final PowerDistributionIO.Inputs m_inputs = new PowerDistributionIO.Inputs();
+  private String m_type; // kCTRE or kRev
+  private int m_numChannels;
   private double m_voltageThreshhold = 7.0;
   private double m_totalCurrentThreshhold = 180.0;
   private int m_underVoltageCount = 0;
   private int m_overTotalCurrentCount = 0;
+  private DoubleSignal m_voltageTelemetry;
+  private DoubleSignal m_underVoltageCountTelemetry;
+  private DoubleSignal m_totalCurrentTelemetry;
+  private DoubleSignal m_overTotalCurrentCountTelemetry;
+  private DoubleSignal m_temperatureTelemetry;
+  private DoubleSignal[] m_channelTelemetry;
+  private final BrownoutForecaster m_forecaster;
+  private final List<Consumer<Boolean>> m_brownoutListeners = new CopyOnWriteArrayList<>();
+  private boolean m_brownoutPredicted = false;
+  private int m_brownoutWarningCount = 0;
+  private final EnergyAccountant m_energyAccountant = new EnergyAccountant(
+      PowerDistributionConstants.energySubsystems, PowerDistributionConstants.energyChannels);
+  private boolean m_wasEnabled = false;
+  private boolean m_wasAutonomous = false;
+  private boolean m_matchInProgress = false;
+  private double m_lastSampleTimestamp = Double.NaN;
+  /* indexed like PowerDistributionConstants.energySubsystems */
+  private final DoubleSignal[] m_ampHoursTelemetry = new DoubleSignal[PowerDistributionConstants.energySubsystems.length];
+  private final DoubleSignal[] m_wattHoursTelemetry = new DoubleSignal[PowerDistributionConstants.energySubsystems.length];
+  private final DoubleSignal[] m_peakAmpsTelemetry = new DoubleSignal[PowerDistributionConstants.energySubsystems.length];
+  private final DoubleSignal[] m_rmsAmpsTelemetry = new DoubleSignal[PowerDistributionConstants.energySubsystems.length];
+  private final DoubleSignal m_forecastVoltageTelemetry = Telemetry.addDouble("Forecast Voltage", 0.0, 10.0);
+  private final DoubleSignal m_resistanceTelemetry = Telemetry.addDouble("Battery Resistance", 2.0, 1.0);
+  private final BooleanSignal m_brownoutPredictedTelemetry = Telemetry.addBoolean("Brownout Predicted", 0.0, 10.0);
+  private final DoubleSignal m_brownoutWarningCountTelemetry = Telemetry.addDouble("Brownout Warning Count", 0.0, 1.0);
   /** 
    * Monitor the power distribution board via SmartDashboard.
    * This will also report the number of times the voltage is below 7V
    * and the number of times the total current is over 180A.
    */
-  public PowerDistributionMonitor() {}
+  public PowerDistributionMonitor() {
+    this(7.0, 180.0);
+  }
 
   /**
    * Monitor power distribution board with user-defined threshholds for counting
@@ -43,31 +97,151 @@ public class PowerDistributionMonitor extends SubsystemBase {
    * above this will be reported.
    */
   public PowerDistributionMonitor(double voltageThreshhold, double totalCurrentThreshhold) {
+    this(voltageThreshhold, totalCurrentThreshhold, PowerDistributionConstants.sampleRateHz);
+  }
+
+  /**
+   * @param sampleRateHz - how often to read the board in the background
+   */
+  public PowerDistributionMonitor(double voltageThreshhold, double totalCurrentThreshhold, double sampleRateHz) {
     m_voltageThreshhold = voltageThreshhold;
     m_totalCurrentThreshhold = totalCurrentThreshhold;
+    m_forecaster = new BrownoutForecaster(PowerDistributionConstants.forecastWindowSeconds, sampleRateHz,
+        PowerDistributionConstants.nominalResistanceOhms);
+    // HAL simulation stands in for the board in simulation
+    m_io = InputLogger.getMode() == InputLogger.Mode.kReplay ? new PowerDistributionIO() {} : new PowerDistributionIOReal(sampleRateHz);
+    // the first reading gives the type and channel count the telemetry names need
+    updateInputs();
+    m_type = m_inputs.type;
+    m_numChannels = m_inputs.channelCurrents.length;
+    createTelemetry();
+  }
+
+  /* the names depend on the threshholds and board type, so this must wait until they are known */
+  private void createTelemetry(){
+    m_channelTelemetry = new DoubleSignal[m_numChannels];
+    m_voltageTelemetry = Telemetry.addDouble(m_type + " Voltage", 0.0, 10.0);
+    m_underVoltageCountTelemetry = Telemetry.addDouble(m_type + " Under " + m_voltageThreshhold + "V. Count", 0.0, 1.0);
+    m_totalCurrentTelemetry = Telemetry.addDouble(m_type + " Total Current", 0.0, 10.0);
+    m_overTotalCurrentCountTelemetry = Telemetry.addDouble(m_type + " Over " + m_totalCurrentThreshhold + "A. Count", 0.0, 1.0);
+    m_temperatureTelemetry = Telemetry.addDouble(m_type + " Temperature", 0.0, 1.0);
+    for(int channel = 0 ; channel < m_numChannels ; channel++){
+      m_channelTelemetry[channel] = Telemetry.addDouble(m_type + " Ch. " + channel, 3.0, 5.0);
+    }
+    for(int i = 0 ; i < m_ampHoursTelemetry.length ; i++){
+      String name = "Energy/" + PowerDistributionConstants.energySubsystems[i];
+      m_ampHoursTelemetry[i] = Telemetry.addDouble(name + " Ah", kEnergyMinDebugLevel, kEnergyPublishRateHz);
+      m_wattHoursTelemetry[i] = Telemetry.addDouble(name + " Wh", kEnergyMinDebugLevel, kEnergyPublishRateHz);
+      m_peakAmpsTelemetry[i] = Telemetry.addDouble(name + " Peak A", kEnergyMinDebugLevel, kEnergyPublishRateHz);
+      m_rmsAmpsTelemetry[i] = Telemetry.addDouble(name + " RMS A", kEnergyMinDebugLevel, kEnergyPublishRateHz);
+    }
   }
  
   @Override
-  public void periodic() {
+  protected void profiledPeriodic() {
     // This method will be called once per scheduler run
-    double voltage = m_pd.getVoltage();
+    updateInputs();
+    double voltage = m_inputs.voltage;
     if (voltage < m_voltageThreshhold){
       m_underVoltageCount++;
     }
-    SmartDashboard.putNumber(m_type + " Voltage", voltage);
-    SmartDashboard.putNumber(m_type + " Under " + m_voltageThreshhold + "V. Count", m_underVoltageCount);
+    m_voltageTelemetry.set(voltage);
+    m_underVoltageCountTelemetry.set(m_underVoltageCount);
 
-    double totalCurrent = m_pd.getTotalCurrent();
+    double totalCurrent = m_inputs.totalCurrent;
     if (totalCurrent > m_totalCurrentThreshhold){
       m_overTotalCurrentCount++;
     }
-    SmartDashboard.putNumber(m_type + " Total Current", totalCurrent);
-    SmartDashboard.putNumber(m_type + " Over " + m_totalCurrentThreshhold + "A. Count", m_overTotalCurrentCount);
+    m_totalCurrentTelemetry.set(totalCurrent);
+    m_overTotalCurrentCountTelemetry.set(m_overTotalCurrentCount);
     
-    SmartDashboard.putNumber(m_type + " Temperature", m_pd.getTemperature());
+    m_temperatureTelemetry.set(m_inputs.temperature);
+
+    updateForecast();
+    updateEnergy();
     
-    for(int channel = 0 ; channel < m_numChannels ; channel++){
-      SmartDashboard.putNumber(m_type + " Ch. " + channel, m_pd.getCurrent(channel));
+    double[] channelCurrents = m_inputs.channelCurrents;
+    for(int channel = 0 ; channel < Math.min(m_numChannels, channelCurrents.length) ; channel++){
+      m_channelTelemetry[channel].set(channelCurrents[channel]);
     }
   }
+
+  /**
+   * Run listener on the robot thread with true each time a brownout becomes
+   * predicted, and with false when the forecast has recovered.
+   */
+  public void addBrownoutListener(Consumer<Boolean> listener){
+    m_brownoutListeners.add(listener);
+  }
+
+  /** @return true while the voltage is forecast to drop below the brownout voltage */
+  public boolean isBrownoutPredicted(){
+    return m_brownoutPredicted;
+  }
+
+  private void updateForecast(){
+    for (int i = 0; i < m_inputs.sampleCount; i++){
+      m_forecaster.add(m_inputs.sampleTimestamps[i], m_inputs.sampleVoltages[i], m_inputs.sampleTotalCurrents[i]);
+    }
+    m_forecaster.update();
+    double forecastVoltage = m_forecaster.forecast(PowerDistributionConstants.forecastHorizonSeconds);
+    if (!m_brownoutPredicted && forecastVoltage < PowerDistributionConstants.brownoutVoltage){
+      m_brownoutPredicted = true;
+      m_brownoutWarningCount++;
+      DriverStation.reportWarning("Brownout predicted: " + forecastVoltage + "V. in "
+          + PowerDistributionConstants.forecastHorizonSeconds + "s.", false);
+      for (Consumer<Boolean> listener : m_brownoutListeners){
+        listener.accept(true);
+      }
+    } else if (m_brownoutPredicted
+        && forecastVoltage > PowerDistributionConstants.brownoutVoltage + kWarningHysteresisVolts){
+      m_brownoutPredicted = false;
+      for (Consumer<Boolean> listener : m_brownoutListeners){
+        listener.accept(false);
+      }
+    }
+    m_forecastVoltageTelemetry.set(forecastVoltage);
+    m_resistanceTelemetry.set(m_forecaster.getResistanceOhms());
+    m_brownoutPredictedTelemetry.set(m_brownoutPredicted);
+    m_brownoutWarningCountTelemetry.set(m_brownoutWarningCount);
+  }
+
+  private void updateEnergy(){
+    boolean enabled = DriverStation.isEnabled();
+    if (enabled && !m_wasEnabled && (DriverStation.isAutonomous() || !m_matchInProgress)){
+      // a match starts with autonomous; teleop alone (e.g., practice) counts as a match too
+      m_energyAccountant.reset();
+      m_matchInProgress = true;
+    } else if (!enabled && m_wasEnabled && m_matchInProgress && !m_wasAutonomous){
+      m_energyAccountant.logSummary();
+      m_matchInProgress = false;
+    }
+    m_wasEnabled = enabled;
+    m_wasAutonomous = DriverStation.isAutonomous();
+
+    int sampleCount = m_inputs.sampleCount;
+    if (sampleCount == 0){
+      return;
+    }
+    double timestamp = m_inputs.sampleTimestamps[sampleCount - 1];
+    if (enabled && m_matchInProgress && !Double.isNaN(m_lastSampleTimestamp)){
+      double dt = Math.min(timestamp - m_lastSampleTimestamp, kMaxEnergyStepSeconds);
+      m_energyAccountant.accumulate(m_inputs.channelCurrents, m_inputs.voltage, dt);
+      for(int i = 0 ; i < m_ampHoursTelemetry.length ; i++){
+        m_ampHoursTelemetry[i].set(m_energyAccountant.getAmpHours(i));
+        m_wattHoursTelemetry[i].set(m_energyAccountant.getWattHours(i));
+        m_peakAmpsTelemetry[i].set(m_energyAccountant.getPeakAmps(i));
+        m_rmsAmpsTelemetry[i].set(m_energyAccountant.getRmsAmps(i));
+      }
+    }
+    m_lastSampleTimestamp = timestamp;
+  }
+
+  /**
+   * Read the board (or, in replay, the recorded values) and log the readings.
+   */
+  private void updateInputs(){
+    m_io.updateInputs(m_inputs);
+    InputLogger.processInputs("PowerDistribution", m_inputs);
+  }
 }
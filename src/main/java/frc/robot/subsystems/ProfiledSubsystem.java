@@ -0,0 +1,39 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems;
+
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.LoopProfiler;
+
+/**
+ * A subsystem whose periodic() is timed by LoopProfiler.  Subsystems override
+ * profiledPeriodic() instead of periodic().
+ */
+public abstract class ProfiledSubsystem extends SubsystemBase {
+  private final LoopProfiler.Section m_periodicSection;
+
+  /** Time periodic() under the class name, e.g. "Swerve.periodic()" */
+  protected ProfiledSubsystem() {
+    m_periodicSection = LoopProfiler.addSection(getClass().getSimpleName() + ".periodic()");
+  }
+
+  /** @param profileName - for subsystems made more than once, e.g. "SparkMaxMotor shoulder" */
+  protected ProfiledSubsystem(String profileName) {
+    m_periodicSection = LoopProfiler.addSection(profileName + ".periodic()");
+  }
+
+  @Override
+  public final void periodic() {
+    m_periodicSection.start();
+    try {
+      profiledPeriodic();
+    } finally {
+      m_periodicSection.stop();
+    }
+  }
+
+  /** This method will be called once per scheduler run */
+  protected void profiledPeriodic() {}
+}
@@ -4,13 +4,12 @@
 
 package frc.robot.subsystems;
 
-import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants;
 /**
  * Two motor shooter for Notes.
  * Motors should run at same speed, in opposite directions
  */
-public class Shooter extends SubsystemBase {
+public class Shooter extends ProfiledSubsystem {
   private final SparkMaxMotor m_leftMotor;
   private final SparkMaxMotor m_rightMotor;
   private double m_rpm;
@@ -59,7 +58,7 @@ public class Shooter extends SubsystemBase {
   }
 
   @Override
-  public void periodic() {}
+  protected void profiledPeriodic() {}
 
   public void stop(){
     setPercentSpeed(0.0);
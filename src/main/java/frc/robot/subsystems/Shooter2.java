@@ -6,7 +6,6 @@ package frc.robot.subsystems;
 
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.InstantCommand;
-import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import edu.wpi.first.wpilibj2.command.WaitCommand;
 import edu.wpi.first.wpilibj2.command.WaitUntilCommand;
 import frc.robot.Constants;
@@ -16,7 +15,7 @@ import frc.robot.Constants;
  * of the main intake motors so the main motors can get up to speed before
  * contacting the note.
  */
-public class Shooter2 extends SubsystemBase {
+public class Shooter2 extends ProfiledSubsystem {
   // For all motors, positive voltage intakes, negative shoots.
   SparkMaxMotor m_lowerRoller;
   SparkMaxMotor m_upperRoller;
@@ -83,7 +82,7 @@ public class Shooter2 extends SubsystemBase {
   }
 
   @Override
-  public void periodic() {
+  protected void profiledPeriodic() {
     // This method will be called once per scheduler run
   }
 
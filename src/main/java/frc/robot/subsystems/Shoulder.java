@@ -5,10 +5,11 @@
 package frc.robot.subsystems;
 
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
-import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants;
+import frc.robot.TunableGains;
+import frc.robot.TuningVariables;
 
-public class Shoulder extends SubsystemBase {
+public class Shoulder extends ProfiledSubsystem {
   // left motor will be the main motor: the right will follow it.  Do not set speed on right one.
   private final SparkMaxMotor m_leftMotor = new SparkMaxMotor(Constants.ShoulderConstants.Left.kCANId,
     Constants.ShoulderConstants.encoderRotationsPerFinalRotation,
@@ -21,13 +22,14 @@ public class Shoulder extends SubsystemBase {
     m_leftMotor.setToBrakeOnIdle(true);
     m_rightMotor.setToBrakeOnIdle(true);
     m_leftMotor.addFollower(m_rightMotor, true);
-    m_leftMotor.setPIDCoefficients(Constants.ShoulderConstants.PID.kP,
-       Constants.ShoulderConstants.PID.kI,
-       Constants.ShoulderConstants.PID.kD,
-       Constants.ShoulderConstants.PID.kIZone,
-       Constants.ShoulderConstants.PID.kFeedForward,
-       Constants.ShoulderConstants.PID.kMinOutput,
-       Constants.ShoulderConstants.PID.kMaxOutput);
+    // gains come from TuningVariables, so they can be tuned from the dashboard
+    TunableGains.create(gains -> m_leftMotor.setPIDCoefficients(gains[0], gains[1], gains[2],
+        Constants.ShoulderConstants.PID.kIZone,
+        gains[3],
+        Constants.ShoulderConstants.PID.kMinOutput,
+        Constants.ShoulderConstants.PID.kMaxOutput),
+      TuningVariables.shoulderKP, TuningVariables.shoulderKI, TuningVariables.shoulderKD,
+      TuningVariables.shoulderKFeedForward);
     m_leftMotor.setAndEnableLowerSoftLimit(Constants.ShoulderConstants.lowerSoftLimit);
     m_leftMotor.setAndEnableUpperSoftLimit(Constants.ShoulderConstants.upperSoftLimit);
   }
@@ -57,7 +59,7 @@ public class Shoulder extends SubsystemBase {
   }
 
   @Override
-  public void periodic() {
+  protected void profiledPeriodic() {
     // This method will be called once per scheduler run
     SmartDashboard.putNumber("Shoulder Position", getPosition());
   } 
@@ -0,0 +1,74 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems;
+
+import com.revrobotics.CANSparkBase.ControlType;
+import com.revrobotics.CANSparkBase.IdleMode;
+import com.revrobotics.CANSparkBase.SoftLimitDirection;
+
+import frc.robot.logging.LogTable;
+import frc.robot.logging.LoggableInputs;
+
+/**
+ * The Spark MAX behind a SparkMaxMotor.  Positions and velocities are in encoder
+ * units (rotations and RPM); SparkMaxMotor converts them.  In replay
+ * SparkMaxMotor uses these do-nothing defaults while its inputs come from the log.
+ */
+public interface SparkMaxIO {
+  public static class Inputs implements LoggableInputs {
+    public double encoderPosition = 0.0;
+    public double encoderVelocity = 0.0;
+    public double outputCurrent = 0.0;
+    public double appliedOutput = 0.0;
+    public double temperature = 0.0;
+
+    @Override
+    public void toLog(LogTable table) {
+      table.put("EncoderPosition", encoderPosition);
+      table.put("EncoderVelocity", encoderVelocity);
+      table.put("OutputCurrent", outputCurrent);
+      table.put("AppliedOutput", appliedOutput);
+      table.put("Temperature", temperature);
+    }
+
+    @Override
+    public void fromLog(LogTable table) {
+      encoderPosition = table.get("EncoderPosition", encoderPosition);
+      encoderVelocity = table.get("EncoderVelocity", encoderVelocity);
+      outputCurrent = table.get("OutputCurrent", outputCurrent);
+      appliedOutput = table.get("AppliedOutput", appliedOutput);
+      temperature = table.get("Temperature", temperature);
+    }
+  }
+
+  /** Fill in inputs with the Spark MAX's latest readings */
+  public default void updateInputs(Inputs inputs) {}
+
+  public default void setVoltage(double volts) {}
+
+  /** @param percent - duty cycle, -1.0 to 1.0 */
+  public default void set(double percent) {}
+
+  /** Closed loop control on the Spark MAX, in encoder units */
+  public default void setReference(double value, ControlType controlType) {}
+
+  public default void setPIDCoefficients(double kP, double kI, double kD, double kIZone, double kFeedForward, double kMinOutput, double kMaxOutput) {}
+
+  /** Smart motion constraints, in encoder units */
+  public default void setSmartMotion(double maxVelocity, double minOutputVelocity, double maxAcceleration, double allowedClosedLoopError, int slot) {}
+
+  public default void setIdleMode(IdleMode idleMode) {}
+
+  /** @param limit - encoder position */
+  public default void setSoftLimit(SoftLimitDirection direction, float limit) {}
+
+  public default void enableSoftLimit(SoftLimitDirection direction, boolean enable) {}
+
+  /** Drive this motor from leader's output; leader is the same kind of SparkMaxIO */
+  public default void follow(SparkMaxIO leader, boolean invert) {}
+
+  /** Wait for the settings made so far (e.g., the encoder's) to reach the Spark MAX */
+  public default void awaitConfiguration() {}
+}
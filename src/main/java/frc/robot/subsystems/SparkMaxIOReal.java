@@ -0,0 +1,196 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems;
+
+import java.util.function.BooleanSupplier;
+
+import com.revrobotics.CANSparkBase.ControlType;
+import com.revrobotics.CANSparkBase.IdleMode;
+import com.revrobotics.CANSparkBase.SoftLimitDirection;
+import com.revrobotics.CANSparkLowLevel.MotorType;
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.REVLibError;
+import com.revrobotics.RelativeEncoder;
+import com.revrobotics.SparkPIDController;
+import com.revrobotics.SparkRelativeEncoder;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import frc.robot.CANDevices;
+import frc.robot.DeviceConfigurator;
+import frc.robot.StatusFrameManager;
+
+/**
+ * A real Spark MAX on the CAN bus.  Each setting is a blocking parameter
+ * write, so the ones made at startup are handed to DeviceConfigurator, which
+ * makes them in the background, in order, checks each by reading it back, and
+ * retries.  Settings made after startup, and control requests (set,
+ * setVoltage, setReference), go straight to the device, in the order they
+ * are made, unless the startup settings are still being made (see configure()).
+ */
+public class SparkMaxIOReal implements SparkMaxIO {
+  /* relative to the setting; the Spark MAX stores parameters as floats */
+  private static final double kVerifyTolerance = 1e-6;
+  private final CANSparkMax m_CANSparkMax;
+  /* a brushed motor's encoder is set up in the background, after the factory defaults */
+  private volatile RelativeEncoder m_RelativeEncoder;
+  private final SparkPIDController m_SparkPIDController;
+  private final String m_name;
+  private final DeviceConfigurator.Device m_device;
+  /* FPGA time of the last updateInputs() whose reads succeeded, for CANDevices */
+  private double m_lastGoodReadSeconds = Timer.getFPGATimestamp();
+
+  /**
+   * @param encoderType - ignored for brushless motors, which use the built-in encoder;
+   * null for a brushed motor with no encoder
+   */
+  public SparkMaxIOReal(int canId, MotorType motorType, SparkRelativeEncoder.Type encoderType, int encoderCountsPerRevolution) {
+    m_CANSparkMax = new CANSparkMax(canId, motorType);
+    m_name = "Spark MAX " + canId;
+    m_device = DeviceConfigurator.addDevice(m_name);
+    m_device.configure("factory defaults", () -> m_CANSparkMax.restoreFactoryDefaults() == REVLibError.kOk);
+    StatusFrameManager.registerSparkMax(m_CANSparkMax);
+    CANDevices.registerSparkMax(m_name, () -> m_lastGoodReadSeconds);
+    if (motorType == MotorType.kBrushless){
+      // the built-in encoder needs no parameters
+      m_RelativeEncoder = m_CANSparkMax.getEncoder();
+      SmartDashboard.putString("relative encoder type = ", m_RelativeEncoder.toString());
+    } else if (encoderType != null) {
+      m_device.configure("encoder", () -> {
+        RelativeEncoder encoder = m_CANSparkMax.getEncoder(encoderType, encoderCountsPerRevolution);
+        if (encoder.getCountsPerRevolution() != encoderCountsPerRevolution) {
+          return false;
+        }
+        m_RelativeEncoder = encoder;
+        SmartDashboard.putString("relative encoder type = ", encoder.toString());
+        return true;
+      });
+    } else {
+      m_RelativeEncoder = null;
+    }
+    m_SparkPIDController = m_CANSparkMax.getPIDController();
+  }
+
+  private static boolean matches(double actual, double expected) {
+    return Math.abs(actual - expected) <= kVerifyTolerance * Math.max(1.0, Math.abs(expected));
+  }
+
+  @Override
+  public void updateInputs(Inputs inputs) {
+    // these read values the Spark MAX already sent, so they cost no CAN traffic
+    RelativeEncoder encoder = m_RelativeEncoder;
+    if (encoder != null) {
+      inputs.encoderPosition = encoder.getPosition();
+      inputs.encoderVelocity = encoder.getVelocity();
+    }
+    inputs.outputCurrent = m_CANSparkMax.getOutputCurrent();
+    inputs.appliedOutput = m_CANSparkMax.getAppliedOutput();
+    inputs.temperature = m_CANSparkMax.getMotorTemperature();
+    // The last error is shared by every thread using this Spark MAX, but after
+    // startup only this (main) thread does
+    if (m_CANSparkMax.getLastError() == REVLibError.kOk) {
+      m_lastGoodReadSeconds = Timer.getFPGATimestamp();
+    }
+  }
+
+  @Override
+  public void setVoltage(double volts) {
+    m_CANSparkMax.setVoltage(volts);
+  }
+
+  @Override
+  public void set(double percent) {
+    m_CANSparkMax.set(percent);
+  }
+
+  @Override
+  public void setReference(double value, ControlType controlType) {
+    m_SparkPIDController.setReference(value, controlType);
+  }
+
+  @Override
+  public void setPIDCoefficients(double kP, double kI, double kD, double kIZone, double kFeedForward, double kMinOutput, double kMaxOutput) {
+    configure("PID coefficients", () -> {
+      m_SparkPIDController.setP(kP);
+      m_SparkPIDController.setI(kI);
+      m_SparkPIDController.setD(kD);
+      m_SparkPIDController.setIZone(kIZone);
+      m_SparkPIDController.setFF(kFeedForward);
+      m_SparkPIDController.setOutputRange(kMinOutput, kMaxOutput);
+    }, () -> matches(m_SparkPIDController.getP(), kP)
+        && matches(m_SparkPIDController.getI(), kI)
+        && matches(m_SparkPIDController.getD(), kD)
+        && matches(m_SparkPIDController.getIZone(), kIZone)
+        && matches(m_SparkPIDController.getFF(), kFeedForward)
+        && matches(m_SparkPIDController.getOutputMin(), kMinOutput)
+        && matches(m_SparkPIDController.getOutputMax(), kMaxOutput));
+  }
+
+  @Override
+  public void setSmartMotion(double maxVelocity, double minOutputVelocity, double maxAcceleration, double allowedClosedLoopError, int slot) {
+    configure("smart motion", () -> {
+      m_SparkPIDController.setSmartMotionMaxVelocity(maxVelocity, slot);
+      m_SparkPIDController.setSmartMotionMinOutputVelocity(minOutputVelocity, slot);
+      m_SparkPIDController.setSmartMotionMaxAccel(maxAcceleration, slot);
+      m_SparkPIDController.setSmartMotionAllowedClosedLoopError(allowedClosedLoopError, slot);
+    }, () -> matches(m_SparkPIDController.getSmartMotionMaxVelocity(slot), maxVelocity)
+        && matches(m_SparkPIDController.getSmartMotionMinOutputVelocity(slot), minOutputVelocity)
+        && matches(m_SparkPIDController.getSmartMotionMaxAccel(slot), maxAcceleration)
+        && matches(m_SparkPIDController.getSmartMotionAllowedClosedLoopError(slot), allowedClosedLoopError));
+  }
+
+  @Override
+  public void setIdleMode(IdleMode idleMode) {
+    configure("idle mode", () -> m_CANSparkMax.setIdleMode(idleMode),
+        () -> m_CANSparkMax.getIdleMode() == idleMode);
+  }
+
+  @Override
+  public void setSoftLimit(SoftLimitDirection direction, float limit) {
+    configure("soft limit", () -> m_CANSparkMax.setSoftLimit(direction, limit),
+        () -> m_CANSparkMax.getSoftLimit(direction) == limit);
+  }
+
+  @Override
+  public void enableSoftLimit(SoftLimitDirection direction, boolean enable) {
+    configure("soft limit enable", () -> m_CANSparkMax.enableSoftLimit(direction, enable),
+        () -> m_CANSparkMax.isSoftLimitEnabled(direction) == enable);
+  }
+
+  @Override
+  public void follow(SparkMaxIO leader, boolean invert) {
+    CANSparkMax leaderSparkMax = ((SparkMaxIOReal) leader).m_CANSparkMax;
+    configure("follow", () -> m_CANSparkMax.follow(leaderSparkMax, invert), m_CANSparkMax::isFollower);
+    StatusFrameManager.registerSparkMaxLeader(leaderSparkMax);
+  }
+
+  @Override
+  public void awaitConfiguration() {
+    m_device.await(DeviceConfigurator.kDefaultTimeoutSeconds);
+  }
+
+  /**
+   * Make a setting.  During startup it is queued behind this device's other
+   * settings and checked by reading it back.  After startup it is written
+   * now, so it reaches the Spark MAX before any control request that follows;
+   * but if startup timed out with this device's settings still queued, they
+   * must go first, and waiting for them would stall the robot loop, so it is
+   * queued behind them with a warning instead.
+   */
+  private void configure(String what, Runnable write, BooleanSupplier verify) {
+    if (DeviceConfigurator.isStartupFinished() && m_device.await(0.0)) {
+      write.run();
+      return;
+    }
+    if (DeviceConfigurator.isStartupFinished()) {
+      DriverStation.reportWarning(m_name + " is still being configured; " + what + " will be made after", false);
+    }
+    m_device.configure(what, () -> {
+      write.run();
+      return verify.getAsBoolean();
+    });
+  }
+}
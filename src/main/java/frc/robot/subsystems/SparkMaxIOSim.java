@@ -0,0 +1,119 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems;
+
+import com.revrobotics.CANSparkBase.ControlType;
+import com.revrobotics.CANSparkBase.SoftLimitDirection;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.util.Units;
+
+/**
+ * An idealized Spark MAX: the motor instantly runs at whatever speed it is
+ * asked for (velocity control), at its free speed scaled by the duty cycle
+ * (open loop), or toward the target at the smart motion cruise velocity.
+ * Good enough to exercise commands and logging, not to tune gains.
+ */
+public class SparkMaxIOSim implements SparkMaxIO {
+  private static final double kLoopPeriodSeconds = 0.02;
+  private static final double kFreeSpeedRPM = Units.radiansPerSecondToRotationsPerMinute(DCMotor.getNEO(1).freeSpeedRadPerSec);
+
+  private ControlType m_controlType = ControlType.kDutyCycle;
+  private double m_setpoint = 0.0;
+  private double m_smartMotionMaxVelocity = kFreeSpeedRPM;
+  private double m_position = 0.0;
+  private double m_velocity = 0.0;
+  private double m_appliedOutput = 0.0;
+  private double m_forwardSoftLimit = 0.0;
+  private double m_reverseSoftLimit = 0.0;
+  private boolean m_forwardSoftLimitEnabled = false;
+  private boolean m_reverseSoftLimitEnabled = false;
+  private SparkMaxIOSim m_leader;
+  private boolean m_invertFollower;
+
+  @Override
+  public void updateInputs(Inputs inputs) {
+    if (m_leader != null) {
+      m_velocity = m_invertFollower ? -m_leader.m_velocity : m_leader.m_velocity;
+    } else {
+      switch (m_controlType) {
+        case kVelocity:
+          m_velocity = m_setpoint;
+          break;
+        case kSmartMotion:
+        case kPosition:
+          double step = m_smartMotionMaxVelocity / 60.0 * kLoopPeriodSeconds;
+          m_velocity = MathUtil.clamp(m_setpoint - m_position, -step, step) / kLoopPeriodSeconds * 60.0;
+          break;
+        default:
+          m_velocity = m_setpoint * kFreeSpeedRPM;
+          break;
+      }
+    }
+    m_position += m_velocity / 60.0 * kLoopPeriodSeconds;
+    if (m_forwardSoftLimitEnabled && m_position > m_forwardSoftLimit) {
+      m_position = m_forwardSoftLimit;
+      m_velocity = 0.0;
+    }
+    if (m_reverseSoftLimitEnabled && m_position < m_reverseSoftLimit) {
+      m_position = m_reverseSoftLimit;
+      m_velocity = 0.0;
+    }
+    m_appliedOutput = MathUtil.clamp(m_velocity / kFreeSpeedRPM, -1.0, 1.0);
+
+    inputs.encoderPosition = m_position;
+    inputs.encoderVelocity = m_velocity;
+    inputs.outputCurrent = 0.0;
+    inputs.appliedOutput = m_appliedOutput;
+    inputs.temperature = 25.0;
+  }
+
+  @Override
+  public void setVoltage(double volts) {
+    set(volts / 12.0);
+  }
+
+  @Override
+  public void set(double percent) {
+    m_controlType = ControlType.kDutyCycle;
+    m_setpoint = MathUtil.clamp(percent, -1.0, 1.0);
+  }
+
+  @Override
+  public void setReference(double value, ControlType controlType) {
+    m_controlType = controlType;
+    m_setpoint = value;
+  }
+
+  @Override
+  public void setSmartMotion(double maxVelocity, double minOutputVelocity, double maxAcceleration, double allowedClosedLoopError, int slot) {
+    m_smartMotionMaxVelocity = maxVelocity;
+  }
+
+  @Override
+  public void setSoftLimit(SoftLimitDirection direction, float limit) {
+    if (direction == SoftLimitDirection.kForward) {
+      m_forwardSoftLimit = limit;
+    } else {
+      m_reverseSoftLimit = limit;
+    }
+  }
+
+  @Override
+  public void enableSoftLimit(SoftLimitDirection direction, boolean enable) {
+    if (direction == SoftLimitDirection.kForward) {
+      m_forwardSoftLimitEnabled = enable;
+    } else {
+      m_reverseSoftLimitEnabled = enable;
+    }
+  }
+
+  @Override
+  public void follow(SparkMaxIO leader, boolean invert) {
+    m_leader = (SparkMaxIOSim) leader;
+    m_invertFollower = invert;
+  }
+}
@@ -6,53 +6,69 @@ package frc.robot.subsystems;
 
 import java.text.DecimalFormat;
 
-import com.revrobotics.CANSparkMax;
-import com.revrobotics.SparkPIDController;
 import com.revrobotics.SparkRelativeEncoder;
 import com.revrobotics.CANSparkBase.ControlType;
 import com.revrobotics.CANSparkBase.IdleMode;
 import com.revrobotics.CANSparkBase.SoftLimitDirection;
-import com.revrobotics.RelativeEncoder;
 import com.revrobotics.CANSparkLowLevel.MotorType;
 
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
-import edu.wpi.first.wpilibj2.command.SubsystemBase;
-import frc.robot.TuningVariables;
+import frc.robot.logging.InputLogger;
+import frc.robot.telemetry.DoubleSignal;
+import frc.robot.telemetry.Telemetry;
 
-public class SparkMaxMotor extends SubsystemBase {
+public class SparkMaxMotor extends ProfiledSubsystem {
   private final String m_name;
-  private final CANSparkMax m_CANSparkMax;
+  private final SparkMaxIO m_io;
+  private final SparkMaxIO.Inputs m_inputs = new SparkMaxIO.Inputs();
+  private final String m_inputsName;
   private final MotorType m_motorType;
-  private final RelativeEncoder m_RelativeEncoder;
-  private final SparkPIDController m_SparkPIDController;
+  private final boolean m_hasEncoder;
   private final double m_encoderRotationsPerFinalRotation;
   private double m_zeroEncoderPosition;
   private int m_SmartMotionSlot = 0;
   private DecimalFormat df2 = new DecimalFormat("#.00"); // for 2 digits after decimal in printouts
   private double m_desiredPosition = 0.0;
+  private final DoubleSignal m_positionTelemetry;
+  private final DoubleSignal m_velocityTelemetry;
+  private final DoubleSignal m_currentTelemetry;
+  private final DoubleSignal m_desiredPositionTelemetry;
+  private final DoubleSignal m_appliedOutputTelemetry;
+  private final DoubleSignal m_temperatureTelemetry;
   
   /** Creates a new SparkMaxBrushless. */
   public SparkMaxMotor(int canId, double encoderRotationsPerFinalRotation, String name){
     this(canId, encoderRotationsPerFinalRotation, name, null, null, 0);
   }
   public SparkMaxMotor(int canId, double encoderRotationsPerFinalRotation, String name, MotorType motorType, SparkRelativeEncoder.Type encoderType, int encoderCountsPerRevolution) {
+    super("SparkMaxMotor " + name);
     m_name = name;
     m_encoderRotationsPerFinalRotation =  encoderRotationsPerFinalRotation;
+    m_positionTelemetry = Telemetry.addDouble(name + " pos", 5.0, 10.0);
+    m_velocityTelemetry = Telemetry.addDouble(name + " vel", 5.0, 10.0);
+    m_currentTelemetry = Telemetry.addDouble(name + " amps", 5.0, 5.0);
+    m_desiredPositionTelemetry = Telemetry.addDouble(name + " desired pos", 5.0, 10.0);
+    m_appliedOutputTelemetry = Telemetry.addDouble(name + " applied output", Telemetry.kLogOnly);
+    m_temperatureTelemetry = Telemetry.addDouble(name + " temperature", Telemetry.kLogOnly);
     if (motorType == null){
       motorType = MotorType.kBrushless;
     }
-    m_CANSparkMax = new CANSparkMax(canId, motorType);
-    m_CANSparkMax.restoreFactoryDefaults();
     m_motorType = motorType;
-    if (motorType == MotorType.kBrushless){
-      m_RelativeEncoder = m_CANSparkMax.getEncoder();
-    } else if (encoderType != null) {
-      m_RelativeEncoder = m_CANSparkMax.getEncoder(encoderType, encoderCountsPerRevolution);
-    } else {
-      m_RelativeEncoder = null;  // force null ptr exception if we try to use encoder, kNoEncoder might be better
+    m_hasEncoder = motorType == MotorType.kBrushless || encoderType != null;
+    m_inputsName = "SparkMax/" + name;
+    switch (InputLogger.getMode()) {
+      case kReal:
+        m_io = new SparkMaxIOReal(canId, motorType, encoderType, encoderCountsPerRevolution);
+        break;
+      case kSim:
+        m_io = new SparkMaxIOSim();
+        break;
+      default:
+        m_io = new SparkMaxIO() {};
+        break;
     }
-    SmartDashboard.putString("relative encoder type = ", m_RelativeEncoder.toString());
-    m_SparkPIDController = m_CANSparkMax.getPIDController();
+    // the zero position is read from the encoder, which must be set up first
+    m_io.awaitConfiguration();
+    updateInputs();
     setCurrentPositionAsZeroEncoderPosition();
   }
 
@@ -65,9 +81,6 @@ public class SparkMaxMotor extends SubsystemBase {
   public MotorType getMotorType(){
     return m_motorType;
   }
-  public CANSparkMax getSparkMax(){
-    return m_CANSparkMax;
-  }
 
   /**
    * @param brakeOnIdle - if true, motor will be put in break mode when percentSpeed is 0;
@@ -75,9 +88,9 @@ public class SparkMaxMotor extends SubsystemBase {
    */
   public void setToBrakeOnIdle(boolean brakeOnIdle){
     if (brakeOnIdle){
-      m_CANSparkMax.setIdleMode(IdleMode.kBrake);
+      m_io.setIdleMode(IdleMode.kBrake);
     }else{
-      m_CANSparkMax.setIdleMode(IdleMode.kCoast);
+      m_io.setIdleMode(IdleMode.kCoast);
     }
   }
 
@@ -106,7 +119,7 @@ public class SparkMaxMotor extends SubsystemBase {
     if (follower.getMotorType() != getMotorType()){
       throw new Error("follower's motor type must match the leader's");
     } else {
-      follower.getSparkMax().follow(m_CANSparkMax, invert);
+      follower.m_io.follow(m_io, invert);
     }
   }
 
@@ -115,11 +128,11 @@ public class SparkMaxMotor extends SubsystemBase {
    * code started before robot was in its initial configuration.
    */
   public void setCurrentPositionAsZeroEncoderPosition(){
-    if (m_RelativeEncoder == null){
+    if (!m_hasEncoder){
       System.out.println("No encoder: cannot set current position as zero position!");
     } else {
       System.out.print(m_name + ": Changing zeroEncoderPosition from " + df2.format(m_zeroEncoderPosition));
-      m_zeroEncoderPosition = m_RelativeEncoder.getPosition();
+      m_zeroEncoderPosition = m_inputs.encoderPosition;
       System.out.println(" to " + df2.format(m_zeroEncoderPosition));
     }
   }
@@ -128,8 +141,7 @@ public class SparkMaxMotor extends SubsystemBase {
    * Position of thing being rotated.  Units = rotations of that thing.
    */
   public double getPosition(){
-    // return (m_RelativeEncoder.getPosition() - m_zeroEncoderPosition) / m_encoderRotationsPerFinalRotation;
-    return encoderPositionToFinalPosition(m_RelativeEncoder.getPosition());
+    return encoderPositionToFinalPosition(m_inputs.encoderPosition);
   }
 
   /**
@@ -137,55 +149,50 @@ public class SparkMaxMotor extends SubsystemBase {
    * Velocity of thing being rotated.  Units = rotations of that thing per minute
    */
   public double getVelocity(){
-    return m_RelativeEncoder.getVelocity() / m_encoderRotationsPerFinalRotation;
-  }
-
-  /**
-   * @return
-   * The encoder associated with this motor controller.  You may use this
-   * if you wish to use motor-oriented units for position and velocity.
-   */
-  public RelativeEncoder getEncoder(){
-    return m_RelativeEncoder;
+    return m_inputs.encoderVelocity / m_encoderRotationsPerFinalRotation;
   }
 
   public String getName(){
     return m_name;
   }
 
+  /**
+   * Read the Spark MAX (or, in replay, the recorded values) and log the readings.
+   */
+  private void updateInputs(){
+    m_io.updateInputs(m_inputs);
+    InputLogger.processInputs(m_inputsName, m_inputs);
+  }
+
   @Override
-  public void periodic() {
+  protected void profiledPeriodic() {
     // This method will be called once per scheduler run
-    if (TuningVariables.debugLevel.getNumber() >= 5.0) {
-      SmartDashboard.putNumber(getName() + " pos", getPosition());
-      SmartDashboard.putNumber(getName() + " vel", getVelocity());
-      SmartDashboard.putNumber(getName() + " amps", m_CANSparkMax.getOutputCurrent());
-      SmartDashboard.putNumber(getName() + " desired pos", m_desiredPosition);
-    }
+    updateInputs();
+    m_positionTelemetry.set(getPosition());
+    m_velocityTelemetry.set(getVelocity());
+    m_currentTelemetry.set(m_inputs.outputCurrent);
+    m_desiredPositionTelemetry.set(m_desiredPosition);
+    m_appliedOutputTelemetry.set(m_inputs.appliedOutput);
+    m_temperatureTelemetry.set(m_inputs.temperature);
   }
 
   /**
    * @param percent: desired 'speed' on a scale of -1.0 to 1.0
    */
   public void setVoltage(double voltage){
-    m_CANSparkMax.setVoltage(voltage);
+    m_io.setVoltage(voltage);
   }
   public void setPercentSpeed(double percent){
-    m_CANSparkMax.set(percent);
+    m_io.set(percent);
   }
   public void setRPM(double rpm){
     double encoderRpm = rpm * m_encoderRotationsPerFinalRotation;
     // System.out.println("setting desired encoder rpm to " + encoderRpm);
-    m_SparkPIDController.setReference(encoderRpm, ControlType.kVelocity);
+    m_io.setReference(encoderRpm, ControlType.kVelocity);
   }
   // We use encoder-centric PID parameters so we can copy them from test/tuning program
   public void setPIDCoefficients(double kP, double kI, double kD, double kIZone, double kFeedForward, double kMinOutput, double kMaxOutput) {
-    m_SparkPIDController.setP(kP);
-    m_SparkPIDController.setI(kI);
-    m_SparkPIDController.setD(kD);
-    m_SparkPIDController.setIZone(kIZone);
-    m_SparkPIDController.setFF(kFeedForward);
-    m_SparkPIDController.setOutputRange(kMinOutput, kMaxOutput);
+    m_io.setPIDCoefficients(kP, kI, kD, kIZone, kFeedForward, kMinOutput, kMaxOutput);
   }
   public class PIDCoefficients {
     public double m_kP;
@@ -213,14 +220,14 @@ public class SparkMaxMotor extends SubsystemBase {
   public void doSmartMotion(double desiredPosition, double maxVelocity, double minVelocity,
     double maxAcceleration, double allowedClosedLoopError){
       m_desiredPosition = desiredPosition;
-      m_SparkPIDController.setSmartMotionMaxVelocity(maxVelocity * m_encoderRotationsPerFinalRotation, m_SmartMotionSlot);
-      m_SparkPIDController.setSmartMotionMinOutputVelocity(minVelocity * m_encoderRotationsPerFinalRotation, m_SmartMotionSlot);
-      m_SparkPIDController.setSmartMotionMaxAccel(maxAcceleration * m_encoderRotationsPerFinalRotation, m_SmartMotionSlot);
-      m_SparkPIDController.setSmartMotionAllowedClosedLoopError(allowedClosedLoopError/m_encoderRotationsPerFinalRotation, m_SmartMotionSlot); // what units?
+      m_io.setSmartMotion(maxVelocity * m_encoderRotationsPerFinalRotation,
+        minVelocity * m_encoderRotationsPerFinalRotation,
+        maxAcceleration * m_encoderRotationsPerFinalRotation,
+        allowedClosedLoopError/m_encoderRotationsPerFinalRotation, m_SmartMotionSlot); // what units?
       //double desiredEncoderPosition = m_desiredPosition * m_encoderRotationsPerFinalRotation + m_zeroEncoderPosition;
       double desiredEncoderPosition = finalPositionToEncoderPosition(m_desiredPosition);
-      System.out.println("Going from encoder position " + df2.format(m_RelativeEncoder.getPosition()) + " to " + df2.format(desiredEncoderPosition));
-      m_SparkPIDController.setReference(desiredEncoderPosition, CANSparkMax.ControlType.kSmartMotion);
+      System.out.println("Going from encoder position " + df2.format(m_inputs.encoderPosition) + " to " + df2.format(desiredEncoderPosition));
+      m_io.setReference(desiredEncoderPosition, ControlType.kSmartMotion);
     }
     /**
      * Stop pushing backward when structure has rotated down to or below minFinalPosition
@@ -229,8 +236,8 @@ public class SparkMaxMotor extends SubsystemBase {
      */
     public void setAndEnableLowerSoftLimit(double minFinalPosition){
       double minEncoderPosition = finalPositionToEncoderPosition(minFinalPosition);
-      m_CANSparkMax.setSoftLimit(SoftLimitDirection.kReverse, (float)minEncoderPosition);
-      m_CANSparkMax.enableSoftLimit(SoftLimitDirection.kReverse, true);
+      m_io.setSoftLimit(SoftLimitDirection.kReverse, (float)minEncoderPosition);
+      m_io.enableSoftLimit(SoftLimitDirection.kReverse, true);
     }
     /**
      * Stop pushing forward when structure has rotated up to or past maxFinalPosition
@@ -239,24 +246,24 @@ public class SparkMaxMotor extends SubsystemBase {
      */
     public void setAndEnableUpperSoftLimit(double maxFinalPosition){
       double maxEncoderPosition = finalPositionToEncoderPosition(maxFinalPosition);
-      m_CANSparkMax.setSoftLimit(SoftLimitDirection.kForward, (float)maxEncoderPosition);
-      m_CANSparkMax.enableSoftLimit(SoftLimitDirection.kForward, true);
+      m_io.setSoftLimit(SoftLimitDirection.kForward, (float)maxEncoderPosition);
+      m_io.enableSoftLimit(SoftLimitDirection.kForward, true);
     }
     /**
      * Stop respecting soft limits in both directions.  Intended for emergency use or for testing.
      */
     public void disableSoftLimits(){
       System.out.println(m_name + ": disabling soft limits on position");
-      m_CANSparkMax.enableSoftLimit(SoftLimitDirection.kForward, false);
-      m_CANSparkMax.enableSoftLimit(SoftLimitDirection.kReverse, false);
+      m_io.enableSoftLimit(SoftLimitDirection.kForward, false);
+      m_io.enableSoftLimit(SoftLimitDirection.kReverse, false);
     }
     /**
      * Resume respecting soft limits in both directions
      */
     public void enableSoftLimits(){
       System.out.println(m_name + ": enabling soft limits on position");
-      m_CANSparkMax.enableSoftLimit(SoftLimitDirection.kForward, true);
-      m_CANSparkMax.enableSoftLimit(SoftLimitDirection.kReverse, true); 
+      m_io.enableSoftLimit(SoftLimitDirection.kForward, true);
+      m_io.enableSoftLimit(SoftLimitDirection.kReverse, true); 
     }
     /**
      * Not implemented yet.  The intent is to be still, even if some force is
@@ -1,115 +1,430 @@
 package frc.robot.subsystems;
 
 import frc.robot.SwerveModule;
+import frc.robot.PhoenixOdometryThread;
+import frc.robot.DeviceConfigurator;
+import frc.robot.SwerveModuleSnapshot;
+import frc.robot.TunableGains;
 import frc.robot.TuningVariables;
+import frc.robot.logging.InputLogger;
+import frc.robot.telemetry.DoubleSignal;
+import frc.robot.telemetry.StructArraySignal;
+import frc.robot.telemetry.StructSignal;
+import frc.robot.telemetry.Telemetry;
 import frc.robot.Constants;
-import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import frc.lib.util.PoseHistory;
 import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
-import edu.wpi.first.math.kinematics.SwerveDriveOdometry;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.pathplanner.lib.auto.AutoBuilder;
+import com.pathplanner.lib.util.HolonomicPathFollowerConfig;
+import com.pathplanner.lib.util.PIDConstants;
+import com.pathplanner.lib.util.ReplanningConfig;
+
 //import com.ctre.phoenix6.configs.Pigeon2Configuration;
 //import com.ctre.phoenix6.hardware.Pigeon2;
 
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.Matrix;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
-import edu.wpi.first.wpilibj.smartdashboard.Field2d;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
-import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.DriverStation;
 
-public class Swerve extends SubsystemBase {
-    public SwerveDriveOdometry swerveOdometry;
+public class Swerve extends ProfiledSubsystem {
+    /*
+     * The pose estimate: x and y in meters, heading in radians.  Odometry moves it once per
+     * scheduler run with every sample taken since the last one, and vision corrects it (see
+     * addVisionMeasurement()).  Kept in primitives, so that neither allocates; m_pose is
+     * the Pose2d getPose() returns, made once per scheduler run.
+     */
+    private double m_poseX = 0.0;
+    private double m_poseY = 0.0;
+    private double m_poseTheta = 0.0;
+    private Pose2d m_pose = new Pose2d();
+    /* heading minus gyro yaw, radians */
+    private double m_headingOffset = 0.0;
+    /* the pose estimate at each odometry sample, for vision latency compensation and getPoseAt() */
+    private final PoseHistory m_poseHistory = new PoseHistory(Constants.Swerve.poseHistorySeconds, Constants.Swerve.odometryFrequency);
+    private double m_lastOdometryTimestamp = 0.0;
+    /* the last odometry sample's gyro yaw (radians) and module distances (meters) */
+    private double m_lastGyroRadians = 0.0;
+    private final double[] m_lastModuleMeters = new double[4];
+    /* Preallocated buffers for addVisionMeasurement() */
+    private final double[] m_sampledPose = new double[3];
+    private final double[] m_correctedPose = new double[3];
+    private final double[] m_currentPose = new double[3];
     public SwerveModule[] mSwerveMods;
     private boolean m_usePigeon = false;
     // public Pigeon2 gyro;
-    private Gyro gyro = new Gyro(m_usePigeon);
+    private Gyro gyro;
+    /* every module's and the gyro's signals, refreshed together once per loop */
+    private BaseStatusSignal[] m_statusSignals;
+    /* how fast the simulated robot is turning, for the simulated gyro */
+    private double m_simulatedYawRateDegreesPerSecond = 0.0;
+    /* true once the pose is in field coordinates; see isPoseOnField() */
+    private boolean m_poseOnField = false;
+    /* modules not configured in time at construction, whose wheel angles are not yet reset; see resetModulesWhenConfigured() */
+    private final boolean[] m_awaitingReset = new boolean[4];
+    /* less than 1 while a brownout is predicted; see getTeleopSpeedScale() */
+    private double m_speedScale = 1.0;
 
-    Field2d m_field = new Field2d();
+    /* Preallocated buffers for drive(), getModuleStates() and getModulePositions() */
+    private final double[] m_moduleX = new double[4];
+    private final double[] m_moduleY = new double[4];
+    private final double[] m_moduleSpeeds = new double[4];
+    /** rotations counterclockwise */
+    private final double[] m_moduleAngles = new double[4];
+    private final SwerveModuleState[] m_moduleStates = new SwerveModuleState[4];
+    private final SwerveModulePosition[] m_modulePositions = new SwerveModulePosition[4];
 
-    public Swerve() {
+    /* Packed struct topics for AdvantageScope, each updated atomically every loop */
+    private final StructArraySignal<SwerveModuleState> m_moduleStatesTelemetry =
+        Telemetry.addStructArray("Swerve/ModuleStates", SwerveModuleState.struct);
+    private final StructArraySignal<SwerveModulePosition> m_modulePositionsTelemetry =
+        Telemetry.addStructArray("Swerve/ModulePositions", SwerveModulePosition.struct, 0.0, 25.0);
+    private final StructSignal<Pose2d> m_poseTelemetry = Telemetry.addStruct("Swerve/Pose", Pose2d.struct);
+    private final StructSignal<Rotation2d> m_gyroTelemetry = Telemetry.addStruct("Swerve/GyroYaw", Rotation2d.struct);
 
-        SmartDashboard.putData("Field", m_field);
+    /* Scalar entries that are not in the structs, indexed by module number */
+    private final DoubleSignal[] m_canCoderTelemetry = new DoubleSignal[4];
+    private final DoubleSignal[] m_driveCurrentTelemetry = new DoubleSignal[4];
+    private final DoubleSignal[] m_angleCurrentTelemetry = new DoubleSignal[4];
+    private final DoubleSignal[] m_desiredSpeedTelemetry = new DoubleSignal[4];
+    private final DoubleSignal[] m_desiredAngleTelemetry = new DoubleSignal[4];
+    private final DoubleSignal m_failedWaitsTelemetry = Telemetry.addDouble("Odometry Failed Waits", 5.0, 1.0);
+
+    public Swerve() {
 
         // gyro = new Pigeon2(Constants.Swerve.pigeonID);
         // gyro.getConfigurator().apply(new Pigeon2Configuration());
+        gyro = new Gyro(m_usePigeon, () -> m_simulatedYawRateDegreesPerSecond);
         gyro.setYaw(0);
 
+        for(int i = 0 ; i < 4 ; i++){
+            m_moduleX[i] = Constants.Swerve.moduleTranslations[i].getX();
+            m_moduleY[i] = Constants.Swerve.moduleTranslations[i].getY();
+            m_moduleStates[i] = new SwerveModuleState();
+            m_modulePositions[i] = new SwerveModulePosition();
+            m_canCoderTelemetry[i] = Telemetry.addDouble("Mod " + i + " CANcoder", 5.0, 10.0);
+            m_driveCurrentTelemetry[i] = Telemetry.addDouble("Mod" + i + "Drive Current", 5.0, 5.0);
+            m_angleCurrentTelemetry[i] = Telemetry.addDouble("Mod" + i + "Angle Current", 5.0, 5.0);
+            m_desiredSpeedTelemetry[i] = Telemetry.addDouble("Mod " + i + " Desired Speed", Telemetry.kLogOnly);
+            m_desiredAngleTelemetry[i] = Telemetry.addDouble("Mod " + i + " Desired Angle", Telemetry.kLogOnly);
+        }
+
         mSwerveMods = new SwerveModule[] {
             new SwerveModule(0, Constants.Swerve.Mod0.constants),
             new SwerveModule(1, Constants.Swerve.Mod1.constants),
             new SwerveModule(2, Constants.Swerve.Mod2.constants),
             new SwerveModule(3, Constants.Swerve.Mod3.constants)
         };
+        List<BaseStatusSignal> statusSignals = new ArrayList<>(List.of(gyro.getStatusSignals()));
+        for(SwerveModule mod : mSwerveMods){
+            statusSignals.addAll(List.of(mod.getStatusSignals()));
+        }
+        m_statusSignals = statusSignals.toArray(new BaseStatusSignal[0]);
+        // the CANcoders must have their configs before their absolute positions mean anything.
+        // Only this drivetrain's devices are waited for; RobotContainer waits for the rest.
+        for(SwerveModule mod : mSwerveMods){
+            if (!mod.awaitConfiguration(DeviceConfigurator.kDefaultTimeoutSeconds)) {
+                m_awaitingReset[mod.moduleNumber] = true;
+                DriverStation.reportError("Swerve module " + mod.moduleNumber
+                    + " was not configured in time; it will not drive until it is", false);
+            }
+        }
+        refreshStatusSignals();
+        for(SwerveModule mod : mSwerveMods){
+            mod.updateInputs();
+            if (!m_awaitingReset[mod.moduleNumber]) {
+                mod.resetToAbsolute();
+            }
+        }
+        // Slot0 gains come from TuningVariables, so they can be tuned from the dashboard
+        TunableGains.create(gains -> {
+                for(SwerveModule mod : mSwerveMods){
+                    mod.setAngleGains(gains[0], gains[1], gains[2]);
+                }
+            },
+            TuningVariables.swerveAngleKP, TuningVariables.swerveAngleKI, TuningVariables.swerveAngleKD);
+        TunableGains.create(gains -> {
+                for(SwerveModule mod : mSwerveMods){
+                    mod.setDriveGains(gains[0], gains[1], gains[2]);
+                }
+            },
+            TuningVariables.swerveDriveKP, TuningVariables.swerveDriveKI, TuningVariables.swerveDriveKD);
+        setPose(new Pose2d());
 
-        swerveOdometry = new SwerveDriveOdometry(Constants.Swerve.swerveKinematics, getGyroYaw(), getModulePositions());
+        if (InputLogger.getMode() == InputLogger.Mode.kReal) {
+            // the modules and gyro have registered their odometry signals
+            PhoenixOdometryThread.getInstance().start();
+        }
+        configureAutoBuilder();
+    }
+
+    /**
+     * Let PathPlanner autos drive this drivetrain.  The paths are drawn for the blue
+     * alliance, and mirrored when we are red.
+     */
+    private void configureAutoBuilder() {
+        AutoBuilder.configureHolonomic(
+            this::getPose,
+            this::setFieldPose,
+            this::getRobotRelativeSpeeds,
+            this::driveRobotRelative,
+            new HolonomicPathFollowerConfig(
+                new PIDConstants(Constants.AutoConstants.kPathTranslationKP, 0.0, 0.0),
+                new PIDConstants(Constants.AutoConstants.kPathRotationKP, 0.0, 0.0),
+                Constants.Swerve.maxSpeed,
+                Constants.Swerve.moduleTranslations[0].getNorm(), // drive base radius
+                new ReplanningConfig()),
+            () -> DriverStation.getAlliance().orElse(DriverStation.Alliance.Blue) == DriverStation.Alliance.Red,
+            this);
     }
 
     public void drive(Translation2d translation, double rotation, boolean fieldRelative, boolean isOpenLoop) {
-        SwerveModuleState[] swerveModuleStates =
-            Constants.Swerve.swerveKinematics.toSwerveModuleStates(
-                fieldRelative ? ChassisSpeeds.fromFieldRelativeSpeeds(
-                                    translation.getX(), 
-                                    translation.getY(), 
-                                    rotation, 
-                                    getHeading()
-                                )
-                                : new ChassisSpeeds(
-                                    translation.getX(), 
-                                    translation.getY(), 
-                                    rotation)
-                                );
-        SwerveDriveKinematics.desaturateWheelSpeeds(swerveModuleStates, Constants.Swerve.maxSpeed);
+        drive(translation.getX(), translation.getY(), rotation, fieldRelative, isOpenLoop);
+    }
+
+    /**
+     * Allocation-free drive.  Does the work of ChassisSpeeds.fromFieldRelativeSpeeds,
+     * SwerveDriveKinematics.toSwerveModuleStates and desaturateWheelSpeeds in place,
+     * using preallocated buffers, so steady-state teleop creates no garbage.
+     * @param xMetersPerSecond - forward speed
+     * @param yMetersPerSecond - leftward speed
+     * @param rotation - counterclockwise speed, radians per second
+     * @param fieldRelative - true if x and y are relative to the field rather than the robot
+     * @param isOpenLoop - true for duty cycle control of the drive motors
+     */
+    public void drive(double xMetersPerSecond, double yMetersPerSecond, double rotation, boolean fieldRelative, boolean isOpenLoop) {
+        double vx = xMetersPerSecond;
+        double vy = yMetersPerSecond;
+        if (fieldRelative) {
+            double headingRadians = getHeading().getRadians();
+            double cos = Math.cos(headingRadians);
+            double sin = Math.sin(headingRadians);
+            vx = xMetersPerSecond * cos + yMetersPerSecond * sin;
+            vy = -xMetersPerSecond * sin + yMetersPerSecond * cos;
+        }
+
+        boolean stopped = vx == 0.0 && vy == 0.0 && rotation == 0.0;
+        double maxModuleSpeed = 0.0;
+        for(int i = 0 ; i < m_moduleSpeeds.length ; i++){
+            if (stopped) {
+                // like toSwerveModuleStates, leave the wheels pointing where they were
+                m_moduleSpeeds[i] = 0.0;
+                continue;
+            }
+            double moduleVx = vx - rotation * m_moduleY[i];
+            double moduleVy = vy + rotation * m_moduleX[i];
+            m_moduleSpeeds[i] = Math.sqrt(moduleVx * moduleVx + moduleVy * moduleVy);
+            m_moduleAngles[i] = Math.atan2(moduleVy, moduleVx) / (2.0 * Math.PI);
+            maxModuleSpeed = Math.max(maxModuleSpeed, m_moduleSpeeds[i]);
+        }
+        if (maxModuleSpeed > Constants.Swerve.maxSpeed) {
+            double scale = Constants.Swerve.maxSpeed / maxModuleSpeed;
+            for(int i = 0 ; i < m_moduleSpeeds.length ; i++){
+                m_moduleSpeeds[i] *= scale;
+            }
+        }
 
         for(SwerveModule mod : mSwerveMods){
-            mod.setDesiredState(swerveModuleStates[mod.moduleNumber], isOpenLoop);
+            if (m_awaitingReset[mod.moduleNumber]) {
+                continue; // its wheel angle is unknown
+            }
+            mod.setDesiredState(m_moduleSpeeds[mod.moduleNumber], m_moduleAngles[mod.moduleNumber], isOpenLoop);
         }
     }    
 
+    /** Used by PathPlanner; closed loop, like setModuleStates() */
+    public void driveRobotRelative(ChassisSpeeds speeds) {
+        drive(speeds.vxMetersPerSecond, speeds.vyMetersPerSecond, speeds.omegaRadiansPerSecond, false, false);
+    }
+
+    /** Used by PathPlanner */
+    public ChassisSpeeds getRobotRelativeSpeeds() {
+        return Constants.Swerve.swerveKinematics.toChassisSpeeds(getModuleStates());
+    }
+
+    /**
+     * Drive slower while a brownout is predicted (see PowerDistributionMonitor),
+     * since the drive motors draw most of the robot's current.  Only teleop slows
+     * down (see getTeleopSpeedScale()); autos must keep to their paths' timing.
+     */
+    public void setBrownoutPredicted(boolean predicted){
+        m_speedScale = predicted ? Constants.Swerve.brownoutSpeedScale : 1.0;
+    }
+
+    /** @return what TeleopSwerve multiplies the driver's speeds by: less than 1 while a brownout is predicted */
+    public double getTeleopSpeedScale(){
+        return m_speedScale;
+    }
+
     /* Used by SwerveControllerCommand in Auto */
     public void setModuleStates(SwerveModuleState[] desiredStates) {
         SwerveDriveKinematics.desaturateWheelSpeeds(desiredStates, Constants.Swerve.maxSpeed);
         
         for(SwerveModule mod : mSwerveMods){
+            if (m_awaitingReset[mod.moduleNumber]) {
+                continue; // its wheel angle is unknown
+            }
             mod.setDesiredState(desiredStates[mod.moduleNumber], false);
         }
     }
 
+    /**
+     * @return the state of each module.  The array and its elements are reused
+     * by the next call, so copy anything you want to keep.
+     */
     public SwerveModuleState[] getModuleStates(){
-        SwerveModuleState[] states = new SwerveModuleState[4];
         for(SwerveModule mod : mSwerveMods){
-            states[mod.moduleNumber] = mod.getState();
+            mod.getState(m_moduleStates[mod.moduleNumber]);
         }
-        return states;
+        return m_moduleStates;
     }
 
+    /**
+     * @return the position of each module.  The array and its elements are reused
+     * by the next call, so copy anything you want to keep.
+     */
     public SwerveModulePosition[] getModulePositions(){
-        SwerveModulePosition[] positions = new SwerveModulePosition[4];
         for(SwerveModule mod : mSwerveMods){
-            positions[mod.moduleNumber] = mod.getPosition();
+            mod.getPosition(m_modulePositions[mod.moduleNumber]);
         }
-        return positions;
+        return m_modulePositions;
     }
 
     public Pose2d getPose() {
-        return swerveOdometry.getPoseMeters();
+        return m_pose;
     }
 
+    /**
+     * Set the pose relative to wherever the caller likes (the hand-written autos
+     * use their starting point).  Afterwards, isPoseOnField() is false.
+     */
     public void setPose(Pose2d pose) {
-        swerveOdometry.resetPosition(getGyroYaw(), getModulePositions(), pose);
+        m_lastGyroRadians = getGyroYaw().getRadians();
+        // indexed by module number, like m_lastModuleMeters
+        SwerveModulePosition[] positions = getModulePositions();
+        for(int i = 0 ; i < positions.length ; i++){
+            m_lastModuleMeters[i] = positions[i].distanceMeters;
+        }
+        m_poseX = pose.getX();
+        m_poseY = pose.getY();
+        m_poseTheta = pose.getRotation().getRadians();
+        m_headingOffset = m_poseTheta - m_lastGyroRadians;
+        m_pose = pose;
+        m_poseHistory.clear();
+        m_poseOnField = false;
+    }
+
+    /** Set the pose in field coordinates, as PathPlanner autos do at their starting pose */
+    public void setFieldPose(Pose2d pose) {
+        setPose(pose);
+        m_poseOnField = true;
+    }
+
+    /**
+     * @return true if getPose() is in field coordinates: a PathPlanner auto has set
+     * its starting pose, or vision has seen a tag, since the pose was last set otherwise.
+     * Until then, the pose is relative to where the robot started.
+     */
+    public boolean isPoseOnField() {
+        return m_poseOnField;
+    }
+
+    /**
+     * Fuse an AprilTag field pose into the pose estimate.  The estimate at
+     * timestampSeconds is looked up in the pose history and moved part way toward
+     * the measurement, as SwerveDrivePoseEstimator would (but in field rather than
+     * robot coordinates, the same for the small corrections vision makes); the
+     * history since then and the current estimate move with it, keeping the
+     * odometry since the frame, so camera latency does not matter.  Measurements
+     * older than the history are ignored.
+     * If the pose is not yet in field coordinates, it is set to the measurement
+     * instead, since there is nothing to fuse it with.
+     * Ignored unless TuningVariables.useVisionPose is true.
+     * @param visionPose - robot pose on the field
+     * @param timestampSeconds - FPGA time the camera frame was captured
+     * @param stdDevs - trust in the measurement: x, y (meters) and heading (radians)
+     */
+    public void addVisionMeasurement(Pose2d visionPose, double timestampSeconds, Matrix<N3, N1> stdDevs) {
+        if (!TuningVariables.useVisionPose.getBoolean()) {
+            return;
+        }
+        if (!m_poseOnField) {
+            setFieldPose(visionPose);
+            return;
+        }
+        if (!m_poseHistory.sample(timestampSeconds, m_sampledPose)) {
+            return;
+        }
+        m_correctedPose[0] = m_sampledPose[0]
+            + visionGain(0, stdDevs) * (visionPose.getX() - m_sampledPose[0]);
+        m_correctedPose[1] = m_sampledPose[1]
+            + visionGain(1, stdDevs) * (visionPose.getY() - m_sampledPose[1]);
+        m_correctedPose[2] = m_sampledPose[2]
+            + visionGain(2, stdDevs) * MathUtil.angleModulus(visionPose.getRotation().getRadians() - m_sampledPose[2]);
+        m_poseHistory.transformSince(timestampSeconds, m_sampledPose, m_correctedPose);
+
+        m_currentPose[0] = m_poseX;
+        m_currentPose[1] = m_poseY;
+        m_currentPose[2] = m_poseTheta;
+        PoseHistory.transform(m_currentPose, m_sampledPose, m_correctedPose);
+        m_poseX = m_currentPose[0];
+        m_poseY = m_currentPose[1];
+        m_poseTheta = m_currentPose[2];
+        m_headingOffset += m_correctedPose[2] - m_sampledPose[2];
+        m_pose = new Pose2d(m_poseX, m_poseY, new Rotation2d(m_poseTheta));
+    }
+
+    /**
+     * The fraction of a vision measurement's error to correct along one axis, the
+     * steady-state Kalman gain SwerveDrivePoseEstimator uses: odometry's variance
+     * over its own plus the geometric mean of it and the measurement's.
+     * @param axis - 0 for x, 1 for y, 2 for heading
+     */
+    private static double visionGain(int axis, Matrix<N3, N1> stdDevs) {
+        double odometryVariance = Math.pow(Constants.VisionConstants.odometryStdDevs.get(axis, 0), 2);
+        double visionVariance = Math.pow(stdDevs.get(axis, 0), 2);
+        if (odometryVariance == 0.0) {
+            return 0.0;
+        }
+        return odometryVariance / (odometryVariance + Math.sqrt(odometryVariance * visionVariance));
+    }
+
+    /**
+     * Where the robot was at a given time in the last Constants.Swerve.poseHistorySeconds,
+     * without allocating anything.  This is the fused pose estimate (odometry corrected
+     * by vision, including vision that arrived after that time), not raw odometry.
+     * @param timestampSeconds - FPGA time
+     * @param xyTheta - filled with x (meters), y (meters), and heading (radians)
+     * @return false if there is no pose history for that time
+     */
+    public boolean getPoseAt(double timestampSeconds, double[] xyTheta) {
+        return m_poseHistory.sample(timestampSeconds, xyTheta);
     }
 
     public Rotation2d getHeading(){
         return getPose().getRotation();
     }
 
+    /** The driver's idea of downfield is not the field's on the red alliance, so afterwards isPoseOnField() is false */
     public void setHeading(Rotation2d heading){
-        swerveOdometry.resetPosition(getGyroYaw(), getModulePositions(), new Pose2d(getPose().getTranslation(), heading));
+        setPose(new Pose2d(getPose().getTranslation(), heading));
     }
 
     public void zeroHeading(){
-        swerveOdometry.resetPosition(getGyroYaw(), getModulePositions(), new Pose2d(getPose().getTranslation(), new Rotation2d()));
+        setHeading(new Rotation2d());
     }
 
     public Rotation2d getGyroYaw() {
@@ -117,14 +432,114 @@ public class Swerve extends SubsystemBase {
         return Rotation2d.fromDegrees(gyro.getYaw());
     }
 
+    /** One CAN wait for every module's and the gyro's signals, instead of one per device */
+    private void refreshStatusSignals(){
+        if (m_statusSignals.length > 0) {
+            BaseStatusSignal.refreshAll(m_statusSignals);
+        }
+    }
+
+    /**
+     * Read the gyro and every module's sensors, including the odometry samples
+     * PhoenixOdometryThread has taken since the last scheduler run, then clear
+     * the samples.  The lock keeps the thread from adding a sample part way through.
+     */
+    private void updateInputs(){
+        PhoenixOdometryThread odometryThread = PhoenixOdometryThread.getInstance();
+        odometryThread.lock();
+        try {
+            refreshStatusSignals();
+            gyro.updateInputs();
+            for(SwerveModule mod : mSwerveMods){
+                mod.updateInputs();
+            }
+            odometryThread.clearSamples();
+        } finally {
+            odometryThread.unlock();
+        }
+    }
+
+    /**
+     * Move the pose estimate by each odometry sample from this scheduler run's
+     * inputs, in order, and record it in the pose history.  Samples already used
+     * (which replay can repeat if a loop is missing from the log) are skipped.
+     * This is SwerveDriveOdometry's update, in place: the modules' average
+     * displacement (the least-squares fit, since Constants.Swerve.moduleTranslations
+     * are symmetric about the center) along the arc the gyro says the robot turned.
+     */
+    private void updateOdometry(){
+        SwerveModuleSnapshot firstSnapshot = mSwerveMods[0].getSnapshot();
+        double[] timestamps = firstSnapshot.odometryTimestamps;
+        for(int i = 0 ; i < firstSnapshot.odometrySampleCount ; i++){
+            if (timestamps[i] <= m_lastOdometryTimestamp) {
+                continue;
+            }
+            for(SwerveModule mod : mSwerveMods){
+                if (i >= mod.getSnapshot().odometrySampleCount) {
+                    return; // the modules disagree on the samples; wait for the next run
+                }
+            }
+            double dx = 0.0;
+            double dy = 0.0;
+            for(SwerveModule mod : mSwerveMods){
+                SwerveModuleSnapshot snapshot = mod.getSnapshot();
+                double meters = snapshot.odometryDriveMeters[i];
+                double angleRadians = snapshot.odometryAngleRotations[i] * 2.0 * Math.PI;
+                double displacement = meters - m_lastModuleMeters[mod.moduleNumber];
+                m_lastModuleMeters[mod.moduleNumber] = meters;
+                dx += displacement * Math.cos(angleRadians);
+                dy += displacement * Math.sin(angleRadians);
+            }
+            dx /= mSwerveMods.length;
+            dy /= mSwerveMods.length;
+
+            double gyroRadians = Units.degreesToRadians(gyro.getYawForOdometry(i));
+            double dtheta = MathUtil.angleModulus(gyroRadians - m_lastGyroRadians);
+            m_lastGyroRadians = gyroRadians;
+            // Pose2d.exp(): (dx, dy) in the robot's frame, bent along the turn
+            double s;
+            double c;
+            if (Math.abs(dtheta) < 1E-9) {
+                s = 1.0 - dtheta * dtheta / 6.0;
+                c = 0.5 * dtheta;
+            } else {
+                s = Math.sin(dtheta) / dtheta;
+                c = (1.0 - Math.cos(dtheta)) / dtheta;
+            }
+            double robotDx = dx * s - dy * c;
+            double robotDy = dx * c + dy * s;
+            double cos = Math.cos(m_poseTheta);
+            double sin = Math.sin(m_poseTheta);
+            m_poseX += robotDx * cos - robotDy * sin;
+            m_poseY += robotDx * sin + robotDy * cos;
+            m_poseTheta = MathUtil.angleModulus(gyroRadians + m_headingOffset);
+            m_poseHistory.add(timestamps[i], m_poseX, m_poseY, m_poseTheta);
+            m_lastOdometryTimestamp = timestamps[i];
+        }
+        m_pose = new Pose2d(m_poseX, m_poseY, new Rotation2d(m_poseTheta));
+    }
+
     public void resetModulesToAbsolute(){
         for(SwerveModule mod : mSwerveMods){
-            mod.resetToAbsolute();
+            if (!m_awaitingReset[mod.moduleNumber]) {
+                mod.resetToAbsolute();
+            }
         }
     }
 
-    public Field2d getField2d(){
-        return m_field;
+    /**
+     * Reset the wheel angle of each module whose configuration was not finished
+     * at construction, once it is: its CANcoder's absolute position means nothing
+     * until then.  Checks without waiting, so it can run every loop.
+     */
+    private void resetModulesWhenConfigured(){
+        for(SwerveModule mod : mSwerveMods){
+            if (m_awaitingReset[mod.moduleNumber] && mod.awaitConfiguration(0.0)) {
+                mod.resetToAbsolute();
+                m_awaitingReset[mod.moduleNumber] = false;
+                DriverStation.reportWarning("Swerve module " + mod.moduleNumber + " is now configured", false);
+            }
+        }
     }
 
     public void lockX(){
@@ -138,19 +553,32 @@ public class Swerve extends SubsystemBase {
     }
 
     @Override
-    public void periodic(){
-        swerveOdometry.update(getGyroYaw(), getModulePositions());
+    protected void profiledPeriodic(){
+        // runs before any command's execute(), so drive() sees this run's inputs
+        updateInputs();
+        resetModulesWhenConfigured();
+        updateOdometry();
 
-        m_field.setRobotPose(getPose());
+        m_moduleStatesTelemetry.set(getModuleStates());
+        m_modulePositionsTelemetry.set(getModulePositions());
+        m_poseTelemetry.set(getPose());
+        m_gyroTelemetry.set(getGyroYaw());
 
-        if (TuningVariables.debugLevel.getNumber() >= 5.0){
-            for(SwerveModule mod : mSwerveMods){
-                SmartDashboard.putNumber("Mod " + mod.moduleNumber + " CANcoder", mod.getCANcoder().getDegrees());
-                SmartDashboard.putNumber("Mod " + mod.moduleNumber + " Angle", mod.getPosition().angle.getDegrees());
-                SmartDashboard.putNumber("Mod " + mod.moduleNumber + " Velocity", mod.getState().speedMetersPerSecond);
-                SmartDashboard.putNumber("Mod" + mod.moduleNumber + "Drive Current", mod.getDriveCurrent());
-                SmartDashboard.putNumber("Mod" + mod.moduleNumber + "Angle Current", mod.getAngleCurrent());    
-            }
+        // recorded every loop; debugLevel only decides what goes to the dashboard
+        m_failedWaitsTelemetry.set(PhoenixOdometryThread.getInstance().getFailedWaits());
+        for(SwerveModule mod : mSwerveMods){
+            SwerveModuleSnapshot snapshot = mod.getSnapshot();
+            m_canCoderTelemetry[mod.moduleNumber].set(snapshot.canCoderRotations * 360.0);
+            m_driveCurrentTelemetry[mod.moduleNumber].set(snapshot.driveCurrent);
+            m_angleCurrentTelemetry[mod.moduleNumber].set(snapshot.angleCurrent);
+            m_desiredSpeedTelemetry[mod.moduleNumber].set(mod.getDesiredMetersPerSecond());
+            m_desiredAngleTelemetry[mod.moduleNumber].set(mod.getDesiredAngleRotations() * 360.0);
         }
     }
+
+    @Override
+    public void simulationPeriodic(){
+        m_simulatedYawRateDegreesPerSecond = Units.radiansToDegrees(
+            Constants.Swerve.swerveKinematics.toChassisSpeeds(getModuleStates()).omegaRadiansPerSecond);
+    }
 }
\ No newline at end of file
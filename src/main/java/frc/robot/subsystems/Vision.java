@@ -4,63 +4,130 @@
 
 package frc.robot.subsystems;
 
-import java.util.List;
-
-import org.photonvision.PhotonCamera;
-import org.photonvision.targeting.PhotonPipelineResult;
-import org.photonvision.targeting.PhotonTrackedTarget;
+import java.util.function.Supplier;
 
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
-import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.Constants;
+import frc.robot.logging.InputLogger;
+
+public class Vision extends ProfiledSubsystem {
+  /** Receives field poses of the robot computed from AprilTags */
+  public interface PoseMeasurementConsumer {
+    /**
+     * @param pose - robot pose on the field
+     * @param timestampSeconds - FPGA time the camera frame was captured
+     * @param stdDevs - trust in the measurement: x, y (meters) and heading (radians)
+     */
+    void accept(Pose2d pose, double timestampSeconds, Matrix<N3, N1> stdDevs);
+  }
+
+  private final VisionIO m_io;
+  private final VisionIO.Inputs m_inputs = new VisionIO.Inputs();
+  private PoseMeasurementConsumer m_poseMeasurementConsumer;
+  private double m_lastMeasurementTimestamp = 0.0;
 
-public class Vision extends SubsystemBase {
-  private PhotonCamera camera;
-  private PhotonPipelineResult m_result;
-  private boolean m_hasTargets;
   /** Creates a new Vision. */ 
   public Vision(String cameraName) {
-    camera = new PhotonCamera(cameraName);
+    this(cameraName, Pose2d::new);
+  }
+
+  /**
+   * @param simulatedRobotPose - in simulation, where the robot is, so the simulated
+   * camera can see the right tags.  Ignored on the real robot.
+   */
+  public Vision(String cameraName, Supplier<Pose2d> simulatedRobotPose) {
+    switch (InputLogger.getMode()) {
+      case kReal:
+        m_io = new VisionIOReal(cameraName);
+        break;
+      case kSim:
+        m_io = new VisionIOSim(cameraName, simulatedRobotPose);
+        break;
+      default:
+        m_io = new VisionIO() {};
+        break;
+    }
   }
+
+  /**
+   * Send each new AprilTag field pose to consumer (typically Swerve::addVisionMeasurement).
+   */
+  public void setPoseMeasurementConsumer(PoseMeasurementConsumer consumer){
+    m_poseMeasurementConsumer = consumer;
+  }
+
   public boolean hasTargets(){
-    return m_hasTargets;
+    return m_inputs.targetIds.length > 0;
   }
+  /**
+   * @return yaw of the best target, degrees clockwise, or 0 if there are no targets
+   */
   public double getYaw(){
-    double yaw;
-    if (m_hasTargets){
-      PhotonTrackedTarget target = m_result.getBestTarget();
-      yaw = target.getYaw();
-    } else {
-      yaw = 0.0;
-    }
-    return yaw;
+    return hasTargets() ? m_inputs.targetYaws[0] : 0.0;
   }
-  public double getYaw(PhotonTrackedTarget target){
-    return target.getYaw();
+  /**
+   * @return true if the AprilTag with this fiducial id is visible
+   */
+  public boolean hasAprilTag(int id){
+    return indexOfAprilTag(id) >= 0;
   }
-  public PhotonTrackedTarget getBestAprilTag(){
-    if (m_hasTargets){
-      return m_result.getBestTarget();
-    } 
-    return null;
+  /**
+   * @return yaw of the AprilTag with this fiducial id, degrees clockwise, or 0 if it is not visible
+   */
+  public double getAprilTagYaw(int id){
+    int index = indexOfAprilTag(id);
+    return index >= 0 ? m_inputs.targetYaws[index] : 0.0;
   }
-  public PhotonTrackedTarget getAprilTag(int id){
-    if (m_hasTargets){
-      List<PhotonTrackedTarget> targets = m_result.getTargets();
-      for(PhotonTrackedTarget target: targets){
-        if (target.getFiducialId() == id) {
-          return target;
-        } 
+  private int indexOfAprilTag(int id){
+    for(int i = 0 ; i < m_inputs.targetIds.length ; i++){
+      if (m_inputs.targetIds[i] == id) {
+        return i;
       }
     }
-    return null;
+    return -1;
+  }
+
+  /**
+   * Standard deviations for a vision pose: trust multi-tag poses more than single-tag
+   * ones, trust all of them less the farther away the tags are, and reject single
+   * tags that are too far away to be reliable.
+   * @return null if the pose should not be used at all
+   */
+  private Matrix<N3, N1> getStdDevs(long numTags, double averageDistance){
+    if (numTags == 0) {
+      return null;
+    }
+    if (numTags == 1 && averageDistance > Constants.VisionConstants.maxSingleTagDistance) {
+      return null;
+    }
+    Matrix<N3, N1> stdDevs = numTags > 1 ? Constants.VisionConstants.multiTagStdDevs : Constants.VisionConstants.singleTagStdDevs;
+    return stdDevs.times(1.0 + averageDistance * averageDistance / 30.0);
+  }
+
+  private void updatePoseMeasurement(){
+    if (m_poseMeasurementConsumer == null || !m_inputs.hasPose || m_inputs.poseTimestampSeconds == m_lastMeasurementTimestamp) {
+      return;
+    }
+    m_lastMeasurementTimestamp = m_inputs.poseTimestampSeconds;
+    Matrix<N3, N1> stdDevs = getStdDevs(m_inputs.poseTagCount, m_inputs.poseAverageTagDistance);
+    if (stdDevs != null) {
+      m_poseMeasurementConsumer.accept(new Pose2d(m_inputs.poseXMeters, m_inputs.poseYMeters, new Rotation2d(m_inputs.poseRadians)),
+        m_inputs.poseTimestampSeconds, stdDevs);
+    }
   }
 
   @Override
-  public void periodic() {
+  protected void profiledPeriodic() {
     // This method will be called once per scheduler run
-    m_result = camera.getLatestResult();
-    m_hasTargets = m_result.hasTargets();
-    SmartDashboard.putBoolean("Has Targets", m_hasTargets);
+    m_io.updateInputs(m_inputs);
+    InputLogger.processInputs("Vision", m_inputs);
+    updatePoseMeasurement();
+    SmartDashboard.putBoolean("Has Targets", hasTargets());
     SmartDashboard.putNumber("yaw", getYaw());
     
   }
@@ -0,0 +1,67 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems;
+
+import frc.robot.logging.LogTable;
+import frc.robot.logging.LoggableInputs;
+
+/**
+ * The AprilTag camera behind Vision.  VisionIOReal reads PhotonVision results,
+ * VisionIOSim renders them from the simulated robot pose, and in replay Vision
+ * uses these do-nothing defaults while its inputs come from the log.
+ */
+public interface VisionIO {
+  public static class Inputs implements LoggableInputs {
+    private static final double[] kNone = new double[0];
+
+    public boolean connected = false;
+    /** fiducial ids of the visible tags, best first */
+    public double[] targetIds = kNone;
+    /** yaw of each visible tag, degrees clockwise, in the same order as targetIds */
+    public double[] targetYaws = kNone;
+    /** true if the pose estimator produced a field pose from this result */
+    public boolean hasPose = false;
+    public double poseXMeters = 0.0;
+    public double poseYMeters = 0.0;
+    public double poseRadians = 0.0;
+    /** FPGA time the frame behind the pose was captured */
+    public double poseTimestampSeconds = 0.0;
+    /** number of tags used for the pose that are in the field layout */
+    public long poseTagCount = 0;
+    /** average distance from the pose to those tags, meters */
+    public double poseAverageTagDistance = 0.0;
+
+    @Override
+    public void toLog(LogTable table) {
+      table.put("Connected", connected);
+      table.put("TargetIds", targetIds);
+      table.put("TargetYaws", targetYaws);
+      table.put("HasPose", hasPose);
+      table.put("PoseXMeters", poseXMeters);
+      table.put("PoseYMeters", poseYMeters);
+      table.put("PoseRadians", poseRadians);
+      table.put("PoseTimestampSeconds", poseTimestampSeconds);
+      table.put("PoseTagCount", poseTagCount);
+      table.put("PoseAverageTagDistance", poseAverageTagDistance);
+    }
+
+    @Override
+    public void fromLog(LogTable table) {
+      connected = table.get("Connected", connected);
+      targetIds = table.get("TargetIds", kNone);
+      targetYaws = table.get("TargetYaws", kNone);
+      hasPose = table.get("HasPose", false);
+      poseXMeters = table.get("PoseXMeters", poseXMeters);
+      poseYMeters = table.get("PoseYMeters", poseYMeters);
+      poseRadians = table.get("PoseRadians", poseRadians);
+      poseTimestampSeconds = table.get("PoseTimestampSeconds", poseTimestampSeconds);
+      poseTagCount = table.get("PoseTagCount", poseTagCount);
+      poseAverageTagDistance = table.get("PoseAverageTagDistance", poseAverageTagDistance);
+    }
+  }
+
+  /** Fill in inputs with the camera's latest result */
+  public default void updateInputs(Inputs inputs) {}
+}
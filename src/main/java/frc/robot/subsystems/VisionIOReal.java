@@ -0,0 +1,76 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.photonvision.EstimatedRobotPose;
+import org.photonvision.PhotonCamera;
+import org.photonvision.PhotonPoseEstimator;
+import org.photonvision.PhotonPoseEstimator.PoseStrategy;
+import org.photonvision.targeting.PhotonPipelineResult;
+import org.photonvision.targeting.PhotonTrackedTarget;
+
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.apriltag.AprilTagFields;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Pose3d;
+import frc.robot.Constants;
+
+/** A PhotonVision AprilTag camera */
+public class VisionIOReal implements VisionIO {
+  protected final PhotonCamera m_camera;
+  protected final AprilTagFieldLayout m_fieldLayout = AprilTagFields.k2024Crescendo.loadAprilTagLayoutField();
+  private final PhotonPoseEstimator m_poseEstimator;
+
+  public VisionIOReal(String cameraName) {
+    m_camera = new PhotonCamera(cameraName);
+    m_poseEstimator = new PhotonPoseEstimator(m_fieldLayout, PoseStrategy.MULTI_TAG_PNP_ON_COPROCESSOR,
+      m_camera, Constants.VisionConstants.robotToCamera);
+    m_poseEstimator.setMultiTagFallbackStrategy(PoseStrategy.LOWEST_AMBIGUITY);
+  }
+
+  @Override
+  public void updateInputs(Inputs inputs) {
+    inputs.connected = m_camera.isConnected();
+    PhotonPipelineResult result = m_camera.getLatestResult();
+    List<PhotonTrackedTarget> targets = result.getTargets();
+    if (inputs.targetIds.length != targets.size()) {
+      inputs.targetIds = new double[targets.size()];
+      inputs.targetYaws = new double[targets.size()];
+    }
+    for (int i = 0; i < targets.size(); i++) {
+      inputs.targetIds[i] = targets.get(i).getFiducialId();
+      inputs.targetYaws[i] = targets.get(i).getYaw();
+    }
+
+    inputs.hasPose = false;
+    if (!result.hasTargets()) {
+      return;
+    }
+    Optional<EstimatedRobotPose> estimate = m_poseEstimator.update(result);
+    if (estimate.isEmpty()) {
+      return;
+    }
+    Pose2d pose = estimate.get().estimatedPose.toPose2d();
+    int numTags = 0;
+    double totalDistance = 0.0;
+    for (PhotonTrackedTarget target : estimate.get().targetsUsed) {
+      Optional<Pose3d> tagPose = m_fieldLayout.getTagPose(target.getFiducialId());
+      if (tagPose.isPresent()) {
+        numTags++;
+        totalDistance += tagPose.get().getTranslation().toTranslation2d().getDistance(pose.getTranslation());
+      }
+    }
+    inputs.hasPose = true;
+    inputs.poseXMeters = pose.getX();
+    inputs.poseYMeters = pose.getY();
+    inputs.poseRadians = pose.getRotation().getRadians();
+    inputs.poseTimestampSeconds = estimate.get().timestampSeconds;
+    inputs.poseTagCount = numTags;
+    inputs.poseAverageTagDistance = numTags > 0 ? totalDistance / numTags : 0.0;
+  }
+}
@@ -0,0 +1,40 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.subsystems;
+
+import java.util.function.Supplier;
+
+import org.photonvision.simulation.PhotonCameraSim;
+import org.photonvision.simulation.SimCameraProperties;
+import org.photonvision.simulation.VisionSystemSim;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import frc.robot.Constants;
+
+/**
+ * PhotonVision's simulated camera, seeing the field's AprilTags from wherever
+ * the simulated robot is.  Results are read exactly as on the robot.
+ */
+public class VisionIOSim extends VisionIOReal {
+  private final VisionSystemSim m_visionSim = new VisionSystemSim("main");
+  private final Supplier<Pose2d> m_robotPose;
+
+  /**
+   * @param robotPose - where the simulated robot is, usually Swerve::getPose
+   */
+  public VisionIOSim(String cameraName, Supplier<Pose2d> robotPose) {
+    super(cameraName);
+    m_robotPose = robotPose;
+    m_visionSim.addAprilTags(m_fieldLayout);
+    PhotonCameraSim cameraSim = new PhotonCameraSim(m_camera, new SimCameraProperties());
+    m_visionSim.addCamera(cameraSim, Constants.VisionConstants.robotToCamera);
+  }
+
+  @Override
+  public void updateInputs(Inputs inputs) {
+    m_visionSim.update(m_robotPose.get());
+    super.updateInputs(inputs);
+  }
+}
@@ -5,10 +5,9 @@
 package frc.robot.subsystems;
 
 import edu.wpi.first.math.util.Units;
-import edu.wpi.first.wpilibj2.command.SubsystemBase;
 // import frc.robot.Constants;
 
-public class Wrist extends SubsystemBase {
+public class Wrist extends ProfiledSubsystem {
   private SparkMaxMotor m_motor;
   private double m_percentSpeed = 0.0;
   private boolean m_isHoldingPosition;
@@ -66,7 +65,7 @@ public class Wrist extends SubsystemBase {
   }
 
   @Override
-  public void periodic() {
+  protected void profiledPeriodic() {
     // This method will be called once per scheduler run
     if (m_isHoldingPosition) {
       // bang bang control.  The speeds should depend on the angle from vertical, but we don't know that now
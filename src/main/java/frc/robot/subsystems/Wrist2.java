@@ -5,10 +5,9 @@
 package frc.robot.subsystems;
 
 import edu.wpi.first.math.util.Units;
-import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants;
 
-public class Wrist2 extends SubsystemBase {
+public class Wrist2 extends ProfiledSubsystem {
   private SparkMaxMotor m_motor;
   private double m_percentSpeed;
   private boolean m_isHoldingPosition;
@@ -112,7 +111,7 @@ public class Wrist2 extends SubsystemBase {
   }
 
   @Override
-  public void periodic() {
+  protected void profiledPeriodic() {
     // This method will be called once per scheduler run
     if (m_isHoldingPosition && m_positionToHold != 0.0) {
       // bang bang control.  The speeds should depend on the angle from vertical, but we don't know that now
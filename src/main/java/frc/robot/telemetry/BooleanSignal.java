@@ -0,0 +1,35 @@
+package frc.robot.telemetry;
+
+import edu.wpi.first.networktables.BooleanPublisher;
+import edu.wpi.first.util.datalog.BooleanLogEntry;
+import edu.wpi.first.util.datalog.DataLog;
+
+/** A true/false value on the dashboard.  Make these with Telemetry.addBoolean(). */
+public class BooleanSignal extends PrimitiveSignal {
+    private BooleanPublisher m_publisher;
+    private BooleanLogEntry m_logEntry;
+
+    BooleanSignal(String key, int id, PublishSchedule schedule) {
+        super(key, id, schedule);
+    }
+
+    public void set(boolean value) {
+        enqueue(value ? 1.0 : 0.0);
+    }
+
+    @Override
+    void appendToLog(DataLog log, double value, long timestampMicros) {
+        if (m_logEntry == null) {
+            m_logEntry = new BooleanLogEntry(log, Telemetry.logName(m_key));
+        }
+        m_logEntry.append(value != 0.0, timestampMicros);
+    }
+
+    @Override
+    void publishLatest() {
+        if (m_publisher == null) {
+            m_publisher = Telemetry.getTable().getBooleanTopic(m_key).publish();
+        }
+        m_publisher.set(m_latestValue != 0.0, m_latestTimestamp);
+    }
+}
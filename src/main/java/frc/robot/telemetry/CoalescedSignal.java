@@ -0,0 +1,15 @@
+package frc.robot.telemetry;
+
+import edu.wpi.first.util.datalog.DataLog;
+
+/**
+ * A signal with object values (strings, structs) that keeps only its latest
+ * pending value instead of queueing every sample.
+ */
+interface CoalescedSignal {
+    /**
+     * Called on the drain thread every tick: log the pending value, if any, and
+     * publish the latest value if it has not been and it is this signal's turn.
+     */
+    void drain(DataLog log, double debugLevel, long tick);
+}
@@ -0,0 +1,35 @@
+package frc.robot.telemetry;
+
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+
+/** A number on the dashboard.  Make these with Telemetry.addDouble(). */
+public class DoubleSignal extends PrimitiveSignal {
+    private DoublePublisher m_publisher;
+    private DoubleLogEntry m_logEntry;
+
+    DoubleSignal(String key, int id, PublishSchedule schedule) {
+        super(key, id, schedule);
+    }
+
+    public void set(double value) {
+        enqueue(value);
+    }
+
+    @Override
+    void appendToLog(DataLog log, double value, long timestampMicros) {
+        if (m_logEntry == null) {
+            m_logEntry = new DoubleLogEntry(log, Telemetry.logName(m_key));
+        }
+        m_logEntry.append(value, timestampMicros);
+    }
+
+    @Override
+    void publishLatest() {
+        if (m_publisher == null) {
+            m_publisher = Telemetry.getTable().getDoubleTopic(m_key).publish();
+        }
+        m_publisher.set(m_latestValue, m_latestTimestamp);
+    }
+}
@@ -0,0 +1,47 @@
+package frc.robot.telemetry;
+
+import edu.wpi.first.util.datalog.DataLog;
+
+/**
+ * A signal whose samples go through Telemetry's ring buffer.  The robot thread
+ * calls enqueue(); everything else runs on the drain thread.
+ */
+abstract class PrimitiveSignal {
+    final String m_key;
+    private final int m_id;
+    private final PublishSchedule m_schedule;
+    /* latest sample, for publishing to NetworkTables; drain thread only */
+    double m_latestValue;
+    long m_latestTimestamp;
+    private boolean m_dirty = false;
+
+    PrimitiveSignal(String key, int id, PublishSchedule schedule) {
+        m_key = key;
+        m_id = id;
+        m_schedule = schedule;
+    }
+
+    void enqueue(double value) {
+        Telemetry.enqueue(m_id, value);
+    }
+
+    /** Log one sample and remember it as the latest. */
+    void record(DataLog log, double value, long timestampMicros) {
+        appendToLog(log, value, timestampMicros);
+        m_latestValue = value;
+        m_latestTimestamp = timestampMicros;
+        m_dirty = true;
+    }
+
+    /** Send the latest sample, if there is a new one and it is this signal's turn, to NetworkTables. */
+    void publish(double debugLevel, long tick) {
+        if (m_dirty && m_schedule.isDue(debugLevel, tick)) {
+            publishLatest();
+            m_dirty = false;
+        }
+    }
+
+    abstract void appendToLog(DataLog log, double value, long timestampMicros);
+
+    abstract void publishLatest();
+}
@@ -0,0 +1,32 @@
+package frc.robot.telemetry;
+
+/**
+ * When a signal is sent to NetworkTables: only at or above a minimum
+ * debugLevel (its priority), and at most every periodTicks drain ticks.
+ * Signals with the same period get different phases, so, e.g., 50 signals at
+ * 1 Hz are published one per tick rather than all in the same tick.
+ */
+final class PublishSchedule {
+    private final double m_minDebugLevel;
+    private final int m_periodTicks;
+    private final int m_phase;
+
+    PublishSchedule(double minDebugLevel, int periodTicks, int phase) {
+        m_minDebugLevel = minDebugLevel;
+        m_periodTicks = periodTicks;
+        m_phase = phase;
+    }
+
+    /** @return true if the signal may be published on this drain tick */
+    boolean isDue(double debugLevel, long tick) {
+        return debugLevel >= m_minDebugLevel && tick % m_periodTicks == m_phase;
+    }
+
+    int getPeriodTicks() {
+        return m_periodTicks;
+    }
+
+    int getPhase() {
+        return m_phase;
+    }
+}
@@ -0,0 +1,64 @@
+package frc.robot.telemetry;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import edu.wpi.first.networktables.StringPublisher;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.StringLogEntry;
+import edu.wpi.first.wpilibj.RobotController;
+
+/** A string on the dashboard.  Make these with Telemetry.addString(). */
+public class StringSignal implements CoalescedSignal {
+    private final String m_key;
+    private final PublishSchedule m_schedule;
+    private final AtomicReference<String> m_pending = new AtomicReference<>();
+    /* robot thread only */
+    private long m_nextDueMicros;
+    /* drain thread only */
+    private String m_unpublished = null;
+    private StringLogEntry m_logEntry;
+    private StringPublisher m_publisher;
+
+    StringSignal(String key, PublishSchedule schedule) {
+        m_key = key;
+        m_schedule = schedule;
+        m_nextDueMicros = schedule.getPhase() * Telemetry.kTickMicros;
+    }
+
+    public void set(String value) {
+        m_pending.set(value);
+    }
+
+    /**
+     * Strings usually take an allocation to build.  Call this first and only
+     * build and set the string when it returns true, to build it no more
+     * often than the signal's rate.
+     */
+    public boolean isDue() {
+        long now = RobotController.getFPGATime();
+        if (now < m_nextDueMicros) {
+            return false;
+        }
+        m_nextDueMicros = now + m_schedule.getPeriodTicks() * Telemetry.kTickMicros;
+        return true;
+    }
+
+    @Override
+    public void drain(DataLog log, double debugLevel, long tick) {
+        String value = m_pending.getAndSet(null);
+        if (value != null) {
+            if (m_logEntry == null) {
+                m_logEntry = new StringLogEntry(log, Telemetry.logName(m_key));
+            }
+            m_logEntry.append(value);
+            m_unpublished = value;
+        }
+        if (m_unpublished != null && m_schedule.isDue(debugLevel, tick)) {
+            if (m_publisher == null) {
+                m_publisher = Telemetry.getTable().getStringTopic(m_key).publish();
+            }
+            m_publisher.set(m_unpublished);
+            m_unpublished = null;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package frc.robot.telemetry;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.RawPublisher;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.RawLogEntry;
+import edu.wpi.first.util.struct.Struct;
+
+/**
+ * A struct-serialized array on the dashboard.  Make these with Telemetry.addStructArray().
+ * Like StructSignal, the array is packed on the robot thread, so it may be reused.
+ */
+public class StructArraySignal<T> implements CoalescedSignal {
+    private final String m_key;
+    private final Struct<T> m_struct;
+    private final PublishSchedule m_schedule;
+    /* robot thread only; grows if a longer array is set */
+    private ByteBuffer m_packBuffer;
+    /* guarded by this */
+    private byte[] m_pending = new byte[0];
+    private int m_pendingLength = 0;
+    private boolean m_hasPending = false;
+    /* drain thread only */
+    private byte[] m_unpublished = null;
+    private RawLogEntry m_logEntry;
+    private RawPublisher m_publisher;
+
+    StructArraySignal(String key, Struct<T> struct, PublishSchedule schedule) {
+        m_key = key;
+        m_struct = struct;
+        m_schedule = schedule;
+        m_packBuffer = ByteBuffer.allocate(0).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public void set(T[] value) {
+        int length = value.length * m_struct.getSize();
+        if (m_packBuffer.capacity() < length) {
+            m_packBuffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        m_packBuffer.clear();
+        for (T element : value) {
+            m_struct.pack(m_packBuffer, element);
+        }
+        synchronized (this) {
+            if (m_pending.length < length) {
+                m_pending = new byte[length];
+            }
+            System.arraycopy(m_packBuffer.array(), 0, m_pending, 0, length);
+            m_pendingLength = length;
+            m_hasPending = true;
+        }
+    }
+
+    @Override
+    public void drain(DataLog log, double debugLevel, long tick) {
+        byte[] draining = null;
+        synchronized (this) {
+            if (m_hasPending) {
+                draining = Arrays.copyOf(m_pending, m_pendingLength);
+                m_hasPending = false;
+            }
+        }
+        if (draining != null) {
+            if (m_logEntry == null) {
+                log.addSchema(m_struct);
+                m_logEntry = new RawLogEntry(log, Telemetry.logName(m_key), "", m_struct.getTypeString() + "[]");
+            }
+            m_logEntry.append(draining);
+            m_unpublished = draining;
+        }
+        if (m_unpublished != null && m_schedule.isDue(debugLevel, tick)) {
+            if (m_publisher == null) {
+                NetworkTableInstance.getDefault().addSchema(m_struct);
+                m_publisher = Telemetry.getTable().getRawTopic(m_key).publish(m_struct.getTypeString() + "[]");
+            }
+            m_publisher.set(m_unpublished);
+            m_unpublished = null;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package frc.robot.telemetry;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.RawPublisher;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.RawLogEntry;
+import edu.wpi.first.util.struct.Struct;
+
+/**
+ * A struct-serialized value on the dashboard.  Make these with Telemetry.addStruct().
+ * The value is packed on the robot thread (so it may be a reused, mutable object)
+ * and the bytes are handed to the drain thread.
+ */
+public class StructSignal<T> implements CoalescedSignal {
+    private final String m_key;
+    private final Struct<T> m_struct;
+    private final PublishSchedule m_schedule;
+    /* robot thread only */
+    private final ByteBuffer m_packBuffer;
+    /* guarded by this */
+    private final byte[] m_pending;
+    private boolean m_hasPending = false;
+    /* drain thread only */
+    private final byte[] m_draining;
+    private boolean m_unpublished = false;
+    private RawLogEntry m_logEntry;
+    private RawPublisher m_publisher;
+
+    StructSignal(String key, Struct<T> struct, PublishSchedule schedule) {
+        m_key = key;
+        m_struct = struct;
+        m_schedule = schedule;
+        m_packBuffer = ByteBuffer.allocate(struct.getSize()).order(ByteOrder.LITTLE_ENDIAN);
+        m_pending = new byte[struct.getSize()];
+        m_draining = new byte[struct.getSize()];
+    }
+
+    public void set(T value) {
+        m_packBuffer.clear();
+        m_struct.pack(m_packBuffer, value);
+        synchronized (this) {
+            System.arraycopy(m_packBuffer.array(), 0, m_pending, 0, m_pending.length);
+            m_hasPending = true;
+        }
+    }
+
+    @Override
+    public void drain(DataLog log, double debugLevel, long tick) {
+        boolean hasNew;
+        synchronized (this) {
+            hasNew = m_hasPending;
+            if (hasNew) {
+                System.arraycopy(m_pending, 0, m_draining, 0, m_draining.length);
+                m_hasPending = false;
+            }
+        }
+        if (hasNew) {
+            if (m_logEntry == null) {
+                log.addSchema(m_struct);
+                m_logEntry = new RawLogEntry(log, Telemetry.logName(m_key), "", m_struct.getTypeString());
+            }
+            m_logEntry.append(m_draining);
+            m_unpublished = true;
+        }
+        if (m_unpublished && m_schedule.isDue(debugLevel, tick)) {
+            m_unpublished = false;
+            if (m_publisher == null) {
+                NetworkTableInstance.getDefault().addSchema(m_struct);
+                m_publisher = Telemetry.getTable().getRawTopic(m_key).publish(m_struct.getTypeString());
+            }
+            m_publisher.set(m_draining);
+        }
+    }
+}
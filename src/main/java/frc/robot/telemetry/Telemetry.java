@@ -0,0 +1,244 @@
+package frc.robot.telemetry;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.struct.Struct;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.RobotController;
+import frc.robot.TuningVariables;
+
+/**
+ * Makes dashboard entries that are cheap to update every loop.  Create each
+ * entry once, when the object that owns it is constructed, and keep it in a
+ * field.  After that, publishing a value is one call: no key strings are built
+ * and no table lookups are done.
+ *
+ * Entries live in the SmartDashboard table, so they show up under the same
+ * names as SmartDashboard.putNumber() etc. would have used.  Every sample is
+ * also recorded, with its own timestamp, in the DataLog under "Telemetry/".
+ *
+ * Set values every loop.  Each entry has a minimum TuningVariables.debugLevel
+ * below which it is not sent to NetworkTables, but it is always written to the
+ * DataLog, so match logs are complete even when we run with a low debugLevel.
+ * Use kLogOnly for values nobody needs to watch live.
+ *
+ * Each entry also has a maximum rate at which it is sent to NetworkTables,
+ * e.g., 50 Hz for the pose but 5 Hz for motor currents and 1 Hz for fault
+ * strings.  Entries with the same rate take turns, so the slow ones are spread
+ * over the drain ticks instead of all being sent in the same tick.  The
+ * DataLog still gets every sample.
+ *
+ * Setting a value does not touch NetworkTables or the DataLog.  Numbers and
+ * booleans go into a lock-free ring buffer; strings and structs just replace
+ * the signal's pending value.  A low-priority background thread drains them
+ * every kDrainPeriodSeconds, so publishing costs nothing on the 20 ms control
+ * loop.  If the ring buffer fills up, new samples are dropped (and counted)
+ * rather than making the robot loop wait; for the dashboard only the latest
+ * value of each signal per drain is sent.
+ *
+ * Only the main robot thread may set values on these signals.
+ */
+public final class Telemetry {
+    private static final NetworkTable s_table = NetworkTableInstance.getDefault().getTable("SmartDashboard");
+    private static final double kDrainPeriodSeconds = 0.02;
+    static final long kTickMicros = (long) (kDrainPeriodSeconds * 1.0e6);
+    /** rate of an entry sent every drain tick */
+    public static final double kMaxRateHz = 1.0 / kDrainPeriodSeconds;
+    private static final int kRingCapacity = 4096; // must be a power of 2
+    /** minimum debugLevel that never sends the entry to NetworkTables */
+    public static final double kLogOnly = Double.POSITIVE_INFINITY;
+
+    /* Single-producer/single-consumer ring buffer of primitive samples.  The robot
+     * thread writes a slot then advances s_writeIndex; the drain thread reads slots
+     * up to s_writeIndex then advances s_readIndex. */
+    private static final int[] s_ringSignalIds = new int[kRingCapacity];
+    private static final double[] s_ringValues = new double[kRingCapacity];
+    private static final long[] s_ringTimestamps = new long[kRingCapacity];
+    private static final AtomicLong s_writeIndex = new AtomicLong();
+    private static final AtomicLong s_readIndex = new AtomicLong();
+    private static volatile long s_droppedSamples = 0;
+
+    private static final List<PrimitiveSignal> s_primitiveSignals = new CopyOnWriteArrayList<>();
+    private static final List<CoalescedSignal> s_coalescedSignals = new CopyOnWriteArrayList<>();
+    private static final DoublePublisher s_droppedSamplesPublisher = s_table.getDoubleTopic("Telemetry Dropped Samples").publish();
+    private static Thread s_drainThread = null;
+    /* period in ticks -> number of entries with that period, for choosing phases */
+    private static final Map<Integer, Integer> s_entriesPerPeriod = new HashMap<>();
+
+    private Telemetry() {}
+
+    public static DoubleSignal addDouble(String key) {
+        return addDouble(key, 0.0);
+    }
+
+    /**
+     * @param minDebugLevel - only send to NetworkTables when TuningVariables.debugLevel
+     * is at least this.  The DataLog always gets every sample.
+     */
+    public static DoubleSignal addDouble(String key, double minDebugLevel) {
+        return addDouble(key, minDebugLevel, kMaxRateHz);
+    }
+
+    /**
+     * @param maxRateHz - send to NetworkTables at most this often
+     */
+    public static synchronized DoubleSignal addDouble(String key, double minDebugLevel, double maxRateHz) {
+        return addPrimitive(new DoubleSignal(key, s_primitiveSignals.size(), schedule(minDebugLevel, maxRateHz)));
+    }
+
+    public static BooleanSignal addBoolean(String key) {
+        return addBoolean(key, 0.0);
+    }
+
+    public static BooleanSignal addBoolean(String key, double minDebugLevel) {
+        return addBoolean(key, minDebugLevel, kMaxRateHz);
+    }
+
+    public static synchronized BooleanSignal addBoolean(String key, double minDebugLevel, double maxRateHz) {
+        return addPrimitive(new BooleanSignal(key, s_primitiveSignals.size(), schedule(minDebugLevel, maxRateHz)));
+    }
+
+    public static StringSignal addString(String key) {
+        return addString(key, 0.0);
+    }
+
+    public static StringSignal addString(String key, double minDebugLevel) {
+        return addString(key, minDebugLevel, kMaxRateHz);
+    }
+
+    public static synchronized StringSignal addString(String key, double minDebugLevel, double maxRateHz) {
+        return addCoalesced(new StringSignal(key, schedule(minDebugLevel, maxRateHz)));
+    }
+
+    /**
+     * A struct-serialized value, e.g., a Pose2d, sent as one packed topic that
+     * AdvantageScope can display directly.
+     * @param struct - the type's serializer, e.g., Pose2d.struct
+     */
+    public static <T> StructSignal<T> addStruct(String key, Struct<T> struct) {
+        return addStruct(key, struct, 0.0);
+    }
+
+    public static <T> StructSignal<T> addStruct(String key, Struct<T> struct, double minDebugLevel) {
+        return addStruct(key, struct, minDebugLevel, kMaxRateHz);
+    }
+
+    public static synchronized <T> StructSignal<T> addStruct(String key, Struct<T> struct, double minDebugLevel, double maxRateHz) {
+        return addCoalesced(new StructSignal<>(key, struct, schedule(minDebugLevel, maxRateHz)));
+    }
+
+    /**
+     * A struct-serialized array, e.g., all four SwerveModuleStates, sent as one
+     * packed topic so all the elements are updated together.
+     * @param struct - the element type's serializer, e.g., SwerveModuleState.struct
+     */
+    public static <T> StructArraySignal<T> addStructArray(String key, Struct<T> struct) {
+        return addStructArray(key, struct, 0.0);
+    }
+
+    public static <T> StructArraySignal<T> addStructArray(String key, Struct<T> struct, double minDebugLevel) {
+        return addStructArray(key, struct, minDebugLevel, kMaxRateHz);
+    }
+
+    public static synchronized <T> StructArraySignal<T> addStructArray(String key, Struct<T> struct, double minDebugLevel, double maxRateHz) {
+        return addCoalesced(new StructArraySignal<>(key, struct, schedule(minDebugLevel, maxRateHz)));
+    }
+
+    /**
+     * Each entry with a given period gets the next phase, so the entries with
+     * that period are spread evenly over its ticks.
+     */
+    private static PublishSchedule schedule(double minDebugLevel, double maxRateHz) {
+        int periodTicks = Math.max(1, (int) Math.round(kMaxRateHz / maxRateHz));
+        int count = s_entriesPerPeriod.getOrDefault(periodTicks, 0);
+        s_entriesPerPeriod.put(periodTicks, count + 1);
+        return new PublishSchedule(minDebugLevel, periodTicks, count % periodTicks);
+    }
+
+    private static synchronized <S extends PrimitiveSignal> S addPrimitive(S signal) {
+        s_primitiveSignals.add(signal);
+        startDrainThread();
+        return signal;
+    }
+
+    private static synchronized <S extends CoalescedSignal> S addCoalesced(S signal) {
+        s_coalescedSignals.add(signal);
+        startDrainThread();
+        return signal;
+    }
+
+    private static void startDrainThread() {
+        if (s_drainThread == null) {
+            s_drainThread = new Thread(Telemetry::drainLoop, "Telemetry");
+            s_drainThread.setDaemon(true);
+            s_drainThread.setPriority(Thread.MIN_PRIORITY);
+            s_drainThread.start();
+        }
+    }
+
+    /**
+     * Queue a sample from the robot thread.  Never blocks; drops the sample if
+     * the drain thread has fallen a whole ring buffer behind.
+     */
+    static void enqueue(int signalId, double value) {
+        long write = s_writeIndex.get();
+        if (write - s_readIndex.get() >= kRingCapacity) {
+            s_droppedSamples++;
+            return;
+        }
+        int slot = (int) (write & (kRingCapacity - 1));
+        s_ringSignalIds[slot] = signalId;
+        s_ringValues[slot] = value;
+        s_ringTimestamps[slot] = RobotController.getFPGATime();
+        s_writeIndex.lazySet(write + 1); // publishes the slot to the drain thread
+    }
+
+    private static void drainLoop() {
+        DataLog log = DataLogManager.getLog();
+        long tick = 0;
+        while (true) {
+            long read = s_readIndex.get();
+            long write = s_writeIndex.get();
+            for (; read < write; read++) {
+                int slot = (int) (read & (kRingCapacity - 1));
+                s_primitiveSignals.get(s_ringSignalIds[slot]).record(log, s_ringValues[slot], s_ringTimestamps[slot]);
+            }
+            s_readIndex.lazySet(read);
+            double debugLevel = TuningVariables.debugLevel.getNumber();
+            for (PrimitiveSignal signal : s_primitiveSignals) {
+                signal.publish(debugLevel, tick);
+            }
+            for (CoalescedSignal signal : s_coalescedSignals) {
+                signal.drain(log, debugLevel, tick);
+            }
+            tick++;
+            s_droppedSamplesPublisher.set(s_droppedSamples);
+            try {
+                Thread.sleep((long) (kDrainPeriodSeconds * 1000));
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Signals make their NetworkTables publishers on their first publish, not when
+     * created, so log-only entries never show up on the dashboard.
+     */
+    static NetworkTable getTable() {
+        return s_table;
+    }
+
+    /** Data logs are named like the NT entries, but under Telemetry/ */
+    static String logName(String key) {
+        return "Telemetry/" + key;
+    }
+}
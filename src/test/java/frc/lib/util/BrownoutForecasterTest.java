@@ -0,0 +1,105 @@
+package frc.lib.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class BrownoutForecasterTest {
+    private static final double kEpsilon = 1e-6;
+    private static final double kSampleRateHz = 100.0;
+    private static final double kNominalResistanceOhms = 0.015;
+
+    private static BrownoutForecaster makeForecaster() {
+        return new BrownoutForecaster(0.5, kSampleRateHz, kNominalResistanceOhms);
+    }
+
+    /** Add one second of samples from a battery with openCircuitVolts and resistanceOhms */
+    private static void addRamp(BrownoutForecaster forecaster, double startAmps, double ampsPerSecond,
+            double openCircuitVolts, double resistanceOhms) {
+        for (int i = 0; i <= 100; i++) {
+            double t = i / kSampleRateHz;
+            double amps = startAmps + ampsPerSecond * t;
+            forecaster.add(t, openCircuitVolts - resistanceOhms * amps, amps);
+        }
+        forecaster.update();
+    }
+
+    @Test
+    void fitsCurrentSlopeAndResistance() {
+        BrownoutForecaster forecaster = makeForecaster();
+        addRamp(forecaster, 20.0, 100.0, 12.5, 0.02);
+
+        assertEquals(100.0, forecaster.getCurrentSlope(), kEpsilon);
+        assertEquals(0.02, forecaster.getResistanceOhms(), kEpsilon);
+        // latest: 120 A, so 12.5 - 0.02 * 120 = 10.1 V; 0.1 s more of the ramp drops it 0.2 V
+        assertEquals(9.9, forecaster.forecast(0.1), kEpsilon);
+    }
+
+    @Test
+    void fallingCurrentForecastsLatestVoltage() {
+        BrownoutForecaster forecaster = makeForecaster();
+        addRamp(forecaster, 150.0, -100.0, 12.5, 0.02);
+
+        assertEquals(-100.0, forecaster.getCurrentSlope(), kEpsilon);
+        assertEquals(12.5 - 0.02 * 50.0, forecaster.forecast(0.1), kEpsilon);
+    }
+
+    @Test
+    void keepsNominalResistanceUntilCurrentSwings() {
+        BrownoutForecaster forecaster = makeForecaster();
+        // 10 A/s over the half second window is far less than the spread needed
+        addRamp(forecaster, 20.0, 10.0, 12.5, 0.05);
+
+        assertEquals(10.0, forecaster.getCurrentSlope(), kEpsilon);
+        assertEquals(kNominalResistanceOhms, forecaster.getResistanceOhms(), kEpsilon);
+    }
+
+    @Test
+    void ignoresUnphysicalResistance() {
+        BrownoutForecaster forecaster = makeForecaster();
+        // voltage rising with current
+        addRamp(forecaster, 20.0, 100.0, 12.5, -0.02);
+
+        assertEquals(kNominalResistanceOhms, forecaster.getResistanceOhms(), kEpsilon);
+    }
+
+    @Test
+    void fitsOnlyTheWindow() {
+        BrownoutForecaster forecaster = makeForecaster();
+        // steady for the first second, then ramping for a second: only the ramp is in the window
+        for (int i = 0; i < 100; i++) {
+            forecaster.add(i / kSampleRateHz, 12.0, 30.0);
+        }
+        for (int i = 100; i <= 200; i++) {
+            double t = i / kSampleRateHz;
+            double amps = 30.0 + 80.0 * (t - 1.0);
+            forecaster.add(t, 12.5 - 0.02 * amps, amps);
+        }
+        forecaster.update();
+
+        assertEquals(80.0, forecaster.getCurrentSlope(), kEpsilon);
+        assertEquals(0.02, forecaster.getResistanceOhms(), kEpsilon);
+    }
+
+    @Test
+    void ignoresOutOfOrderSamples() {
+        BrownoutForecaster forecaster = makeForecaster();
+        forecaster.add(1.0, 12.0, 10.0);
+        forecaster.add(0.5, 7.0, 10.0);
+        forecaster.add(1.0, 7.0, 10.0);
+
+        assertEquals(12.0, forecaster.forecast(0.0), kEpsilon);
+    }
+
+    @Test
+    void needsThreeSamplesForASlope() {
+        BrownoutForecaster forecaster = makeForecaster();
+        assertEquals(0.0, forecaster.forecast(0.1), kEpsilon);
+        forecaster.add(0.0, 12.0, 10.0);
+        forecaster.add(0.01, 11.0, 60.0);
+        forecaster.update();
+
+        assertEquals(0.0, forecaster.getCurrentSlope(), kEpsilon);
+        assertEquals(11.0, forecaster.forecast(0.1), kEpsilon);
+    }
+}
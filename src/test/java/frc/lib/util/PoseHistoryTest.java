@@ -0,0 +1,119 @@
+package frc.lib.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class PoseHistoryTest {
+    private static final double kEpsilon = 1e-9;
+
+    @Test
+    void interpolatesBetweenPoses() {
+        PoseHistory history = new PoseHistory(1.0, 10.0);
+        history.add(0.0, 0.0, 0.0, 0.0);
+        history.add(0.1, 1.0, 2.0, 0.4);
+        history.add(0.2, 3.0, 2.0, 0.4);
+        double[] xyTheta = new double[3];
+
+        assertTrue(history.sample(0.05, xyTheta));
+        assertArrayEquals(new double[] {0.5, 1.0, 0.2}, xyTheta, kEpsilon);
+        assertTrue(history.sample(0.175, xyTheta));
+        assertArrayEquals(new double[] {2.5, 2.0, 0.4}, xyTheta, kEpsilon);
+        assertTrue(history.sample(0.1, xyTheta));
+        assertArrayEquals(new double[] {1.0, 2.0, 0.4}, xyTheta, kEpsilon);
+    }
+
+    @Test
+    void interpolatesHeadingTheShortWayAcrossPi() {
+        PoseHistory history = new PoseHistory(1.0, 10.0);
+        history.add(0.0, 0.0, 0.0, Math.PI - 0.1);
+        history.add(0.1, 0.0, 0.0, -Math.PI + 0.1);
+        double[] xyTheta = new double[3];
+
+        assertTrue(history.sample(0.025, xyTheta));
+        assertEquals(Math.PI - 0.05, xyTheta[2], kEpsilon);
+        assertTrue(history.sample(0.075, xyTheta));
+        assertEquals(-Math.PI + 0.05, xyTheta[2], kEpsilon);
+    }
+
+    @Test
+    void timesOutsideTheHistory() {
+        PoseHistory history = new PoseHistory(1.0, 10.0);
+        double[] xyTheta = {7.0, 8.0, 9.0};
+        assertFalse(history.sample(0.0, xyTheta));
+
+        history.add(1.0, 1.0, 1.0, 1.0);
+        history.add(1.1, 2.0, 2.0, 1.0);
+        assertFalse(history.sample(0.9, xyTheta));
+        assertArrayEquals(new double[] {7.0, 8.0, 9.0}, xyTheta, kEpsilon);
+        // later than the newest pose gives the newest pose
+        assertTrue(history.sample(5.0, xyTheta));
+        assertArrayEquals(new double[] {2.0, 2.0, 1.0}, xyTheta, kEpsilon);
+        assertTrue(history.getPose(0.9).isEmpty());
+        assertEquals(1.5, history.getPose(1.05).orElseThrow().getX(), kEpsilon);
+    }
+
+    @Test
+    void wrapsAroundWhenFull() {
+        // room for 0.5 s at 10 Hz: 6 poses
+        PoseHistory history = new PoseHistory(0.5, 10.0);
+        for (int i = 0; i < 20; i++) {
+            history.add(i / 10.0, i, -i, 0.0);
+        }
+        double[] xyTheta = new double[3];
+
+        assertEquals(6, history.size());
+        assertFalse(history.sample(1.35, xyTheta));
+        assertTrue(history.sample(1.4, xyTheta));
+        assertEquals(14.0, xyTheta[0], kEpsilon);
+        assertTrue(history.sample(1.85, xyTheta));
+        assertArrayEquals(new double[] {18.5, -18.5, 0.0}, xyTheta, kEpsilon);
+    }
+
+    @Test
+    void ignoresOutOfOrderPoses() {
+        PoseHistory history = new PoseHistory(1.0, 10.0);
+        history.add(0.2, 1.0, 0.0, 0.0);
+        history.add(0.1, 5.0, 0.0, 0.0);
+        history.add(0.2, 5.0, 0.0, 0.0);
+        assertEquals(1, history.size());
+
+        history.clear();
+        assertEquals(0, history.size());
+        history.add(0.1, 5.0, 0.0, 0.0);
+        assertEquals(1, history.size());
+    }
+
+    @Test
+    void transformMovesPoseRigidly() {
+        // from (1, 0) facing +x to (0, 1) facing +y: a quarter turn about the origin
+        double[] from = {1.0, 0.0, 0.0};
+        double[] to = {0.0, 1.0, Math.PI / 2.0};
+        double[] pose = {2.0, 0.0, 0.5};
+
+        PoseHistory.transform(pose, from, to);
+
+        assertArrayEquals(new double[] {0.0, 2.0, 0.5 + Math.PI / 2.0}, pose, kEpsilon);
+    }
+
+    @Test
+    void transformSinceLeavesEarlierPoses() {
+        PoseHistory history = new PoseHistory(1.0, 10.0);
+        history.add(0.0, 0.0, 0.0, 0.0);
+        history.add(0.1, 1.0, 0.0, 0.0);
+        history.add(0.2, 2.0, 0.0, 0.0);
+        double[] xyTheta = new double[3];
+
+        history.transformSince(0.1, new double[] {1.0, 0.0, 0.0}, new double[] {1.0, 0.5, 0.0});
+
+        assertTrue(history.sample(0.0, xyTheta));
+        assertArrayEquals(new double[] {0.0, 0.0, 0.0}, xyTheta, kEpsilon);
+        assertTrue(history.sample(0.1, xyTheta));
+        assertArrayEquals(new double[] {1.0, 0.5, 0.0}, xyTheta, kEpsilon);
+        assertTrue(history.sample(0.2, xyTheta));
+        assertArrayEquals(new double[] {2.0, 0.5, 0.0}, xyTheta, kEpsilon);
+    }
+}
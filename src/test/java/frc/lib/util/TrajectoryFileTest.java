@@ -0,0 +1,100 @@
+package frc.lib.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.CleanupMode;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+
+class TrajectoryFileTest {
+    /* read() leaves a file mapped until the buffer is garbage collected, and Windows will not delete a mapped file */
+    @TempDir(cleanup = CleanupMode.NEVER)
+    Path m_directory;
+
+    private static Trajectory makeTrajectory() {
+        return new Trajectory(List.of(
+            new Trajectory.State(0.0, 0.0, 2.0, new Pose2d(0.0, 0.0, new Rotation2d(0.0)), 0.0),
+            new Trajectory.State(0.5, 1.0, 2.0, new Pose2d(0.25, 0.1, new Rotation2d(0.3)), 0.5),
+            new Trajectory.State(1.25, 1.0, -1.5, new Pose2d(1.0, 0.5, new Rotation2d(-2.5)), -0.25)));
+    }
+
+    @Test
+    void readsWhatWasWritten() throws IOException {
+        Path path = m_directory.resolve("subdirectory").resolve("test.traj");
+        Trajectory trajectory = makeTrajectory();
+
+        TrajectoryFile.write(path, trajectory);
+        Trajectory read = TrajectoryFile.read(path);
+
+        assertEquals(trajectory.getStates(), read.getStates());
+        assertEquals(1.25, read.getTotalTimeSeconds());
+        // header plus 7 doubles per sample
+        assertEquals(3 * Integer.BYTES + 3 * 7 * Double.BYTES, Files.size(path));
+    }
+
+    @Test
+    void rejectsMissingFile() {
+        assertThrows(IOException.class, () -> TrajectoryFile.read(m_directory.resolve("missing.traj")));
+    }
+
+    @Test
+    void rejectsEmptyFile() throws IOException {
+        Path path = m_directory.resolve("empty.traj");
+        Files.write(path, new byte[0]);
+
+        assertThrows(IOException.class, () -> TrajectoryFile.read(path));
+    }
+
+    @Test
+    void rejectsWrongMagicNumber() throws IOException {
+        Path path = writeAndPatchHeader(0, 0x12345678);
+
+        assertThrows(IOException.class, () -> TrajectoryFile.read(path));
+    }
+
+    @Test
+    void rejectsWrongVersion() throws IOException {
+        Path path = writeAndPatchHeader(1, 2);
+
+        assertThrows(IOException.class, () -> TrajectoryFile.read(path));
+    }
+
+    @Test
+    void rejectsWrongSampleCount() throws IOException {
+        assertThrows(IOException.class, () -> TrajectoryFile.read(writeAndPatchHeader(2, 4)));
+        assertThrows(IOException.class, () -> TrajectoryFile.read(writeAndPatchHeader(2, 0)));
+    }
+
+    @Test
+    void rejectsTruncatedFile() throws IOException {
+        Path path = m_directory.resolve("truncated.traj");
+        TrajectoryFile.write(path, makeTrajectory());
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - Double.BYTES));
+
+        assertThrows(IOException.class, () -> TrajectoryFile.read(path));
+    }
+
+    /** @return a written file with the header's index'th int replaced by value */
+    private Path writeAndPatchHeader(int index, int value) throws IOException {
+        Path path = m_directory.resolve("patched" + index + "_" + value + ".traj");
+        TrajectoryFile.write(path, makeTrajectory());
+        byte[] bytes = Files.readAllBytes(path);
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(index * Integer.BYTES, value);
+        Files.write(path, bytes);
+        return path;
+    }
+}
@@ -0,0 +1,58 @@
+package frc.robot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class LoopTimeHistogramTest {
+    private static final double kEpsilon = 1e-9;
+
+    @Test
+    void percentilesAreTheUpperEdgeOfTheirBucket() {
+        LoopTimeHistogram histogram = new LoopTimeHistogram();
+        // 0.1 ms, 0.2 ms, ... 10 ms
+        for (int i = 100; i >= 1; i--) {
+            histogram.record(i * 100_000L);
+        }
+
+        assertEquals(100, histogram.getCount());
+        // the 50th time, 5 ms, is in the bucket from 5 to 5.05 ms
+        assertEquals(5.05, histogram.percentile(0.50), kEpsilon);
+        assertEquals(9.95, histogram.percentile(0.99), kEpsilon);
+        assertEquals(10.0, histogram.percentile(1.0), kEpsilon);
+        assertEquals(10.0, histogram.getMaxMilliseconds(), kEpsilon);
+    }
+
+    @Test
+    void percentileIsNoMoreThanTheMaximum() {
+        LoopTimeHistogram histogram = new LoopTimeHistogram();
+        histogram.record(1_230_000L);
+
+        assertEquals(1.23, histogram.percentile(0.50), kEpsilon);
+        assertEquals(1.23, histogram.percentile(0.99), kEpsilon);
+    }
+
+    @Test
+    void longTimesGoInTheLastBucket() {
+        LoopTimeHistogram histogram = new LoopTimeHistogram();
+        histogram.record(1_000_000L);
+        histogram.record(40_000_000L);
+
+        assertEquals(1.05, histogram.percentile(0.50), kEpsilon);
+        assertEquals(LoopTimeHistogram.kNumBuckets * LoopTimeHistogram.kBucketWidthNanos / 1.0e6,
+            histogram.percentile(0.99), kEpsilon);
+        assertEquals(40.0, histogram.getMaxMilliseconds(), kEpsilon);
+    }
+
+    @Test
+    void resetEmptiesIt() {
+        LoopTimeHistogram histogram = new LoopTimeHistogram();
+        histogram.record(3_000_000L);
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0.0, histogram.getMaxMilliseconds(), kEpsilon);
+        histogram.record(200_000L);
+        assertEquals(0.2, histogram.percentile(0.99), kEpsilon);
+    }
+}
@@ -0,0 +1,65 @@
+package frc.robot.subsystems;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class EnergyAccountantTest {
+  private static final double kEpsilon = 1e-9;
+  private static final double kSecondsPerHour = 3600.0;
+
+  /** "Both" on channels 0 and 1, "One" on channel 2, "Missing" on a channel the board does not have */
+  private static EnergyAccountant makeAccountant() {
+    return new EnergyAccountant(new String[] {"Both", "One", "Missing"}, new int[][] {{0, 1}, {2}, {30}});
+  }
+
+  @Test
+  void addsUpAmpHoursWattHoursPeakAndRms() {
+    EnergyAccountant accountant = makeAccountant();
+    accountant.accumulate(new double[] {10.0, 20.0, 5.0}, 12.0, 0.5);
+    accountant.accumulate(new double[] {0.0, 0.0, 15.0}, 10.0, 1.5);
+
+    // 30 A for 0.5 s at 12 V, then nothing for 1.5 s
+    assertEquals(30.0 * 0.5 / kSecondsPerHour, accountant.getAmpHours(0), kEpsilon);
+    assertEquals(30.0 * 12.0 * 0.5 / kSecondsPerHour, accountant.getWattHours(0), kEpsilon);
+    assertEquals(30.0, accountant.getPeakAmps(0), kEpsilon);
+    assertEquals(Math.sqrt(30.0 * 30.0 * 0.5 / 2.0), accountant.getRmsAmps(0), kEpsilon);
+
+    // 5 A for 0.5 s at 12 V, then 15 A for 1.5 s at 10 V
+    assertEquals((5.0 * 0.5 + 15.0 * 1.5) / kSecondsPerHour, accountant.getAmpHours(1), kEpsilon);
+    assertEquals((5.0 * 12.0 * 0.5 + 15.0 * 10.0 * 1.5) / kSecondsPerHour, accountant.getWattHours(1), kEpsilon);
+    assertEquals(15.0, accountant.getPeakAmps(1), kEpsilon);
+    assertEquals(Math.sqrt((5.0 * 5.0 * 0.5 + 15.0 * 15.0 * 1.5) / 2.0), accountant.getRmsAmps(1), kEpsilon);
+
+    assertEquals(0.0, accountant.getAmpHours(2), kEpsilon);
+    assertEquals(0.0, accountant.getRmsAmps(2), kEpsilon);
+  }
+
+  @Test
+  void rmsOfSteadyCurrentIsThatCurrent() {
+    EnergyAccountant accountant = makeAccountant();
+    for (int i = 0; i < 100; i++) {
+      accountant.accumulate(new double[] {4.0, 3.0, 0.0}, 12.0, 0.02);
+    }
+
+    assertEquals(7.0, accountant.getRmsAmps(0), kEpsilon);
+    assertEquals(7.0, accountant.getPeakAmps(0), kEpsilon);
+    assertEquals(7.0 * 2.0 / kSecondsPerHour, accountant.getAmpHours(0), kEpsilon);
+  }
+
+  @Test
+  void resetStartsOver() {
+    EnergyAccountant accountant = makeAccountant();
+    assertEquals(0.0, accountant.getRmsAmps(0), kEpsilon);
+    accountant.accumulate(new double[] {10.0, 20.0, 5.0}, 12.0, 0.5);
+
+    accountant.reset();
+
+    assertEquals(0.0, accountant.getAmpHours(0), kEpsilon);
+    assertEquals(0.0, accountant.getWattHours(0), kEpsilon);
+    assertEquals(0.0, accountant.getPeakAmps(0), kEpsilon);
+    assertEquals(0.0, accountant.getRmsAmps(0), kEpsilon);
+    accountant.accumulate(new double[] {1.0, 1.0, 1.0}, 12.0, 1.0);
+    assertEquals(2.0, accountant.getRmsAmps(0), kEpsilon);
+  }
+}
@@ -0,0 +1,66 @@
+package frc.robot.telemetry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class PublishScheduleTest {
+    @Test
+    void dueOncePerPeriodAtItsPhase() {
+        PublishSchedule schedule = new PublishSchedule(0.0, 5, 2);
+
+        for (long tick = 0; tick < 20; tick++) {
+            assertEquals(tick % 5 == 2, schedule.isDue(1.0, tick), "tick " + tick);
+        }
+        assertEquals(5, schedule.getPeriodTicks());
+        assertEquals(2, schedule.getPhase());
+    }
+
+    @Test
+    void periodOfOneIsAlwaysDue() {
+        PublishSchedule schedule = new PublishSchedule(0.0, 1, 0);
+
+        for (long tick = 0; tick < 10; tick++) {
+            assertTrue(schedule.isDue(0.0, tick));
+        }
+    }
+
+    @Test
+    void samePeriodDifferentPhasesNeverCoincide() {
+        PublishSchedule[] schedules = new PublishSchedule[4];
+        for (int phase = 0; phase < schedules.length; phase++) {
+            schedules[phase] = new PublishSchedule(0.0, 4, phase);
+        }
+
+        for (long tick = 0; tick < 40; tick++) {
+            int due = 0;
+            for (PublishSchedule schedule : schedules) {
+                if (schedule.isDue(0.0, tick)) {
+                    due++;
+                }
+            }
+            assertEquals(1, due, "tick " + tick);
+        }
+    }
+
+    @Test
+    void onlyAtOrAboveItsDebugLevel() {
+        PublishSchedule schedule = new PublishSchedule(2.0, 1, 0);
+
+        assertFalse(schedule.isDue(1.0, 0));
+        assertFalse(schedule.isDue(1.99, 0));
+        assertTrue(schedule.isDue(2.0, 0));
+        assertTrue(schedule.isDue(5.0, 0));
+    }
+
+    @Test
+    void dueOnLargeTickCounts() {
+        PublishSchedule schedule = new PublishSchedule(0.0, 50, 49);
+        long tick = 10_000_000_000L * 50 + 49;
+
+        assertTrue(schedule.isDue(0.0, tick));
+        assertFalse(schedule.isDue(0.0, tick + 1));
+    }
+}